@@ -0,0 +1,62 @@
+package cody.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+/**
+ * Generates the task lists used by the benchmarks.
+ * <p>
+ * The lists are the same on every run, so that results can be compared between releases.
+ * Tasks cycle through todos, deadlines and events, and every description ends with the
+ * task's position so that no two tasks are equal.
+ */
+final class BenchmarkTasks {
+
+    private static final String[] WORDS = {
+        "read", "write", "review", "submit", "prepare", "call", "email", "plan", "clean", "buy",
+        "book", "report", "slides", "tutorial", "lecture", "project", "groceries", "meeting", "essay", "quiz"
+    };
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2025, 1, 1);
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Returns a list of distinct tasks.
+     *
+     * @param size the number of tasks to generate.
+     * @return the generated tasks.
+     */
+    static ArrayList<Task> generate(int size) {
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(taskAt(i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the task generated for a position.
+     *
+     * @param i the position of the task.
+     * @return the generated task.
+     */
+    static Task taskAt(int i) {
+        String description = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " task " + i;
+        LocalDate date = FIRST_DATE.plusDays(i % 730);
+        switch (i % 3) {
+        case 0:
+            return new ToDo(description, i % 4 == 0);
+        case 1:
+            return new Deadline(description, date, i % 4 == 1);
+        default:
+            return new Event(description, date, date.plusDays(i % 5), i % 4 == 2);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package cody.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.task.Task;
+import cody.tasklist.TaskStorage;
+
+/**
+ * A storage backend that starts with a given list of tasks and persists nothing,
+ * so that task list benchmarks measure the list itself rather than the disk.
+ */
+class InMemoryStorage implements TaskStorage {
+
+    private final List<Task> initialTasks;
+
+    /**
+     * Constructs a backend that loads the given tasks.
+     *
+     * @param initialTasks the tasks returned by {@link #getExistingTasks()}.
+     */
+    InMemoryStorage(List<Task> initialTasks) {
+        this.initialTasks = initialTasks;
+    }
+
+    @Override
+    public ArrayList<Task> getExistingTasks() {
+        return new ArrayList<>(this.initialTasks);
+    }
+
+    @Override
+    public void addToFile(Task task) {
+    }
+
+    @Override
+    public void removeFromFile(int taskIndex) {
+    }
+
+    @Override
+    public void insertToFile(int taskIndex, Task task) {
+    }
+
+    @Override
+    public void updateTask(int taskIndex, Task updatedTask) {
+    }
+
+    @Override
+    public void writeAll(List<Task> tasks) {
+    }
+}
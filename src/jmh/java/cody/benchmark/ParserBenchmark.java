@@ -0,0 +1,56 @@
+package cody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cody.parser.Command;
+import cody.parser.Parser;
+
+/**
+ * Measures how long it takes to turn user input into a command and take its arguments apart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    // kept in fields so that the inputs are not treated as constants
+    private String markInput = "mark 42";
+    private String todoInput = "todo read book";
+    private String deadlineInput = "deadline submit report /by 15 Aug 2025";
+    private String eventInput = "event attend hackathon /from 15 Aug 2025 /to 17 Aug 2025";
+
+    @Benchmark
+    public int parseMark() {
+        return new Parser(this.markInput).parse().getTaskNumber();
+    }
+
+    @Benchmark
+    public String parseToDo() {
+        return new Parser(this.todoInput).parse().getArguments();
+    }
+
+    @Benchmark
+    public String[] parseDeadline() {
+        Command command = new Parser(this.deadlineInput).parse();
+        return command.getArgumentsSeparatedBy(" /by ");
+    }
+
+    @Benchmark
+    public String[] parseEvent() {
+        Command command = new Parser(this.eventInput).parse();
+        return command.getArgumentsSeparatedBy(" /from ", " /to ");
+    }
+}
@@ -0,0 +1,67 @@
+package cody.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cody.Ui;
+import cody.exception.CodyException;
+import cody.tasklist.TaskList;
+
+/**
+ * Measures how long it takes to render the reply to the {@code list} command for {@code size} tasks,
+ * and to write every task to an output sink.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private Ui ui;
+    private int lastPage;
+
+    /**
+     * Loads a list of {@code size} tasks.
+     */
+    @Setup(Level.Trial)
+    public void loadTasks() throws IOException, CodyException {
+        this.tasks = new TaskList(new InMemoryStorage(BenchmarkTasks.generate(this.size)));
+        this.ui = new Ui();
+        this.lastPage = (this.size + Ui.PAGE_SIZE - 1) / Ui.PAGE_SIZE;
+    }
+
+    @Benchmark
+    public String listFirstPage() {
+        return this.ui.listTaskPage(this.tasks, 1);
+    }
+
+    @Benchmark
+    public String listLastPage() {
+        return this.ui.listTaskPage(this.tasks, this.lastPage);
+    }
+
+    @Benchmark
+    public void writeAllTasks() throws IOException {
+        this.ui.writeTasks(this.tasks, 0, this.size, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,55 @@
+package cody.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.task.TaskCodec;
+
+/**
+ * Measures how long it takes to decode a line of the storage file into a task, and to encode it back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskCodecBenchmark {
+
+    // kept in fields so that the inputs are not treated as constants
+    private String toDoLine = "[T][ ] read book";
+    private String deadlineLine = "[D][X] submit report (by: 2025-08-15)";
+    private String eventLine = "[E][ ] attend hackathon (from: 2025-08-15 to: 2025-08-17)";
+    private Task event = BenchmarkTasks.taskAt(2);
+
+    @Benchmark
+    public Task decodeToDo() throws CodyException {
+        return Task.convertStringToTask(this.toDoLine);
+    }
+
+    @Benchmark
+    public Task decodeDeadline() throws CodyException {
+        return Task.convertStringToTask(this.deadlineLine);
+    }
+
+    @Benchmark
+    public Task decodeEvent() throws CodyException {
+        return Task.convertStringToTask(this.eventLine);
+    }
+
+    @Benchmark
+    public String encodeEvent() {
+        return TaskCodec.encode(this.event);
+    }
+}
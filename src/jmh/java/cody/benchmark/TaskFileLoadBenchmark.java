@@ -0,0 +1,87 @@
+package cody.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.task.TaskCodec;
+import cody.tasklist.LoadResult;
+import cody.tasklist.Storage;
+import cody.tasklist.TaskFileLoader;
+
+/**
+ * Measures how long it takes to load a storage file of {@code size} tasks at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskFileLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+
+    /**
+     * Writes a storage file of {@code size} tasks to a temporary directory.
+     */
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        this.directory = Files.createTempDirectory("cody-benchmark");
+        this.file = this.directory.resolve("tasks.txt");
+        StringBuilder line = new StringBuilder();
+        try (BufferedWriter writer = Files.newBufferedWriter(this.file)) {
+            for (int i = 0; i < this.size; i++) {
+                line.setLength(0);
+                TaskCodec.encode(BenchmarkTasks.taskAt(i), line);
+                writer.append(line).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary directory and everything in it.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public LoadResult loadWithTaskFileLoader() throws IOException {
+        return new TaskFileLoader().load(this.file);
+    }
+
+    @Benchmark
+    public ArrayList<Task> loadWithStorage() throws IOException, CodyException {
+        return new Storage(this.directory.toString(), this.file.toString()).getExistingTasks();
+    }
+}
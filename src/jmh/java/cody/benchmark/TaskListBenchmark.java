@@ -0,0 +1,89 @@
+package cody.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.task.ToDo;
+import cody.tasklist.CompactTaskList;
+import cody.tasklist.TaskList;
+
+/**
+ * Measures the commands that change or search a list of {@code size} tasks.
+ * The list is backed by {@link InMemoryStorage}, so only the list and its indexes are measured.
+ * It is either a {@link TaskList} or a {@link CompactTaskList}, as chosen by {@code mode}.
+ * Every benchmark leaves the list with the same tasks it started with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"standard", "compact"})
+    public String mode;
+
+    private TaskList tasks;
+    private Task newTask;
+
+    /**
+     * Loads a list of {@code size} tasks.
+     */
+    @Setup(Level.Trial)
+    public void loadTasks() throws IOException, CodyException {
+        InMemoryStorage storage = new InMemoryStorage(BenchmarkTasks.generate(this.size));
+        this.tasks = this.mode.equals("compact") ? new CompactTaskList(storage) : new TaskList(storage);
+        this.newTask = new ToDo("benchmark new task");
+    }
+
+    @Benchmark
+    public Task addThenDeleteLast() throws IOException, CodyException {
+        this.tasks.add(this.newTask);
+        return this.tasks.remove(this.tasks.size() - 1);
+    }
+
+    @Benchmark
+    public Task deleteMiddleThenAdd() throws IOException, CodyException {
+        Task removedTask = this.tasks.remove(this.size / 2);
+        this.tasks.add(removedTask);
+        return removedTask;
+    }
+
+    @Benchmark
+    public Task markThenUnmarkMiddle() throws IOException {
+        int taskIndex = this.size / 2;
+        this.tasks.markTaskAsDone(taskIndex);
+        this.tasks.markTaskAsNotDone(taskIndex);
+        return this.tasks.get(taskIndex);
+    }
+
+    @Benchmark
+    public ArrayList<Task> findSelectiveQuery() {
+        return this.tasks.getTasksMatchingDescription("task 777");
+    }
+
+    @Benchmark
+    public ArrayList<Task> findBroadQuery() {
+        return this.tasks.getTasksMatchingDescription("read");
+    }
+}
@@ -0,0 +1,91 @@
+package cody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the outcome of running a script of commands in batch mode.
+ * Only the first {@code MAX_FAILURES_KEPT} failures are kept, so that a long script
+ * with many bad lines does not use up memory.
+ */
+public class BatchSummary {
+
+    /** Most failed commands whose details are kept. */
+    public static final int MAX_FAILURES_KEPT = 5;
+
+    private int commandCount;
+    private int failureCount;
+    private final List<String> failures = new ArrayList<>();
+    private int savedChangeCount;
+    private int writeCount;
+
+    /**
+     * Records a command that ran successfully.
+     */
+    void recordSuccess() {
+        commandCount++;
+    }
+
+    /**
+     * Records a command that failed.
+     *
+     * @param lineNumber the line of the script the command is on, starting from 1
+     * @param input the command
+     * @param message the reason the command failed
+     */
+    void recordFailure(int lineNumber, String input, String message) {
+        commandCount++;
+        failureCount++;
+        if (failures.size() < MAX_FAILURES_KEPT) {
+            failures.add(String.format("Line %d: %s (%s)", lineNumber, input, message));
+        }
+    }
+
+    /**
+     * Records a write of the changes made so far to storage.
+     *
+     * @param changeCount the number of changes written, which may be 0 if there was nothing to write
+     */
+    void recordWrite(int changeCount) {
+        if (changeCount > 0) {
+            savedChangeCount += changeCount;
+            writeCount++;
+        }
+    }
+
+    /**
+     * Records writes of changes to storage that were made by a command, such as an import.
+     *
+     * @param changeCount the number of changes written
+     * @param writeCount the number of writes they were written in
+     */
+    void recordWrites(int changeCount, int writeCount) {
+        savedChangeCount += changeCount;
+        this.writeCount += writeCount;
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns a description of each of the first failed commands, in script order.
+     *
+     * @return at most {@code MAX_FAILURES_KEPT} failures
+     */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    public int getSavedChangeCount() {
+        return savedChangeCount;
+    }
+
+    public int getWriteCount() {
+        return writeCount;
+    }
+}
@@ -1,18 +1,35 @@
 package cody;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import cody.exception.CodyException;
+import cody.metrics.Metrics;
+import cody.parser.Command;
 import cody.parser.Parser;
+import cody.parser.TaskSelection;
 import cody.task.Deadline;
 import cody.task.Event;
 import cody.task.Task;
 import cody.task.ToDo;
 import cody.tasklist.TaskList;
+import cody.tasklist.TaskListCache;
+import cody.tasklist.TaskOrder;
+import cody.transfer.ImportSummary;
+import cody.transfer.TaskTransfer;
 
 /**
  * Represents the Cody chatbot application.
@@ -21,20 +38,45 @@ import cody.tasklist.TaskList;
  */
 public class Cody {
 
+    /** Number of commands run in batch mode between writes of their changes to storage. */
+    private static final int BATCH_CHECKPOINT_INTERVAL = 1000;
+
+    /**
+     * The commands that read or write files named by the user. Clients sharing an instance may be
+     * other users of the computer, so they cannot run these with the file access of this process.
+     */
+    private static final Set<String> FILE_COMMAND_WORDS = Set.of("run", "import", "export");
+
+    /** The format of dates entered by the user, eg. 21 Mar 2025. */
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
     /**
      * The list of tasks being managed by Cody.
      * Used AI's suggestion to make this private.
      */
     private TaskList tasks;
 
+    /** The named task lists that {@code use} can switch between, or null if Cody manages a single list. */
+    private final TaskListCache taskLists;
+
+    /** The name of the list in use, if Cody manages named lists. */
+    private String currentListName;
+
+    /** The summary of the script being run by {@link #runBatch(BufferedReader)}, or null if none is running. */
+    private BatchSummary runningBatch;
+
     /** Handles all interactions with the user. 
      * Used AI's suggestion to make this private.
     */
     private Ui ui;
 
+    /** The handler for each command word. */
+    private final HashMap<String, CommandHandler> commandHandlers = new HashMap<>();
+
     /**
      * Constructs a Cody chatbot instance.
-     * Initializes the task list and storage, and prepares the UI.
+     * Initializes the task lists in the {@code data} directory, starting with the default list,
+     * and prepares the UI. The storage backend is selected with the {@code cody.storage} system property.
      *
      * @throws IOException   if there is an issue with accessing or creating the
      *                       storage file
@@ -42,17 +84,122 @@ public class Cody {
      *                       storage
      */
     public Cody() throws IOException, CodyException {
-        this.tasks = new TaskList("data", "data/tasks.txt");
+        this(new TaskListCache("data"));
+    }
+
+    /**
+     * Constructs a Cody chatbot instance that manages the named task lists in a cache,
+     * starting with the default list.
+     *
+     * @param taskLists the named task lists
+     * @throws IOException if there is an issue with accessing or creating the storage file
+     * @throws CodyException if there is an error while initializing tasks from storage
+     */
+    public Cody(TaskListCache taskLists) throws IOException, CodyException {
+        this.taskLists = taskLists;
+        this.currentListName = TaskListCache.DEFAULT_LIST_NAME;
+        this.tasks = taskLists.get(this.currentListName);
         this.ui = new Ui();
+        registerCommands();
+        Metrics.setTaskCountSource(() -> this.tasks.size());
+    }
+
+    /**
+     * Constructs a Cody chatbot instance that manages the given task list.
+     * The {@code use} and {@code lists} commands are not available.
+     *
+     * @param tasks the task list to manage, already loaded from its storage
+     */
+    public Cody(TaskList tasks) {
+        this.taskLists = null;
+        this.tasks = tasks;
+        this.ui = new Ui();
+        registerCommands();
+        Metrics.setTaskCountSource(() -> this.tasks.size());
+    }
+
+    /**
+     * Registers the handlers for all of Cody's built in commands.
+     */
+    private void registerCommands() {
+        registerCommand("delete", this::handleDeleteCommand);
+        registerCommand("mark", this::handleMarkCommand);
+        registerCommand("unmark", this::handleUnmarkCommand);
+        registerCommand("undo", this::handleUndoCommand);
+        registerCommand("redo", this::handleRedoCommand);
+        registerCommand("list", this::handleListCommand);
+        registerCommand("todo", this::handleAddToDoCommand);
+        registerCommand("deadline", this::handleAddDeadlineCommand);
+        registerCommand("event", this::handleAddEventCommand);
+        registerCommand("find", this::handleFindCommand);
+        registerCommand("due", this::handleDueCommand);
+        registerCommand("between", this::handleBetweenCommand);
+        registerCommand("on", this::handleOnCommand);
+        registerCommand("run", this::handleRunCommand);
+        registerCommand("import", this::handleImportCommand);
+        registerCommand("export", this::handleExportCommand);
+        registerCommand("use", this::handleUseCommand);
+        registerCommand("lists", this::handleListsCommand);
+        registerCommand("stats", this::handleStatsCommand);
+        registerCommand("bye", this::handleByeCommand);
+    }
+
+    /**
+     * Registers the handler to be used for commands starting with a command word,
+     * replacing any handler previously registered for that word.
+     *
+     * @param commandWord the first word of the commands to handle
+     * @param handler the handler for those commands
+     */
+    public void registerCommand(String commandWord, CommandHandler handler) {
+        commandHandlers.put(commandWord, handler);
     }
 
     /**
      * Returns a welcome message to greet the user.
+     * If some saved tasks could not be read, the message also lists them.
      * 
      * @return a string of the welcome message
      */
     public String getWelcomeMessage() {
-        return ui.getWelcomeMessage();
+        if (tasks.getLoadErrors().isEmpty()) {
+            return ui.getWelcomeMessage();
+        }
+        return ui.getWelcomeMessage() + "\n\n" + ui.displayLoadErrorsMessage(tasks.getLoadErrors());
+    }
+
+    /**
+     * Handles a command from one of several clients sharing this instance, each of which has its own
+     * list in use. The command is run on the client's list, and if it is a {@code use} command, the list
+     * it switches to is kept in the client's session, so that other clients stay on their own lists.
+     * Commands that read or write files, such as {@code run}, {@code import} and {@code export}, are refused.
+     *
+     * @param userInput the full command entered by the user
+     * @param session the state kept for the client
+     * @return a string containing the chatbot's response to the user input
+     */
+    public String handleCommand(String userInput, Session session) {
+        if (FILE_COMMAND_WORDS.contains(new Parser(userInput).parse().getCommandWord())) {
+            return "Files cannot be read or written from a shared Cody, so run, import and export are not available.";
+        }
+        if (taskLists == null) {
+            return handleCommand(userInput);
+        }
+        currentListName = session.getListName();
+        try {
+            return handleCommand(userInput);
+        } finally {
+            session.setListName(currentListName);
+        }
+    }
+
+    /**
+     * Returns the message that ends a session, without closing the task list.
+     *
+     * @return the goodbye message
+     */
+    public String getGoodbyeMessage() {
+        return ui.displayGoodbyeMessage();
     }
 
     /**
@@ -62,154 +209,606 @@ public class Cody {
      * @return a string containing the chatbot's response to the user input
      */
     public String handleCommand(String userInput) {
-        Parser parser = new Parser(userInput);
-
+        long startNanos = Metrics.startTimer();
         try {
-            if (parser.startsWith("delete")) {
-                // delete [taskNumber]
-                return handleDeleteCommand(parser);
-            } else if (parser.startsWith("mark")) {
-                // mark [taskNumber]
-                return handleMarkCommand(parser);
-            } else if (parser.startsWith("unmark")) {
-                // unmark [taskNumber]
-                return handleUnmarkCommand(parser);
-            } else if (parser.stringEquals("list")) {
-                // list
-                return handleListCommand(parser);
-            } else if (parser.isValidAddTaskCommand()) {
-                // add new tasks
-                return handleAddTaskCommand(parser);
-            } else if (parser.startsWith("find")) {
-                // find tasks
-                return handleFindCommand(parser);
-            } else {
-                // unknown command
-                throw new CodyException("I do not understand the input command.");
+            if (taskLists != null) {
+                // getting the list marks it as recently used, so the cache does not drop a list in use
+                tasks = taskLists.get(currentListName);
+            }
+            Command command = new Parser(userInput).parse();
+            if (Metrics.ENABLED) {
+                return executeMeasured(command, startNanos);
             }
+            return execute(command);
         } catch (Exception e) {
             return e.getMessage();
         }
     }
 
     /**
-     * Handles the delete command.
-     * @param parser that has been initialised with the user's input.
+     * Executes a command, recording how long it took to parse, execute and persist.
+     */
+    private String executeMeasured(Command command, long startNanos) throws CodyException, IOException {
+        long parsedNanos = System.nanoTime();
+        long persistNanosBefore = Metrics.getPersistNanosOnThisThread();
+        try {
+            return execute(command);
+        } finally {
+            // unknown words are grouped together, so typos cannot create any number of histograms
+            String commandWord = commandHandlers.containsKey(command.getCommandWord())
+                    ? command.getCommandWord()
+                    : "(unknown)";
+            Metrics.recordCommand(commandWord, parsedNanos - startNanos, System.nanoTime() - parsedNanos,
+                    Metrics.getPersistNanosOnThisThread() - persistNanosBefore);
+        }
+    }
+
+    private String execute(Command command) throws CodyException, IOException {
+        CommandHandler handler = commandHandlers.get(command.getCommandWord());
+        if (handler == null) {
+            // unknown command
+            throw new CodyException("I do not understand the input command.");
+        }
+        return handler.handle(command);
+    }
+
+    /**
+     * Runs a script of commands, one per line, as a batch.
+     * <p>
+     * The changes made by the script are written to storage together, once every
+     * {@code BATCH_CHECKPOINT_INTERVAL} commands and once more at the end, instead of after
+     * every command. A command that fails does not stop the script. Blank lines are skipped,
+     * and a {@code bye} command, whatever follows the word, ends the script early without
+     * closing the task list.
+     *
+     * @param commands the script, which is read one line at a time
+     * @return a summary of the commands that were run
+     * @throws IOException if there is any problem reading the script or handling the storage file
+     */
+    public BatchSummary runBatch(BufferedReader commands) throws IOException {
+        BatchSummary summary = new BatchSummary();
+        tasks.beginBatch();
+        this.runningBatch = summary;
+        try {
+            int lineNumber = 0;
+            String line;
+            while ((line = commands.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Command command = new Parser(line).parse();
+                if (command.getCommandWord().equals("bye")) {
+                    break;
+                }
+                try {
+                    if (command.getCommandWord().equals("run")) {
+                        throw new CodyException("Scripts cannot run other scripts.");
+                    }
+                    execute(command);
+                    summary.recordSuccess();
+                } catch (Exception e) {
+                    summary.recordFailure(lineNumber, line, e.getMessage());
+                }
+                if (summary.getCommandCount() % BATCH_CHECKPOINT_INTERVAL == 0) {
+                    summary.recordWrite(tasks.flushBatch());
+                }
+            }
+        } finally {
+            this.runningBatch = null;
+            summary.recordWrite(tasks.endBatch());
+        }
+        return summary;
+    }
+
+    /**
+     * Returns a message summarising a batch of commands.
+     *
+     * @param source where the commands were read from
+     * @param summary the summary returned by {@link #runBatch(BufferedReader)}
+     * @return the summary message
+     */
+    public String getBatchSummaryMessage(String source, BatchSummary summary) {
+        return ui.displayBatchSummaryMessage(source, summary);
+    }
+
+    /**
+     * Writes out any changes that have not been saved yet.
+     * Should be called before the application exits.
+     *
+     * @throws IOException if there is any problem handling the storage file
+     */
+    public void close() throws IOException {
+        if (taskLists == null) {
+            tasks.close();
+        } else {
+            taskLists.close();
+        }
+    }
+
+    /**
+     * Handles the run command (run every command in a file as a batch).
+     *
+     * @param command that has been parsed from the user's input
+     * @return a summary of the commands that were run
+     * @throws CodyException if there is any issue with the user's input
+     * @throws IOException if there is any problem reading the file or handling the storage file
+     */
+    public String handleRunCommand(Command command) throws CodyException, IOException {
+        if (!command.hasArguments()) {
+            throw new CodyException("Invalid run command arguments.");
+        }
+        Path scriptPath;
+        try {
+            scriptPath = Paths.get(command.getArguments());
+        } catch (InvalidPathException e) {
+            throw new CodyException("Invalid run command arguments.");
+        }
+        if (!Files.isRegularFile(scriptPath)) {
+            throw new CodyException("I can't find the file " + command.getArguments());
+        }
+        try (BufferedReader script = Files.newBufferedReader(scriptPath)) {
+            return getBatchSummaryMessage(command.getArguments(), runBatch(script));
+        }
+    }
+
+    /**
+     * Handles the import command (add the tasks in a CSV or iCalendar file to the list).
+     * Tasks already in the list are skipped, as are entries of the file that cannot be read.
+     *
+     * @param command that has been parsed from the user's input
+     * @return a summary of the tasks that were imported
+     * @throws CodyException if there is any issue with the user's input
+     * @throws IOException if there is any problem reading the file or handling the storage file
+     */
+    public String handleImportCommand(Command command) throws CodyException, IOException {
+        Path importPath = getFilePath(command, "import");
+        if (!Files.isRegularFile(importPath)) {
+            throw new CodyException("I can't find the file " + command.getArguments());
+        }
+        ImportSummary summary = TaskTransfer.importTasks(tasks, importPath);
+        if (runningBatch != null) {
+            runningBatch.recordWrites(summary.getFlushedChangeCount(), summary.getFlushCount());
+        }
+        return ui.displayImportSummaryMessage(command.getArguments(), summary, tasks.size());
+    }
+
+    /**
+     * Handles the export command (write every task in the list to a CSV or iCalendar file).
+     *
+     * @param command that has been parsed from the user's input
+     * @return a message saying how many tasks were exported
+     * @throws CodyException if there is any issue with the user's input
+     * @throws IOException if there is any problem writing the file
+     */
+    public String handleExportCommand(Command command) throws CodyException, IOException {
+        Path exportPath = getFilePath(command, "export");
+        if (Files.isDirectory(exportPath)) {
+            throw new CodyException(command.getArguments() + " is a directory.");
+        }
+        int exportedCount = TaskTransfer.exportTasks(tasks, exportPath);
+        return ui.displaySuccessfulExportMessage(exportedCount, command.getArguments());
+    }
+
+    private static Path getFilePath(Command command, String commandWord) throws CodyException {
+        if (!command.hasArguments()) {
+            throw new CodyException("Invalid " + commandWord + " command arguments.");
+        }
+        try {
+            return Paths.get(command.getArguments());
+        } catch (InvalidPathException e) {
+            throw new CodyException("Invalid " + commandWord + " command arguments.");
+        }
+    }
+
+    /**
+     * Handles the use command (switch to the task list with the given name, creating it if needed).
+     * If a script is running, its changes to the previous list are written out first.
+     *
+     * @param command that has been parsed from the user's input
+     * @return a message naming the list now in use
+     * @throws CodyException if there is any issue with the user's input, or the list cannot be read
+     * @throws IOException if there is any problem handling the storage files
+     */
+    public String handleUseCommand(Command command) throws CodyException, IOException {
+        if (taskLists == null) {
+            throw new CodyException("There is only one task list here.");
+        }
+        if (!command.hasArguments()) {
+            throw new CodyException("Invalid use command arguments.");
+        }
+        String name = command.getArguments();
+        if (!TaskListCache.isValidName(name)) {
+            throw new CodyException("Task list names can only have up to 64 letters, digits, - and _.");
+        }
+        if (!name.equals(currentListName)) {
+            if (runningBatch != null) {
+                runningBatch.recordWrite(tasks.endBatch());
+            }
+            try {
+                tasks = taskLists.get(name);
+                currentListName = name;
+            } finally {
+                if (runningBatch != null) {
+                    tasks.beginBatch();
+                }
+            }
+        }
+        return ui.displayUsingTaskListMessage(name, tasks.size());
+    }
+
+    /**
+     * Handles the lists command (show the names of all task lists).
+     *
+     * @param command that has been parsed from the user's input
+     * @return the names of the task lists, marking the one in use
+     * @throws CodyException if Cody manages a single list
+     * @throws IOException if the directory of task lists cannot be read
+     */
+    public String handleListsCommand(Command command) throws CodyException, IOException {
+        if (taskLists == null) {
+            throw new CodyException("There is only one task list here.");
+        }
+        return ui.displayTaskListNamesMessage(taskLists.getListNames(), currentListName);
+    }
+
+    /**
+     * Handles the stats command (show the metrics collected since Cody started).
+     *
+     * @param command that has been parsed from the user's input
+     * @return the metrics
+     * @throws CodyException if metrics are not being collected
+     */
+    public String handleStatsCommand(Command command) throws CodyException {
+        if (!Metrics.ENABLED) {
+            throw new CodyException("Metrics are turned off. Start Cody with -D" + Metrics.ENABLED_PROPERTY
+                    + "=true to collect them.");
+        }
+        return Metrics.getReport();
+    }
+
+    /**
+     * Handles the bye command, saving any pending changes before the application exits.
+     *
+     * @param command that has been parsed from the user's input
+     * @return the goodbye message
+     * @throws IOException if there is any problem handling the storage file
+     */
+    public String handleByeCommand(Command command) throws IOException {
+        close();
+        return ui.displayGoodbyeMessage();
+    }
+
+    /**
+     * Handles the delete command, which takes a task number, a task id such as {@code #12},
+     * or a selection of tasks such as {@code 3-40}, {@code 1,4,9-12}, {@code all} or {@code done}.
+     * @param command that has been parsed from the user's input.
      * @return success message in response
      * @throws CodyException if there is any issue with the user's input
      * @throws IOException if there is any problem handling the storage file 
      */
-    public String handleDeleteCommand(Parser parser) throws CodyException, IOException {
-        if (!parser.isValidDeleteCommand()) {
+    public String handleDeleteCommand(Command command) throws CodyException, IOException {
+        if (command.hasTaskIdArgument()) {
+            Task removedTask = tasks.remove(getTaskIndexOfId(command.getTaskId()));
+            return ui.displaySuccessfulRemovedTaskMessage(removedTask, tasks.size());
+        }
+        if (!command.hasTaskSelectionArgument()) {
             throw new CodyException("Invalid delete task arguments.");
         }
-        int taskIndex = parser.getTaskNumberFromValidDeleteCommand() - 1;
-        if (taskIndex < 0 || taskIndex >= tasks.size()) {
-            throw new CodyException("Index of task to be deleted is out of the valid range.");
+        TaskSelection selection = command.getTaskSelection();
+        String outOfRangeMessage = "Index of task to be deleted is out of the valid range.";
+        if (selection.isSingleTaskNumber()) {
+            int taskIndex = getTaskIndex(selection, outOfRangeMessage);
+            Task removedTask = tasks.remove(taskIndex);
+            return ui.displaySuccessfulRemovedTaskMessage(removedTask, tasks.size());
+        }
+        int[] taskIndices = getTaskIndices(selection, outOfRangeMessage);
+        if (taskIndices.length == 0) {
+            return ui.displayNoSelectedTasksMessage();
         }
-        Task removedTask = tasks.remove(taskIndex);
-        return ui.displaySuccessfulRemovedTaskMessage(removedTask, tasks.size());
+        List<Task> removedTasks = tasks.removeAll(taskIndices);
+        return ui.displaySuccessfulRemovedTasksMessage(removedTasks, tasks.size());
     }
 
     /**
-     * Handles the mark command (to mark task as complete).
+     * Handles the mark command (to mark tasks as complete), which takes a task number, a task id
+     * such as {@code #12}, or a selection of tasks such as {@code 1,4,9-12} or {@code all}.
      * 
-     * @param parser that has been initialised with the user's input.
+     * @param command that has been parsed from the user's input.
      * @return success message in response
      * @throws CodyException if there is any issue with the user's input
      * @throws IOException   if there is any problem handling the storage file
      */
-    public String handleMarkCommand(Parser parser) throws CodyException, IOException {
-        if (!parser.isValidMarkCommand()) {
+    public String handleMarkCommand(Command command) throws CodyException, IOException {
+        if (command.hasTaskIdArgument()) {
+            int taskIndex = getTaskIndexOfId(command.getTaskId());
+            tasks.markTaskAsDone(taskIndex);
+            return ui.displaySuccessfulMarkTaskAsDoneMessage(tasks.get(taskIndex));
+        }
+        if (!command.hasTaskSelectionArgument()) {
             throw new CodyException("Invalid mark task arguments.");
         }
-        int taskIndex = parser.getTaskNumberFromValidMarkCommand() - 1;
-        if (taskIndex < 0 || taskIndex >= tasks.size()) {
-            throw new CodyException("Index of task to be marked as done is out of the valid range.");
+        TaskSelection selection = command.getTaskSelection();
+        String outOfRangeMessage = "Index of task to be marked as done is out of the valid range.";
+        if (selection.isSingleTaskNumber()) {
+            int taskIndex = getTaskIndex(selection, outOfRangeMessage);
+            tasks.markTaskAsDone(taskIndex);
+            return ui.displaySuccessfulMarkTaskAsDoneMessage(tasks.get(taskIndex));
         }
-        tasks.markTaskAsDone(taskIndex);
-        return ui.displaySuccessfulMarkTaskAsDoneMessage(tasks.get(taskIndex));
+        int[] taskIndices = getTaskIndices(selection, outOfRangeMessage);
+        if (taskIndices.length == 0) {
+            return ui.displayNoSelectedTasksMessage();
+        }
+        return ui.displaySuccessfulMarkTasksAsDoneMessage(tasks.markAll(taskIndices, true));
     }
 
     /**
-     * Handles the unmark command (to unmark a task from being completed).
+     * Handles the unmark command (to unmark tasks from being completed), which takes a task number,
+     * a task id such as {@code #12}, or a selection of tasks such as {@code 1,4,9-12}, {@code all} or {@code done}.
      * 
-     * @param parser that has been initialised with the user's input.
+     * @param command that has been parsed from the user's input.
      * @return success message in response
      * @throws CodyException if there is any issue with the user's input
      * @throws IOException   if there is any problem handling the storage file
      */
-    public String handleUnmarkCommand(Parser parser) throws CodyException, IOException {
-        if (!parser.isValidUnmarkCommand()) {
+    public String handleUnmarkCommand(Command command) throws CodyException, IOException {
+        if (command.hasTaskIdArgument()) {
+            int taskIndex = getTaskIndexOfId(command.getTaskId());
+            tasks.markTaskAsNotDone(taskIndex);
+            return ui.displaySuccessfulUnmarkTaskMessage(tasks.get(taskIndex));
+        }
+        if (!command.hasTaskSelectionArgument()) {
             throw new CodyException("Invalid unmark task arguments.");
         }
-        int taskIndex = parser.getTaskNumberFromValidUnmarkCommand() - 1;
-        if (taskIndex < 0 || taskIndex >= tasks.size()) {
-            throw new CodyException("Index of task to be unmarked is out of the valid range.");
+        TaskSelection selection = command.getTaskSelection();
+        String outOfRangeMessage = "Index of task to be unmarked is out of the valid range.";
+        if (selection.isSingleTaskNumber()) {
+            int taskIndex = getTaskIndex(selection, outOfRangeMessage);
+            tasks.markTaskAsNotDone(taskIndex);
+            return ui.displaySuccessfulUnmarkTaskMessage(tasks.get(taskIndex));
+        }
+        int[] taskIndices = getTaskIndices(selection, outOfRangeMessage);
+        if (taskIndices.length == 0) {
+            return ui.displayNoSelectedTasksMessage();
         }
-        tasks.markTaskAsNotDone(taskIndex);
-        return ui.displaySuccessfulUnmarkTaskMessage(tasks.get(taskIndex));
+        return ui.displaySuccessfulUnmarkTasksMessage(tasks.markAll(taskIndices, false));
     }
 
     /**
-     * Handles the list command (to list all tasks currently).
-     * @param parser that has been initialised with the user's input
-     * @return a list representation of all tasks
+     * Handles the undo command (reverse the most recent change to the task list).
+     *
+     * @param command that has been parsed from the user's input.
+     * @return success message in response
+     * @throws CodyException if there is no change to undo
+     * @throws IOException   if there is any problem handling the storage file
      */
-    public String handleListCommand(Parser parser) {
-        return ui.listAllTasks(this.tasks);
+    public String handleUndoCommand(Command command) throws CodyException, IOException {
+        int changedCount = tasks.undo();
+        if (changedCount == 0) {
+            throw new CodyException("There is nothing to undo.");
+        }
+        return ui.displaySuccessfulUndoMessage(changedCount, tasks.size());
     }
 
     /**
-     * Handles an add task command (adding a todo/deadline/event task)
-     * 
-     * @param parser that has been initialised with the user's input
-     * @return a success message once task has been added
-     * @throws CodyException if there is any issue with the user's input
-     * @throws DateTimeParseException if the user input is not in DD MMM YYYY format (eg. input should be like 21 Mar 2025)
+     * Handles the redo command (make the most recently undone change again).
+     *
+     * @param command that has been parsed from the user's input.
+     * @return success message in response
+     * @throws CodyException if there is no undone change to redo
      * @throws IOException   if there is any problem handling the storage file
      */
-    public String handleAddTaskCommand(Parser parser) throws CodyException, DateTimeParseException, IOException {
+    public String handleRedoCommand(Command command) throws CodyException, IOException {
+        int changedCount = tasks.redo();
+        if (changedCount == 0) {
+            throw new CodyException("There is nothing to redo.");
+        }
+        return ui.displaySuccessfulRedoMessage(changedCount, tasks.size());
+    }
+
+    /**
+     * Returns the index (0-based) of the task with the given id.
+     *
+     * @throws CodyException if no task in the list has that id
+     */
+    private int getTaskIndexOfId(long id) throws CodyException {
+        if (tasks.getById(id) == null) {
+            throw new CodyException("There is no task with id #" + id + ".");
+        }
+        return tasks.indexOfId(id);
+    }
+
+    /**
+     * Returns the index (0-based) of the task chosen by a selection of a single task number.
+     *
+     * @throws CodyException with the given message if there is no such task
+     */
+    private int getTaskIndex(TaskSelection selection, String outOfRangeMessage) throws CodyException {
+        int taskIndex = selection.getRangeStart(0) - 1;
+        if (taskIndex < 0 || taskIndex >= tasks.size()) {
+            throw new CodyException(outOfRangeMessage);
+        }
+        return taskIndex;
+    }
 
-        // todo [description]
-        if (parser.startsWith("todo")) {
-            if (!parser.isValidAddToDoCommand()) {
-                throw new CodyException("Invalid todo task arguments.");
+    /**
+     * Returns the indices (0-based) of the tasks chosen by a selection, in increasing order without repeats.
+     *
+     * @throws CodyException with the given message if a task number in the selection has no task
+     */
+    private int[] getTaskIndices(TaskSelection selection, String outOfRangeMessage) throws CodyException {
+        int size = tasks.size();
+        if (selection.isAll()) {
+            return IntStream.range(0, size).toArray();
+        }
+        if (selection.isDoneTasks()) {
+            return IntStream.range(0, size).filter(i -> tasks.get(i).isDone()).toArray();
+        }
+        BitSet taskIndices = new BitSet(size);
+        for (int i = 0; i < selection.getRangeCount(); i++) {
+            int start = selection.getRangeStart(i);
+            int end = selection.getRangeEnd(i);
+            if (start < 1 || end > size) {
+                throw new CodyException(outOfRangeMessage);
             }
-            String description = parser.getDescriptionFromValidAddToDoCommand();
-            ToDo newToDo = new ToDo(description);
-            tasks.add(newToDo);
+            taskIndices.set(start - 1, end);
+        }
+        return taskIndices.stream().toArray();
+    }
+
+    /**
+     * Handles the list command (to list the tasks currently, one page at a time).
+     * Accepts {@code list}, {@code list [page]}, {@code list [--limit N] [--offset M]}
+     * and {@code list by date|status|type [page]}.
+     *
+     * @param command that has been parsed from the user's input
+     * @return a list representation of the requested tasks
+     * @throws CodyException if there is any issue with the user's input
+     */
+    public String handleListCommand(Command command) throws CodyException {
+        if (!command.hasArguments()) {
+            return ui.listTaskPage(this.tasks, 1);
+        }
+        if (command.hasTaskNumberArgument()) {
+            int page = command.getTaskNumber();
+            checkPageInRange(page);
+            return ui.listTaskPage(this.tasks, page);
+        }
+
+        String[] words = command.getArgumentWords();
+        if (words[0].equals("by")) {
+            return listTasksSortedBy(words);
         }
 
-        // deadline [description] /by [endDate]
-        else if (parser.startsWith("deadline")) {
-            if (!parser.isValidAddDeadlineCommand()) {
-                throw new CodyException("Invalid deadline task arguments.");
+        // list [--limit N] [--offset M], in either order
+        if (words.length != 2 && words.length != 4) {
+            throw new CodyException("Invalid list command arguments.");
+        }
+        int limit = Ui.PAGE_SIZE;
+        int offset = 0;
+        boolean hasLimit = false;
+        boolean hasOffset = false;
+        for (int i = 0; i < words.length; i += 2) {
+            if (!isNonNegativeInteger(words[i + 1])) {
+                throw new CodyException("Invalid list command arguments.");
+            }
+            if (words[i].equals("--limit") && !hasLimit) {
+                limit = Integer.parseInt(words[i + 1]);
+                hasLimit = true;
+            } else if (words[i].equals("--offset") && !hasOffset) {
+                offset = Integer.parseInt(words[i + 1]);
+                hasOffset = true;
+            } else {
+                throw new CodyException("Invalid list command arguments.");
             }
-            String[] args = parser.getArgsFromValidAddDeadlineCommand();
-            String description = args[0];
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-            LocalDate endDate = LocalDate.parse(args[1], formatter);
-            Deadline deadline = new Deadline(description, endDate);
-            tasks.add(deadline);
-        }
-
-        // event [description] /from [startDate] /to [endDate]
-        else if (parser.startsWith("event")) {
-            if (!parser.isValidAddEventCommand()) {
-                throw new CodyException("Invalid event task arguments.");
+        }
+        if (limit == 0) {
+            throw new CodyException("Limit of tasks to be listed should be at least 1.");
+        }
+        if (offset > 0 && offset >= tasks.size()) {
+            throw new CodyException("Offset of tasks to be listed is out of the valid range.");
+        }
+        return ui.listTaskRange(this.tasks, offset, limit);
+    }
+
+    /**
+     * Lists one page of the tasks in another order, for {@code list by date|status|type [page]}.
+     */
+    private String listTasksSortedBy(String[] words) throws CodyException {
+        TaskOrder order = words.length == 2 || words.length == 3 ? TaskOrder.fromName(words[1]) : null;
+        if (order == null) {
+            throw new CodyException("Tasks can only be listed by date, status or type.");
+        }
+        int page = 1;
+        if (words.length == 3) {
+            if (!isNonNegativeInteger(words[2])) {
+                throw new CodyException("Invalid list command arguments.");
             }
-            String[] args = parser.getArgsFromValidAddEventCommand();
-            String description = args[0];
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-            LocalDate startDate = LocalDate.parse(args[1], formatter);
-            LocalDate endDate = LocalDate.parse(args[2], formatter);
-            if (endDate.isBefore(startDate)) {
-                throw new CodyException("End date cannot be before start date.");
+            page = Integer.parseInt(words[2]);
+        }
+        checkPageInRange(page);
+        return ui.listSortedTaskPage(this.tasks, order, page);
+    }
+
+    private void checkPageInRange(int page) throws CodyException {
+        int pageCount = Math.max(1, (tasks.size() + Ui.PAGE_SIZE - 1) / Ui.PAGE_SIZE);
+        if (page < 1 || page > pageCount) {
+            throw new CodyException(String.format("Page %d is out of the valid range. There are %d page(s).",
+                    page, pageCount));
+        }
+    }
+
+    private static boolean isNonNegativeInteger(String word) {
+        if (word.isEmpty() || word.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < '0' || word.charAt(i) > '9') {
+                return false;
             }
-            Event event = new Event(description, startDate, endDate);
-            tasks.add(event);
         }
+        return true;
+    }
+
+    /**
+     * Handles an add todo command (todo [description])
+     *
+     * @param command that has been parsed from the user's input
+     * @return a success message once task has been added
+     * @throws CodyException if there is any issue with the user's input
+     * @throws IOException   if there is any problem handling the storage file
+     */
+    public String handleAddToDoCommand(Command command) throws CodyException, IOException {
+        if (!command.hasArguments()) {
+            throw new CodyException("Invalid todo task arguments.");
+        }
+        return addTask(new ToDo(command.getArguments()));
+    }
+
+    /**
+     * Handles an add deadline command (deadline [description] /by [endDate])
+     *
+     * @param command that has been parsed from the user's input
+     * @return a success message once task has been added
+     * @throws CodyException if there is any issue with the user's input
+     * @throws DateTimeParseException if the user input is not in DD MMM YYYY format (eg. input should be like 21 Mar 2025)
+     * @throws IOException   if there is any problem handling the storage file
+     */
+    public String handleAddDeadlineCommand(Command command) throws CodyException, DateTimeParseException, IOException {
+        if (!command.hasArgumentsSeparatedBy(" /by ")) {
+            throw new CodyException("Invalid deadline task arguments.");
+        }
+        String[] args = command.getArgumentsSeparatedBy(" /by ");
+        String description = args[0];
+        LocalDate endDate = LocalDate.parse(args[1], INPUT_DATE_FORMAT);
+        return addTask(new Deadline(description, endDate));
+    }
+
+    /**
+     * Handles an add event command (event [description] /from [startDate] /to [endDate])
+     *
+     * @param command that has been parsed from the user's input
+     * @return a success message once task has been added
+     * @throws CodyException if there is any issue with the user's input
+     * @throws DateTimeParseException if the user input is not in DD MMM YYYY format (eg. input should be like 21 Mar 2025)
+     * @throws IOException   if there is any problem handling the storage file
+     */
+    public String handleAddEventCommand(Command command) throws CodyException, DateTimeParseException, IOException {
+        if (!command.hasArgumentsSeparatedBy(" /from ", " /to ")) {
+            throw new CodyException("Invalid event task arguments.");
+        }
+        String[] args = command.getArgumentsSeparatedBy(" /from ", " /to ");
+        String description = args[0];
+        LocalDate startDate = LocalDate.parse(args[1], INPUT_DATE_FORMAT);
+        LocalDate endDate = LocalDate.parse(args[2], INPUT_DATE_FORMAT);
+        if (endDate.isBefore(startDate)) {
+            throw new CodyException("End date cannot be before start date.");
+        }
+        return addTask(new Event(description, startDate, endDate));
+    }
+
+    private String addTask(Task task) throws CodyException, IOException {
+        tasks.add(task);
         // Used AI suggestion: inserted an assertion here to check that a task has been added
         assert tasks.size() > 0 : "There should be at least one task after adding a new task";
         return ui.displaySuccessfulAddTaskMessage(tasks.size(), tasks.get(tasks.size() - 1));
@@ -218,16 +817,69 @@ public class Cody {
     /**
      * Handles a find command (find all tasks whose description contains a string)
      * 
-     * @param parser that has been initialised with the user's input
+     * @param command that has been parsed from the user's input
      * @return a list representation of relevant tasks
      * @throws CodyException if there is any issue with user's input
      */
-    public String handleFindCommand(Parser parser) throws CodyException {
-        if (!parser.isValidFindCommand()) {
+    public String handleFindCommand(Command command) throws CodyException {
+        if (!command.hasArguments()) {
             throw new CodyException("Invalid find command arguments.");
         }
-        String searchString = parser.getSearchStringFromValidFindCommand();
+        String searchString = command.getArguments();
         ArrayList<Task> tasksMatchingDescription = tasks.getTasksMatchingDescription(searchString);
         return ui.listTasks(tasksMatchingDescription);
     }
+
+    /**
+     * Handles a due command (list deadlines and events not done yet that end on or before a date)
+     *
+     * @param command that has been parsed from the user's input
+     * @return a list representation of relevant tasks, ordered by end date
+     * @throws CodyException if there is any issue with user's input
+     * @throws DateTimeParseException if the date is not in DD MMM YYYY format
+     */
+    public String handleDueCommand(Command command) throws CodyException, DateTimeParseException {
+        if (!command.hasArgumentWords(3)) {
+            throw new CodyException("Invalid due command arguments.");
+        }
+        LocalDate date = LocalDate.parse(command.getArguments(), INPUT_DATE_FORMAT);
+        return ui.listTasks(tasks.getTasksDueBy(date));
+    }
+
+    /**
+     * Handles a between command (list deadlines and events whose dates overlap a range)
+     *
+     * @param command that has been parsed from the user's input
+     * @return a list representation of relevant tasks, ordered by end date
+     * @throws CodyException if there is any issue with user's input
+     * @throws DateTimeParseException if a date is not in DD MMM YYYY format
+     */
+    public String handleBetweenCommand(Command command) throws CodyException, DateTimeParseException {
+        if (!command.hasArgumentWords(6)) {
+            throw new CodyException("Invalid between command arguments.");
+        }
+        String[] words = command.getArgumentWords();
+        LocalDate from = LocalDate.parse(words[0] + " " + words[1] + " " + words[2], INPUT_DATE_FORMAT);
+        LocalDate to = LocalDate.parse(words[3] + " " + words[4] + " " + words[5], INPUT_DATE_FORMAT);
+        if (to.isBefore(from)) {
+            throw new CodyException("End date cannot be before start date.");
+        }
+        return ui.listTasks(tasks.getTasksBetween(from, to));
+    }
+
+    /**
+     * Handles an on command (list deadlines due and events taking place on a date)
+     *
+     * @param command that has been parsed from the user's input
+     * @return a list representation of relevant tasks, ordered by end date
+     * @throws CodyException if there is any issue with user's input
+     * @throws DateTimeParseException if the date is not in DD MMM YYYY format
+     */
+    public String handleOnCommand(Command command) throws CodyException, DateTimeParseException {
+        if (!command.hasArgumentWords(3)) {
+            throw new CodyException("Invalid on command arguments.");
+        }
+        LocalDate date = LocalDate.parse(command.getArguments(), INPUT_DATE_FORMAT);
+        return ui.listTasks(tasks.getTasksOn(date));
+    }
 }
@@ -0,0 +1,101 @@
+package cody;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import cody.exception.CodyException;
+
+/**
+ * Runs the commands for a Cody instance on a single background thread, so that callers
+ * such as the GUI are never blocked by storage.
+ * <p>
+ * Commands run one at a time, in the order they were submitted, and each reply is delivered
+ * through the returned future. Since this worker is the only thread that ever calls Cody,
+ * the task list and its storage need no locking.
+ */
+public class CommandExecutor {
+
+    private final Cody cody;
+    private final ExecutorService worker;
+
+    /**
+     * Constructs an executor that runs commands for the given Cody instance.
+     *
+     * @param cody the instance to run commands for; it should not be used directly afterwards
+     */
+    public CommandExecutor(Cody cody) {
+        this.cody = cody;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cody-command-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a command to be run after every command submitted before it.
+     *
+     * @param userInput the full command entered by the user
+     * @return a future completed with Cody's reply once the command has run
+     */
+    public CompletableFuture<String> submit(String userInput) {
+        try {
+            return CompletableFuture.supplyAsync(() -> cody.handleCommand(userInput), worker);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new CodyException("Cody is shutting down."));
+        }
+    }
+
+    /**
+     * Queues a command from one of several clients sharing the Cody instance, to be run on the
+     * list that client is using after every command submitted before it.
+     *
+     * @param userInput the full command entered by the user
+     * @param session the state kept for the client
+     * @return a future completed with Cody's reply once the command has run
+     */
+    public CompletableFuture<String> submit(String userInput, Session session) {
+        try {
+            return CompletableFuture.supplyAsync(() -> cody.handleCommand(userInput, session), worker);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new CodyException("Cody is shutting down."));
+        }
+    }
+
+    /**
+     * Queues the reply to a client that is ending its session, after every command submitted before it.
+     * Unlike the {@code bye} command, this does not close the task list, which other clients may still use.
+     *
+     * @return a future completed with the goodbye message
+     */
+    public CompletableFuture<String> submitGoodbye() {
+        try {
+            return CompletableFuture.supplyAsync(cody::getGoodbyeMessage, worker);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new CodyException("Cody is shutting down."));
+        }
+    }
+
+    /**
+     * Stops accepting commands, waits for the queued ones to finish,
+     * and then writes out any changes that have not been saved yet.
+     *
+     * @throws IOException if there is any problem handling the storage file
+     */
+    public void close() throws IOException {
+        worker.shutdown();
+        try {
+            while (!worker.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting, since the queued commands may still change the task list
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for queued commands to finish.", e);
+        }
+        cody.close();
+    }
+}
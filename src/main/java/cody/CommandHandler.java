@@ -0,0 +1,24 @@
+package cody;
+
+import java.io.IOException;
+
+import cody.exception.CodyException;
+import cody.parser.Command;
+
+/**
+ * Handles one kind of user command, such as {@code delete} or {@code find}.
+ * Handlers are registered with Cody under the command word that selects them.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Carries out a command.
+     *
+     * @param command the command entered by the user.
+     * @return the chatbot's response to the command.
+     * @throws CodyException if there is any issue with the user's input
+     * @throws IOException if there is any problem handling the storage file
+     */
+    String handle(Command command) throws CodyException, IOException;
+}
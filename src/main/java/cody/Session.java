@@ -0,0 +1,24 @@
+package cody;
+
+import cody.tasklist.TaskListCache;
+
+/**
+ * The state that Cody keeps for one of several clients sharing an instance, such as the
+ * connections of a {@link cody.server.CodyServer}: the name of the task list the client is using.
+ * <p>
+ * A session is only read and changed by {@link Cody#handleCommand(String, Session)}, so it is only
+ * ever used by the thread that runs commands.
+ */
+public class Session {
+
+    /** The name of the list the client is using, which changes when it runs {@code use}. */
+    private String listName = TaskListCache.DEFAULT_LIST_NAME;
+
+    String getListName() {
+        return this.listName;
+    }
+
+    void setListName(String listName) {
+        this.listName = listName;
+    }
+}
@@ -1,9 +1,13 @@
 package cody;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.List;
 
 import cody.task.Task;
+import cody.tasklist.LoadResult;
 import cody.tasklist.TaskList;
+import cody.tasklist.TaskOrder;
+import cody.transfer.ImportSummary;
 
 /**
  * Handles all user interactions for the Cody chatbot.
@@ -13,6 +17,21 @@ import cody.tasklist.TaskList;
  */
 public class Ui {
 
+    /** Number of tasks shown on each page of the list command. */
+    public static final int PAGE_SIZE = 50;
+
+    /** Most tasks shown in a single reply, so that replies stay small however many tasks there are. */
+    public static final int MAX_TASKS_SHOWN = 500;
+
+    /** Most unreadable saved tasks listed individually when Cody starts. */
+    private static final int MAX_LOAD_ERRORS_SHOWN = 5;
+
+    /**
+     * Reused to build every task listing, so that its capacity only has to grow once.
+     * Since replies are capped at {@code MAX_TASKS_SHOWN} tasks, it never grows very large.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
     /**
      * Returns the welcome message when the program starts.
      */
@@ -21,10 +40,83 @@ public class Ui {
     }
 
     /**
-     * Prints the goodbye message when the program ends.
+     * Returns a message listing the saved tasks that could not be read at startup.
+     * At most {@code MAX_LOAD_ERRORS_SHOWN} of them are listed individually.
+     *
+     * @param loadErrors the lines of the storage file that could not be read
+     */
+    public String displayLoadErrorsMessage(List<LoadResult.LineError> loadErrors) {
+        StringBuilder result = new StringBuilder(String.format(
+                "I couldn't read %d of your saved tasks, so I've set them aside in a .rejected file:",
+                loadErrors.size()));
+        for (int i = 0; i < loadErrors.size() && i < MAX_LOAD_ERRORS_SHOWN; i++) {
+            result.append("\n").append(loadErrors.get(i));
+        }
+        if (loadErrors.size() > MAX_LOAD_ERRORS_SHOWN) {
+            result.append("\n...");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a message summarising the commands run in batch mode,
+     * including the first few that failed.
+     *
+     * @param source where the commands were read from
+     * @param summary the outcome of running the commands
+     */
+    public String displayBatchSummaryMessage(String source, BatchSummary summary) {
+        StringBuilder result = new StringBuilder(String.format(
+                "Ran %d command(s) from %s: %d succeeded, %d failed.\nSaved %d change(s) in %d write(s).",
+                summary.getCommandCount(), source, summary.getCommandCount() - summary.getFailureCount(),
+                summary.getFailureCount(), summary.getSavedChangeCount(), summary.getWriteCount()));
+        for (String failure : summary.getFailures()) {
+            result.append("\n").append(failure);
+        }
+        if (summary.getFailureCount() > summary.getFailures().size()) {
+            result.append("\n...");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a message summarising an import of tasks from a file,
+     * including the first few entries that could not be read.
+     *
+     * @param source the file the tasks were imported from
+     * @param summary the outcome of the import
+     * @param taskListSize the number of tasks now in the list
+     */
+    public String displayImportSummaryMessage(String source, ImportSummary summary, Integer taskListSize) {
+        StringBuilder result = new StringBuilder(String.format(
+                "Imported %d task(s) from %s, skipping %d duplicate(s) and %d unreadable entry(ies).\n"
+                        + "Now you have %d task(s) in the list.",
+                summary.getAddedCount(), source, summary.getDuplicateCount(), summary.getRejectedCount(),
+                taskListSize));
+        for (String rejection : summary.getRejections()) {
+            result.append("\n").append(rejection);
+        }
+        if (summary.getRejectedCount() > summary.getRejections().size()) {
+            result.append("\n...");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a message indicating the tasks have been exported to a file.
+     *
+     * @param exportedCount the number of tasks written
+     * @param destination the file the tasks were written to
+     */
+    public String displaySuccessfulExportMessage(Integer exportedCount, String destination) {
+        return String.format("Done! I've exported %d task(s) to %s.", exportedCount, destination);
+    }
+
+    /**
+     * Returns the goodbye message when the program ends.
      */
-    public void displayGoodbyeMessage() {
-        System.out.println("Bye. Hope to see you again soon!");
+    public String displayGoodbyeMessage() {
+        return "Bye. Hope to see you again soon!";
     }
 
     /**
@@ -37,6 +129,83 @@ public class Ui {
         return String.format("Noted! I've removed this task:\n%s\nNow you have %d tasks in the list.", removedTask, taskListSize);
     }
 
+    /**
+     * Returns a message indicating several tasks have been removed from the list.
+     *
+     * @param removedTasks the tasks that were removed
+     * @param taskListSize the number of tasks remaining in the list
+     */
+    public String displaySuccessfulRemovedTasksMessage(List<Task> removedTasks, Integer taskListSize) {
+        buffer.setLength(0);
+        buffer.append("Noted! I've removed these ").append(removedTasks.size()).append(" tasks:\n");
+        appendTaskList(removedTasks);
+        buffer.append("Now you have ").append(taskListSize).append(" tasks in the list.");
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a message indicating several tasks have been marked as done.
+     *
+     * @param tasks the tasks that were marked as done
+     */
+    public String displaySuccessfulMarkTasksAsDoneMessage(List<Task> tasks) {
+        buffer.setLength(0);
+        buffer.append("Nice! I've marked these ").append(tasks.size()).append(" tasks as done:\n");
+        appendTaskList(tasks);
+        // the reply ends with the last task rather than a line break
+        buffer.setLength(buffer.length() - 1);
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a message indicating several tasks have been marked as not done.
+     *
+     * @param tasks the tasks that were marked as not done
+     */
+    public String displaySuccessfulUnmarkTasksMessage(List<Task> tasks) {
+        buffer.setLength(0);
+        buffer.append("OK, I've marked these ").append(tasks.size()).append(" tasks as not done yet:\n");
+        appendTaskList(tasks);
+        // the reply ends with the last task rather than a line break
+        buffer.setLength(buffer.length() - 1);
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a message indicating which task list is now in use.
+     *
+     * @param name the name of the list
+     * @param taskListSize the number of tasks in the list
+     */
+    public String displayUsingTaskListMessage(String name, Integer taskListSize) {
+        return String.format("Now using the task list %s, which has %d task(s).", name, taskListSize);
+    }
+
+    /**
+     * Returns the names of all task lists, marking the one in use.
+     *
+     * @param names the names of the lists, in the order to show them
+     * @param currentName the name of the list in use
+     */
+    public String displayTaskListNamesMessage(List<String> names, String currentName) {
+        buffer.setLength(0);
+        buffer.append("Here are your task lists:");
+        for (int i = 0; i < names.size(); i++) {
+            buffer.append('\n').append(i + 1).append(". ").append(names.get(i));
+            if (names.get(i).equals(currentName)) {
+                buffer.append(" (in use)");
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a message indicating that a selection of tasks, such as {@code done}, chose no tasks.
+     */
+    public String displayNoSelectedTasksMessage() {
+        return "There are no tasks to change.";
+    }
+
     /**
      * Returns a message indicating a task has been marked as done.
      *
@@ -56,16 +225,133 @@ public class Ui {
     }
 
     /**
-     * Returns a string containing all tasks in the task list with their corresponding indices.
+     * Returns a message indicating the most recent change has been undone.
+     *
+     * @param changedCount the number of tasks the undone change affected
+     * @param taskListSize the number of tasks in the list afterwards
+     */
+    public String displaySuccessfulUndoMessage(Integer changedCount, Integer taskListSize) {
+        return String.format("Undone! I've reversed the last change to %d task(s).\nNow you have %d task(s) in the list",
+                changedCount, taskListSize);
+    }
+
+    /**
+     * Returns a message indicating the most recently undone change has been made again.
+     *
+     * @param changedCount the number of tasks the redone change affected
+     * @param taskListSize the number of tasks in the list afterwards
+     */
+    public String displaySuccessfulRedoMessage(Integer changedCount, Integer taskListSize) {
+        return String.format("Redone! I've made the change to %d task(s) again.\nNow you have %d task(s) in the list",
+                changedCount, taskListSize);
+    }
+
+    /**
+     * Returns a string containing one page of the tasks in the task list with their corresponding indices.
+     * If the list does not fit on one page, a note of which tasks are shown is added at the end.
+     *
+     * @param tasks the list of tasks to be printed
+     * @param page the page to show, starting from 1
+     */
+    public String listTaskPage(TaskList tasks, int page) {
+        int offset = (page - 1) * PAGE_SIZE;
+        buffer.setLength(0);
+        int end = appendTasks(tasks, offset, PAGE_SIZE);
+        if (offset > 0 || end < tasks.size()) {
+            appendShowingNote(offset, end, tasks.size());
+            if (end < tasks.size()) {
+                buffer.append(" Type `list ").append(page + 1).append("` to see the next page.");
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a string containing one page of the tasks in the task list in another order.
+     * Each task is shown with its index in the list, so that it can be marked or deleted by that number.
      *
      * @param tasks the list of tasks to be printed
+     * @param order the order to show the tasks in
+     * @param page the page to show, starting from 1
      */
-    public String listAllTasks(TaskList tasks) {
-        String result = "";
-        for (int i = 1; i <= tasks.size(); i++) {
-            result += i + ". " + tasks.get(i - 1) + "\n"; // uses toString()
+    public String listSortedTaskPage(TaskList tasks, TaskOrder order, int page) {
+        int offset = (page - 1) * PAGE_SIZE;
+        buffer.setLength(0);
+        List<Task> pageTasks = tasks.getTasksSortedBy(order, offset, PAGE_SIZE);
+        for (Task task : pageTasks) {
+            appendTask(tasks.indexOfId(task.getId()) + 1, task);
+        }
+        int end = offset + pageTasks.size();
+        if (offset > 0 || end < tasks.size()) {
+            appendShowingNote(offset, end, tasks.size());
+            if (end < tasks.size()) {
+                buffer.append(" Type `list by ").append(order.name().toLowerCase()).append(' ').append(page + 1)
+                        .append("` to see the next page.");
+            }
         }
-        return result;
+        return buffer.toString();
+    }
+
+    /**
+     * Returns a string containing a range of the tasks in the task list with their corresponding indices.
+     * At most {@code MAX_TASKS_SHOWN} tasks are shown, whatever the limit.
+     *
+     * @param tasks the list of tasks to be printed
+     * @param offset the number of tasks to skip from the start of the list
+     * @param limit the most tasks to show
+     */
+    public String listTaskRange(TaskList tasks, int offset, int limit) {
+        buffer.setLength(0);
+        int end = appendTasks(tasks, offset, Math.min(limit, MAX_TASKS_SHOWN));
+        if (offset > 0 || end < tasks.size()) {
+            appendShowingNote(offset, end, tasks.size());
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Writes a range of the tasks in the task list with their corresponding indices to an output sink,
+     * one task at a time, without building the whole listing in memory.
+     *
+     * @param tasks the list of tasks to be written
+     * @param offset the number of tasks to skip from the start of the list
+     * @param limit the most tasks to write
+     * @param out where to write the tasks
+     * @throws IOException if writing to {@code out} fails
+     */
+    public void writeTasks(TaskList tasks, int offset, int limit, Appendable out) throws IOException {
+        int end = (int) Math.min(tasks.size(), (long) offset + limit);
+        for (int i = offset; i < end; i++) {
+            buffer.setLength(0);
+            appendTask(i + 1, tasks.get(i));
+            out.append(buffer);
+        }
+    }
+
+    /**
+     * Appends the tasks from {@code offset} onwards to the buffer, stopping after {@code limit} tasks.
+     *
+     * @return the index after the last task appended
+     */
+    private int appendTasks(TaskList tasks, int offset, int limit) {
+        int end = (int) Math.min(tasks.size(), (long) offset + limit);
+        for (int i = offset; i < end; i++) {
+            appendTask(i + 1, tasks.get(i));
+        }
+        return end;
+    }
+
+    private void appendTask(int taskNumber, Task task) {
+        buffer.append(taskNumber).append(". ").append(task); // uses toString()
+        if (task.getId() > 0) {
+            buffer.append(" #").append(task.getId());
+        }
+        buffer.append('\n');
+    }
+
+    private void appendShowingNote(int offset, int end, int size) {
+        buffer.append("Showing tasks ").append(offset + 1).append('-').append(end)
+                .append(" of ").append(size).append('.');
     }
 
     /**
@@ -75,20 +361,34 @@ public class Ui {
      * @param task       the task that was added
      */
     public String displaySuccessfulAddTaskMessage(Integer numOfTasks, Task task) {
-        return String.format("Got it. I've added this task: \n%s\nNow you have %d task(s) in the list", task, numOfTasks);
+        return String.format("Got it. I've added this task: \n%s #%d\nNow you have %d task(s) in the list", task,
+                task.getId(), numOfTasks);
     }
 
     /**
-     * Converts input ArrayList of tasks to a string representation. 
-     * @param tasks
-     * @return string representation of ArrayList of tasks
+     * Converts input list of tasks to a string representation.
+     * At most {@code MAX_TASKS_SHOWN} of them are listed individually.
+     *
+     * @param tasks the tasks to be listed
+     * @return string representation of the list of tasks
+     */
+    public String listTasks(List<Task> tasks) {
+        buffer.setLength(0);
+        buffer.append("Here are the matching tasks in your list:\n");
+        appendTaskList(tasks);
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the tasks to the buffer, numbered from 1, listing at most {@code MAX_TASKS_SHOWN} of them.
      */
-    public String listTasks(ArrayList<Task> tasks) {
-        String result = "Here are the matching tasks in your list:\n";
-        for (int i = 1; i <= tasks.size(); i++) {
-            result += i + ". " + tasks.get(i - 1) + "\n"; // uses toString()
+    private void appendTaskList(List<Task> tasks) {
+        for (int i = 1; i <= tasks.size() && i <= MAX_TASKS_SHOWN; i++) {
+            appendTask(i, tasks.get(i - 1));
+        }
+        if (tasks.size() > MAX_TASKS_SHOWN) {
+            buffer.append("...and ").append(tasks.size() - MAX_TASKS_SHOWN).append(" more.\n");
         }
-        return result;
     }
 
 }
@@ -0,0 +1,42 @@
+package cody.gui;
+
+/**
+ * Represents one message in the conversation shown by the GUI.
+ * Messages are immutable, so a pending reply is updated by replacing its message.
+ */
+final class ChatMessage {
+
+    private final String text;
+    private final boolean isFromUser;
+
+    private ChatMessage(String text, boolean isFromUser) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    /**
+     * Returns a message typed by the user.
+     *
+     * @param text the text of the message.
+     */
+    static ChatMessage fromUser(String text) {
+        return new ChatMessage(text, true);
+    }
+
+    /**
+     * Returns a message sent by Cody.
+     *
+     * @param text the text of the message.
+     */
+    static ChatMessage fromCody(String text) {
+        return new ChatMessage(text, false);
+    }
+
+    String getText() {
+        return this.text;
+    }
+
+    boolean isFromUser() {
+        return this.isFromUser;
+    }
+}
@@ -1,64 +1,71 @@
 package cody.gui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's
  * face
  * and a label containing text from the speaker.
+ * <p>
+ * Dialog boxes are built in code rather than loaded from FXML, and are reused for different
+ * messages as the chat is scrolled, so showing a message costs no parsing or allocation.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double PICTURE_SIZE = 99.0;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private boolean isFlipped;
+
+    /**
+     * Constructs an empty dialog box, with the ImageView on the right.
+     */
+    public DialogBox() {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPadding(new Insets(15.0, 5.0, 15.0, 5.0));
+        getChildren().setAll(dialog, displayPicture);
+    }
 
+    /**
+     * Shows a message in the dialog box, replacing whatever it showed before.
+     *
+     * @param text the text of the message
+     * @param img the picture of the speaker
+     * @param isFromUser whether the user is the speaker, in which case the ImageView is on the right
+     */
+    public void show(String text, Image img, boolean isFromUser) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        if (isFlipped == isFromUser) {
+            flip();
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the
-     * right.
+     * Flips the dialog box such that the ImageView moves to the other side of the text.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-    }
-
-    public static DialogBox getUserDialog(String text, Image img) {
-        System.out.println(text);
-        System.out.println(img);
-        return new DialogBox(text, img);
-    }
-
-    public static DialogBox getCodyDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+        isFlipped = !isFlipped;
+        if (isFlipped) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
     }
 }
@@ -0,0 +1,42 @@
+package cody.gui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * Shows a chat message in the conversation list.
+ * <p>
+ * The list only creates enough cells to fill the visible area, and each cell keeps a single
+ * {@link DialogBox} that it fills in with whichever message it is currently showing.
+ */
+class DialogCell extends ListCell<ChatMessage> {
+
+    private final DialogBox dialogBox = new DialogBox();
+    private final Image userImage;
+    private final Image codyImage;
+
+    /**
+     * Constructs a cell that shows messages with the given pictures of their speakers.
+     *
+     * @param userImage the picture shown next to the user's messages
+     * @param codyImage the picture shown next to Cody's messages
+     */
+    DialogCell(Image userImage, Image codyImage) {
+        this.userImage = userImage;
+        this.codyImage = codyImage;
+        // let the list decide the width, so that long messages wrap instead of scrolling sideways
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean empty) {
+        super.updateItem(message, empty);
+        setText(null);
+        if (empty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        dialogBox.show(message.getText(), message.isFromUser() ? userImage : codyImage, message.isFromUser());
+        setGraphic(dialogBox);
+    }
+}
@@ -1,9 +1,95 @@
 package cody.gui;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import cody.BatchSummary;
+import cody.Cody;
+import cody.exception.CodyException;
+import cody.server.CodyServer;
 import javafx.application.Application;
 
+/**
+ * Starts Cody.
+ * <p>
+ * With {@code --batch [file]}, no window is opened: the commands in the file, or on standard
+ * input if no file is given, are run as one batch and a summary is printed. The exit status
+ * is 0 only if every command succeeded.
+ * <p>
+ * With {@code --server [port | socket file]}, no window is opened either: the task list is served
+ * to local clients by a {@link CodyServer}, on the given TCP port of the loopback interface or on
+ * the given Unix socket file, until the process is stopped.
+ */
 public class Launcher {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args.length > 1 ? args[1] : null));
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args.length > 1 ? args[1] : null);
+            return;
+        }
         Application.launch(Main.class, args);
     }
+
+    private static int runBatch(String scriptPath) {
+        try {
+            Cody cody = new Cody();
+            BatchSummary summary;
+            try (BufferedReader commands = scriptPath == null
+                    ? new BufferedReader(new InputStreamReader(System.in))
+                    : Files.newBufferedReader(Paths.get(scriptPath))) {
+                summary = cody.runBatch(commands);
+            } finally {
+                cody.close();
+            }
+            System.out.println(cody.getBatchSummaryMessage(scriptPath == null ? "standard input" : scriptPath,
+                    summary));
+            return summary.getFailureCount() == 0 ? 0 : 1;
+        } catch (IOException | CodyException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void runServer(String location) {
+        CodyServer server;
+        try {
+            SocketAddress address;
+            if (location == null) {
+                address = CodyServer.loopbackAddress(CodyServer.DEFAULT_PORT);
+            } else if (location.chars().allMatch(Character::isDigit)) {
+                address = CodyServer.loopbackAddress(Integer.parseInt(location));
+            } else {
+                address = UnixDomainSocketAddress.of(location);
+            }
+            server = new CodyServer(new Cody(), address);
+            System.out.println("Cody is listening on " + server.getAddress());
+        } catch (IOException | CodyException | NumberFormatException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Thread servingThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // let the server save the task list before the process exits
+            server.close();
+            try {
+                servingThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            server.serve();
+        } catch (IOException e) {
+            // exiting here would wait forever on the shutdown hook, which waits for this thread
+            System.out.println(e.getMessage());
+        }
+    }
 }
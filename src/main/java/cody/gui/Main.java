@@ -3,6 +3,7 @@ package cody.gui;
 import java.io.IOException;
 
 import cody.Cody;
+import cody.CommandExecutor;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -15,11 +16,13 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     private Cody cody;
+    private CommandExecutor commandExecutor;
 
     @Override
     public void start(Stage stage) {
         try {
             cody = new Cody();
+            commandExecutor = new CommandExecutor(cody);
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
@@ -29,10 +32,26 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             stage.setScene(scene);
             fxmlLoader.<MainWindow>getController().setCody(cody); // inject the Cody instance
+            fxmlLoader.<MainWindow>getController().setCommandExecutor(commandExecutor);
             fxmlLoader.<MainWindow>getController().setWelcomeMessage();
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Waits for any commands still running and saves any pending changes when the window is closed.
+     */
+    @Override
+    public void stop() {
+        if (commandExecutor == null) {
+            return;
+        }
+        try {
+            commandExecutor.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
 }
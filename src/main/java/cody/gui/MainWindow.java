@@ -1,36 +1,49 @@
 package cody.gui;
 
+import java.util.concurrent.CompletionException;
+
 import cody.Cody;
+import cody.CommandExecutor;
+import cody.parser.Parser;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    /** Shown in place of Cody's reply until the command has finished running. */
+    private static final String PENDING_REPLY_TEXT = "...";
+
+    /** Most messages kept in the conversation; the oldest ones are dropped beyond this. */
+    private static final int MAX_MESSAGES_KEPT = 500;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Cody cody;
+    private CommandExecutor commandExecutor;
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/UserImage.png"));
     private Image codyImage = new Image(this.getClass().getResourceAsStream("/images/CodyImage.png"));
 
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new DialogCell(userImage, codyImage));
     }
 
     /** Injects the Cody instance */
@@ -38,25 +51,63 @@ public class MainWindow extends AnchorPane {
         cody = c;
     }
 
+    /** Injects the executor that runs commands off the JavaFX application thread */
+    public void setCommandExecutor(CommandExecutor executor) {
+        commandExecutor = executor;
+    }
+
     public void setWelcomeMessage() {
-        dialogContainer.getChildren().add(DialogBox.getCodyDialog(cody.getWelcomeMessage(), codyImage));
+        addMessages(ChatMessage.fromCody(cody.getWelcomeMessage()));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing
-     * Cody's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Appends messages to the conversation and scrolls to the newest one,
+     * dropping the oldest messages if there are more than {@code MAX_MESSAGES_KEPT}.
+     */
+    private void addMessages(ChatMessage... newMessages) {
+        messages.addAll(newMessages);
+        if (messages.size() > MAX_MESSAGES_KEPT) {
+            messages.remove(0, messages.size() - MAX_MESSAGES_KEPT);
+        }
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Replaces a message in the conversation, unless it has already been dropped.
+     */
+    private void replaceMessage(ChatMessage oldMessage, ChatMessage newMessage) {
+        int index = messages.lastIndexOf(oldMessage);
+        if (index < 0) {
+            return;
+        }
+        messages.set(index, newMessage);
+        if (index == messages.size() - 1) {
+            dialogList.scrollTo(index);
+        }
+    }
+
+    /**
+     * Adds two messages to the conversation, one echoing user input and the other a
+     * placeholder for Cody's reply. The command is run in
+     * the background, and the placeholder is filled in once the reply is ready, so the
+     * window stays responsive however long the command takes. Clears the user input.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = cody.handleCommand(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getCodyDialog(response, codyImage));
+        ChatMessage pendingReply = ChatMessage.fromCody(PENDING_REPLY_TEXT);
+        addMessages(ChatMessage.fromUser(input), pendingReply);
         userInput.clear();
-        if (input.equals("bye")) {
-            Platform.exit();
-        }
+        commandExecutor.submit(input).whenComplete((response, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                replaceMessage(pendingReply, ChatMessage.fromCody(response));
+            } else {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                replaceMessage(pendingReply, ChatMessage.fromCody(cause.getMessage()));
+            }
+            if (new Parser(input).parse().getCommandWord().equals("bye")) {
+                Platform.exit();
+            }
+        }));
     }
 }
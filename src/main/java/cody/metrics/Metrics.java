@@ -0,0 +1,362 @@
+package cody.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Collects measurements of where Cody spends its time: how long each kind of command takes, how
+ * that time divides into parsing, executing and persisting, how much storage I/O is done, how
+ * many tasks there are and how long they took to load.
+ * <p>
+ * Metrics are only collected if Cody is started with the {@code cody.metrics} system property set
+ * to {@code true}. Every recording method first checks {@link #ENABLED}, which is a constant,
+ * so when metrics are off the JIT compiler removes the checks and the timing calls around them
+ * and nothing is measured. When metrics are on, they are also published over JMX as
+ * {@code cody:type=Metrics}, see {@link MetricsMXBean}.
+ */
+public final class Metrics {
+
+    /** Name of the system property that turns metrics on. */
+    public static final String ENABLED_PROPERTY = "cody.metrics";
+
+    /** Whether metrics are collected, fixed when Cody starts. */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /** The name of the MBean the metrics are published under. */
+    public static final String OBJECT_NAME = "cody:type=Metrics";
+
+    /** The stages every command goes through. */
+    public enum Stage {
+        /** Splitting the input into a command. */
+        PARSE,
+        /** Running the command, apart from writing to storage. */
+        EXECUTE,
+        /** Writing the command's changes to storage. */
+        PERSIST
+    }
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> commandLatencies = new ConcurrentHashMap<>();
+    private static final LatencyHistogram[] stageLatencies = new LatencyHistogram[Stage.values().length];
+    private static final LongAdder bytesRead = new LongAdder();
+    private static final LongAdder bytesWritten = new LongAdder();
+    private static final LongAdder fsyncCount = new LongAdder();
+
+    /** The persisting time spent by each thread so far, so commands can tell it apart from executing. */
+    private static final ThreadLocal<long[]> persistNanosByThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static volatile long loadNanos;
+    private static volatile int loadedTaskCount;
+    private static volatile IntSupplier taskCountSource = () -> 0;
+
+    static {
+        for (Stage stage : Stage.values()) {
+            stageLatencies[stage.ordinal()] = new LatencyHistogram();
+        }
+        if (ENABLED) {
+            registerMBean();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the current time to measure a duration from, or 0 if metrics are off.
+     *
+     * @return the value of {@link System#nanoTime()}, or 0
+     */
+    public static long startTimer() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a command that has finished, broken down into its stages.
+     * Persisting time is the time spent in {@link #recordPersist(long)} by this thread while the
+     * command ran, as measured by {@link #getPersistNanosOnThisThread()}.
+     *
+     * @param commandWord the kind of command, used to group the latencies
+     * @param parseNanos the time taken to parse the command
+     * @param executeNanos the time taken to run the command, including persisting
+     * @param persistNanos the part of {@code executeNanos} spent persisting
+     */
+    public static void recordCommand(String commandWord, long parseNanos, long executeNanos, long persistNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        commandLatencies.computeIfAbsent(commandWord, key -> new LatencyHistogram())
+                .record(parseNanos + executeNanos);
+        stageLatencies[Stage.PARSE.ordinal()].record(parseNanos);
+        stageLatencies[Stage.EXECUTE.ordinal()].record(executeNanos - persistNanos);
+        stageLatencies[Stage.PERSIST.ordinal()].record(persistNanos);
+    }
+
+    /**
+     * Records the time spent writing changes to storage, counting it towards the current thread's command.
+     *
+     * @param startNanos the value returned by {@link #startTimer()} before writing
+     */
+    public static void recordPersist(long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        persistNanosByThread.get()[0] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns the total time this thread has spent persisting, for working out how much of it
+     * a command took.
+     *
+     * @return the time in nanoseconds, or 0 if metrics are off
+     */
+    public static long getPersistNanosOnThisThread() {
+        return ENABLED ? persistNanosByThread.get()[0] : 0;
+    }
+
+    /**
+     * Records bytes read from a storage file.
+     *
+     * @param count the number of bytes
+     */
+    public static void recordBytesRead(long count) {
+        if (ENABLED) {
+            bytesRead.add(count);
+        }
+    }
+
+    /**
+     * Records bytes written to a storage file.
+     *
+     * @param count the number of bytes
+     */
+    public static void recordBytesWritten(long count) {
+        if (ENABLED) {
+            bytesWritten.add(count);
+        }
+    }
+
+    /**
+     * Records text written to a storage file, counting its length once encoded as UTF-8.
+     *
+     * @param text the text written
+     */
+    public static void recordTextWritten(CharSequence text) {
+        if (!ENABLED) {
+            return;
+        }
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // the surrogate pair takes four bytes in all
+                length += 2;
+            } else {
+                length += Character.isLowSurrogate(c) ? 2 : 3;
+            }
+        }
+        bytesWritten.add(length);
+    }
+
+    /**
+     * Records a request to force written data to the storage device.
+     */
+    public static void recordFsync() {
+        if (ENABLED) {
+            fsyncCount.increment();
+        }
+    }
+
+    /**
+     * Records how long a task list took to load.
+     *
+     * @param startNanos the value returned by {@link #startTimer()} before loading
+     * @param taskCount the number of tasks loaded
+     */
+    public static void recordLoad(long startNanos, int taskCount) {
+        if (!ENABLED) {
+            return;
+        }
+        loadNanos = System.nanoTime() - startNanos;
+        loadedTaskCount = taskCount;
+    }
+
+    /**
+     * Sets where the number of tasks in the list in use is read from.
+     *
+     * @param source returns the current number of tasks
+     */
+    public static void setTaskCountSource(IntSupplier source) {
+        taskCountSource = source;
+    }
+
+    /**
+     * Returns the latencies of each kind of command, by command word.
+     *
+     * @return the histograms, in alphabetical order of command word
+     */
+    public static Map<String, LatencyHistogram> getCommandLatencies() {
+        return new TreeMap<>(commandLatencies);
+    }
+
+    /**
+     * Returns the time commands have spent in a stage.
+     *
+     * @param stage the stage
+     * @return the histogram of that stage
+     */
+    public static LatencyHistogram getStageLatency(Stage stage) {
+        return stageLatencies[stage.ordinal()];
+    }
+
+    /**
+     * Returns the number of bytes read from storage files.
+     *
+     * @return the number of bytes
+     */
+    public static long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Returns the number of bytes written to storage files.
+     *
+     * @return the number of bytes
+     */
+    public static long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Returns the number of times written data was forced to the storage device.
+     *
+     * @return the number of fsyncs
+     */
+    public static long getFsyncCount() {
+        return fsyncCount.sum();
+    }
+
+    /**
+     * Returns how long the last task list took to load.
+     *
+     * @return the time in nanoseconds
+     */
+    public static long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Returns the number of tasks in the last task list loaded.
+     *
+     * @return the number of tasks
+     */
+    public static int getLoadedTaskCount() {
+        return loadedTaskCount;
+    }
+
+    /**
+     * Returns the number of tasks in the list in use.
+     *
+     * @return the number of tasks
+     */
+    public static int getTaskCount() {
+        return taskCountSource.getAsInt();
+    }
+
+    /**
+     * Forgets the command latencies and storage I/O counts recorded so far.
+     * The load time and task counts are kept.
+     */
+    public static void reset() {
+        commandLatencies.clear();
+        for (LatencyHistogram histogram : stageLatencies) {
+            histogram.reset();
+        }
+        bytesRead.reset();
+        bytesWritten.reset();
+        fsyncCount.reset();
+    }
+
+    /**
+     * Returns a summary of every metric, as shown by the {@code stats} command.
+     *
+     * @return the summary, one line per item
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        Map<String, LatencyHistogram> commands = getCommandLatencies();
+        long commandCount = getStageLatency(Stage.PARSE).getCount();
+        report.append("Commands run: ").append(commandCount).append('\n');
+        report.append("Latency by command (count, p50, p99, max):\n");
+        for (Map.Entry<String, LatencyHistogram> entry : commands.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append("  ").append(entry.getKey()).append(": ").append(histogram.getCount());
+            appendPercentiles(report, histogram);
+            report.append('\n');
+        }
+        report.append("Time by stage (total, p50, p99, max):\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getStageLatency(stage);
+            report.append("  ").append(stage.name().toLowerCase()).append(": ")
+                    .append(formatNanos(histogram.getTotalNanos()));
+            appendPercentiles(report, histogram);
+            report.append('\n');
+        }
+        report.append("Storage: ").append(formatBytes(getBytesRead())).append(" read, ")
+                .append(formatBytes(getBytesWritten())).append(" written, ")
+                .append(getFsyncCount()).append(" fsync(s)\n");
+        report.append("Tasks: ").append(getTaskCount()).append(" in the list in use, ")
+                .append(getLoadedTaskCount()).append(" loaded in ").append(formatNanos(getLoadNanos()));
+        return report.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder report, LatencyHistogram histogram) {
+        report.append(", ").append(formatNanos(histogram.getValueAtPercentile(50)))
+                .append(", ").append(formatNanos(histogram.getValueAtPercentile(99)))
+                .append(", ").append(formatNanos(histogram.getMaxNanos()));
+    }
+
+    /**
+     * Formats a duration with a unit that keeps it short, eg. {@code 850ns}, {@code 12.3us} or {@code 4.5ms}.
+     */
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // metrics are still shown by the stats command
+            System.err.println("Unable to publish metrics over JMX: " + e.getMessage());
+        }
+    }
+}
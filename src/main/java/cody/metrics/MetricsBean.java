@@ -0,0 +1,78 @@
+package cody.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publishes {@link Metrics} over JMX.
+ */
+class MetricsBean implements MetricsMXBean {
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    @Override
+    public long getCommandCount() {
+        return Metrics.getStageLatency(Metrics.Stage.PARSE).getCount();
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMicros() {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        for (Metrics.Stage stage : Metrics.Stage.values()) {
+            putPercentiles(latencies, stage.name().toLowerCase(), Metrics.getStageLatency(stage));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : Metrics.getCommandLatencies().entrySet()) {
+            putPercentiles(latencies, entry.getKey(), entry.getValue());
+        }
+        return latencies;
+    }
+
+    private static void putPercentiles(Map<String, Double> latencies, String name, LatencyHistogram histogram) {
+        for (double percentile : PERCENTILES) {
+            String label = percentile == Math.rint(percentile) ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile);
+            latencies.put(name + ".p" + label, histogram.getValueAtPercentile(percentile) / 1e3);
+        }
+        latencies.put(name + ".max", histogram.getMaxNanos() / 1e3);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return Metrics.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return Metrics.getBytesWritten();
+    }
+
+    @Override
+    public long getFsyncCount() {
+        return Metrics.getFsyncCount();
+    }
+
+    @Override
+    public int getTaskCount() {
+        return Metrics.getTaskCount();
+    }
+
+    @Override
+    public int getLoadedTaskCount() {
+        return Metrics.getLoadedTaskCount();
+    }
+
+    @Override
+    public double getLoadMillis() {
+        return Metrics.getLoadNanos() / 1e6;
+    }
+
+    @Override
+    public String getReport() {
+        return Metrics.getReport();
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+}
@@ -0,0 +1,79 @@
+package cody.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics collected by {@link Metrics}, as published over JMX under {@link Metrics#OBJECT_NAME}.
+ * Durations are given in microseconds.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns the number of commands run.
+     *
+     * @return the number of commands
+     */
+    long getCommandCount();
+
+    /**
+     * Returns latency percentiles in microseconds, keyed by a command word or stage and a percentile,
+     * eg. {@code todo.p99} or {@code persist.p50}.
+     *
+     * @return the percentiles
+     */
+    Map<String, Double> getLatencyMicros();
+
+    /**
+     * Returns the number of bytes read from storage files.
+     *
+     * @return the number of bytes
+     */
+    long getBytesRead();
+
+    /**
+     * Returns the number of bytes written to storage files.
+     *
+     * @return the number of bytes
+     */
+    long getBytesWritten();
+
+    /**
+     * Returns the number of times written data was forced to the storage device.
+     *
+     * @return the number of fsyncs
+     */
+    long getFsyncCount();
+
+    /**
+     * Returns the number of tasks in the list in use.
+     *
+     * @return the number of tasks
+     */
+    int getTaskCount();
+
+    /**
+     * Returns the number of tasks in the last list loaded.
+     *
+     * @return the number of tasks
+     */
+    int getLoadedTaskCount();
+
+    /**
+     * Returns how long the last list took to load.
+     *
+     * @return the time in milliseconds
+     */
+    double getLoadMillis();
+
+    /**
+     * Returns the summary shown by the {@code stats} command.
+     *
+     * @return the summary
+     */
+    String getReport();
+
+    /**
+     * Forgets the command latencies and storage I/O counts recorded so far.
+     */
+    void reset();
+}
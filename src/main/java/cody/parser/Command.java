@@ -0,0 +1,225 @@
+package cody.parser;
+
+import java.util.ArrayList;
+
+/**
+ * Represents a user command that has been split into its command word and its arguments.
+ * <p>
+ * The arguments are kept as a single string and only taken apart when a handler asks for them
+ * in a particular shape, using plain index arithmetic instead of regular expressions.
+ * As elsewhere in the parser, each {@code get} method should only be called after the
+ * matching {@code has} method has confirmed that the arguments have that shape.
+ */
+public final class Command {
+
+    private final String commandWord;
+    private final String arguments;
+
+    /**
+     * Constructs a command from its already separated parts.
+     *
+     * @param commandWord the first word of the user input.
+     * @param arguments the rest of the user input after the first space, or an empty string.
+     */
+    Command(String commandWord, String arguments) {
+        this.commandWord = commandWord;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Returns the first word of the user input, which decides how the command is handled.
+     *
+     * @return the command word.
+     */
+    public String getCommandWord() {
+        return this.commandWord;
+    }
+
+    /**
+     * Returns everything after the command word and the space following it.
+     *
+     * @return the arguments, or an empty string if there are none.
+     */
+    public String getArguments() {
+        return this.arguments;
+    }
+
+    /**
+     * Checks if any arguments were given.
+     *
+     * @return whether the arguments are non-empty.
+     */
+    public boolean hasArguments() {
+        return !this.arguments.isEmpty();
+    }
+
+    /**
+     * Checks if the arguments are a single task number.
+     *
+     * @return whether the arguments consist only of decimal digits.
+     */
+    public boolean hasTaskNumberArgument() {
+        if (this.arguments.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < this.arguments.length(); i++) {
+            char c = this.arguments.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the task number from arguments that consist of a single task number.
+     *
+     * @return the task number.
+     */
+    public int getTaskNumber() {
+        return Integer.parseInt(this.arguments);
+    }
+
+    /**
+     * Checks if the arguments are a single task id, eg. {@code #12}.
+     *
+     * @return whether the arguments are {@code #} followed by up to 18 decimal digits.
+     */
+    public boolean hasTaskIdArgument() {
+        int length = this.arguments.length();
+        if (length < 2 || length > 19 || this.arguments.charAt(0) != '#') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char c = this.arguments.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the task id from arguments that consist of a single task id.
+     *
+     * @return the task id.
+     */
+    public long getTaskId() {
+        return Long.parseLong(this.arguments.substring(1));
+    }
+
+    /**
+     * Checks if the arguments select some tasks, eg. {@code 3}, {@code 1,4,9-12}, {@code all} or {@code done}.
+     *
+     * @return whether the arguments are a valid task selection.
+     */
+    public boolean hasTaskSelectionArgument() {
+        return TaskSelection.parse(this.arguments) != null;
+    }
+
+    /**
+     * Extracts the selection of tasks from arguments that are a valid task selection.
+     *
+     * @return the selection of tasks.
+     */
+    public TaskSelection getTaskSelection() {
+        TaskSelection selection = TaskSelection.parse(this.arguments);
+        assert selection != null : "arguments should have been checked with hasTaskSelectionArgument";
+        return selection;
+    }
+
+    /**
+     * Checks if the arguments are made up of non-empty parts joined by the given separators, in order.
+     *
+     * @param separators the separators expected between the parts, eg. {@code " /by "}.
+     * @return whether the arguments can be split around every separator.
+     */
+    public boolean hasArgumentsSeparatedBy(String... separators) {
+        return findSeparators(separators) != null;
+    }
+
+    /**
+     * Splits the arguments around the given separators, in order.
+     * If a separator appears more than once, the last usable occurrence is taken,
+     * so earlier parts may themselves contain the separator.
+     *
+     * @param separators the separators expected between the parts, eg. {@code " /by "}.
+     * @return the parts, one more than the number of separators.
+     */
+    public String[] getArgumentsSeparatedBy(String... separators) {
+        int[] positions = findSeparators(separators);
+        assert positions != null : "arguments should have been checked with hasArgumentsSeparatedBy";
+        String[] parts = new String[separators.length + 1];
+        int start = 0;
+        for (int i = 0; i < separators.length; i++) {
+            parts[i] = this.arguments.substring(start, positions[i]);
+            start = positions[i] + separators[i].length();
+        }
+        parts[separators.length] = this.arguments.substring(start);
+        return parts;
+    }
+
+    /**
+     * Checks if the arguments are exactly the given number of words separated by single spaces.
+     *
+     * @param count the number of words expected.
+     * @return whether the arguments have that many words.
+     */
+    public boolean hasArgumentWords(int count) {
+        String[] words = getArgumentWords();
+        if (words.length != count) {
+            return false;
+        }
+        for (String word : words) {
+            if (word.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.isWhitespace(word.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits the arguments into words at every space.
+     *
+     * @return the words, which may be empty if there are consecutive spaces.
+     */
+    public String[] getArgumentWords() {
+        ArrayList<String> words = new ArrayList<>();
+        if (this.arguments.isEmpty()) {
+            return new String[0];
+        }
+        int start = 0;
+        int space = this.arguments.indexOf(' ');
+        while (space >= 0) {
+            words.add(this.arguments.substring(start, space));
+            start = space + 1;
+            space = this.arguments.indexOf(' ', start);
+        }
+        words.add(this.arguments.substring(start));
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the position of each separator, working back from the end of the arguments,
+     * or null if some part would be empty or a separator is missing.
+     */
+    private int[] findSeparators(String... separators) {
+        int[] positions = new int[separators.length];
+        int end = this.arguments.length();
+        for (int i = separators.length - 1; i >= 0; i--) {
+            // the part after this separator must be non-empty
+            int position = this.arguments.lastIndexOf(separators[i], end - separators[i].length() - 1);
+            if (position < 1) {
+                return null;
+            }
+            positions[i] = position;
+            end = position;
+        }
+        return positions;
+    }
+}
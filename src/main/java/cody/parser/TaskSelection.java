@@ -0,0 +1,147 @@
+package cody.parser;
+
+import java.util.Arrays;
+
+/**
+ * Represents the tasks chosen by the argument of a {@code mark}, {@code unmark} or {@code delete} command.
+ * <p>
+ * The argument is one of:
+ * <ul>
+ * <li>{@code all}, for every task,</li>
+ * <li>{@code done}, for every task that is done, or</li>
+ * <li>a comma separated list of task numbers and inclusive ranges of task numbers, eg. {@code 1,4,9-12}.</li>
+ * </ul>
+ * Task numbers are kept as entered, starting from 1, and are only checked against the task list by the caller.
+ */
+public final class TaskSelection {
+
+    /** Longest task number accepted, so that task numbers always fit in an {@code int}. */
+    private static final int MAX_DIGITS = 9;
+
+    private final boolean isAll;
+    private final boolean isDoneTasks;
+
+    /** The start and end of each range of task numbers, one after the other. */
+    private final int[] ranges;
+
+    private TaskSelection(boolean isAll, boolean isDoneTasks, int[] ranges) {
+        this.isAll = isAll;
+        this.isDoneTasks = isDoneTasks;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Converts the argument of a command into a selection of tasks.
+     *
+     * @param argument the argument, eg. {@code 3-40}.
+     * @return the selection, or {@code null} if the argument is not a valid selection.
+     */
+    static TaskSelection parse(String argument) {
+        if (argument.equals("all")) {
+            return new TaskSelection(true, false, new int[0]);
+        }
+        if (argument.equals("done")) {
+            return new TaskSelection(false, true, new int[0]);
+        }
+
+        int[] ranges = new int[8];
+        int rangeCount = 0;
+        int position = 0;
+        int length = argument.length();
+        while (true) {
+            int startEnd = endOfNumber(argument, position);
+            if (startEnd < 0) {
+                return null;
+            }
+            int start = Integer.parseInt(argument.substring(position, startEnd));
+            int end = start;
+            position = startEnd;
+            if (position < length && argument.charAt(position) == '-') {
+                int endEnd = endOfNumber(argument, position + 1);
+                if (endEnd < 0) {
+                    return null;
+                }
+                end = Integer.parseInt(argument.substring(position + 1, endEnd));
+                position = endEnd;
+                if (end < start) {
+                    return null;
+                }
+            }
+            if (rangeCount * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[rangeCount * 2] = start;
+            ranges[rangeCount * 2 + 1] = end;
+            rangeCount++;
+
+            if (position == length) {
+                return new TaskSelection(false, false, Arrays.copyOf(ranges, rangeCount * 2));
+            }
+            if (argument.charAt(position) != ',') {
+                return null;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Returns the index after the digits starting at {@code start},
+     * or -1 if there are none or too many of them.
+     */
+    private static int endOfNumber(String argument, int start) {
+        int end = start;
+        while (end < argument.length() && argument.charAt(end) >= '0' && argument.charAt(end) <= '9') {
+            end++;
+        }
+        if (end == start || end - start > MAX_DIGITS) {
+            return -1;
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether every task is selected.
+     */
+    public boolean isAll() {
+        return this.isAll;
+    }
+
+    /**
+     * Returns whether every task that is done is selected.
+     */
+    public boolean isDoneTasks() {
+        return this.isDoneTasks;
+    }
+
+    /**
+     * Returns whether exactly one task number, and no range, was given.
+     */
+    public boolean isSingleTaskNumber() {
+        return this.ranges.length == 2 && this.ranges[0] == this.ranges[1];
+    }
+
+    /**
+     * Returns the number of task numbers and ranges given.
+     */
+    public int getRangeCount() {
+        return this.ranges.length / 2;
+    }
+
+    /**
+     * Returns the first task number of a range, which is the task number itself for a single task number.
+     *
+     * @param rangeIndex the position of the range in the argument, starting from 0.
+     */
+    public int getRangeStart(int rangeIndex) {
+        return this.ranges[rangeIndex * 2];
+    }
+
+    /**
+     * Returns the last task number of a range, which is the task number itself for a single task number.
+     *
+     * @param rangeIndex the position of the range in the argument, starting from 0.
+     */
+    public int getRangeEnd(int rangeIndex) {
+        return this.ranges[rangeIndex * 2 + 1];
+    }
+}
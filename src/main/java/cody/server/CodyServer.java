@@ -0,0 +1,390 @@
+package cody.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import cody.Cody;
+import cody.CommandExecutor;
+import cody.Session;
+import cody.parser.Parser;
+
+/**
+ * Serves one shared Cody instance to many local clients over a line protocol.
+ * <p>
+ * Every line a client sends is one command. Each reply is sent back as its lines followed by a
+ * line containing only {@code .}; a reply line that starts with {@code .} has another {@code .}
+ * put in front of it, as in SMTP. Clients may pipeline commands by sending several lines without
+ * waiting, and always get the replies in the order the commands were sent. A {@code bye} command
+ * only ends that client's session: the server replies and closes that connection, but the shared
+ * list stays open for the other clients until the server itself is closed. Each connection has
+ * its own {@link Session}, so a client that runs {@code use} only switches its own list.
+ * <p>
+ * All connections are handled by a single thread using a {@link Selector}, so an idle client only
+ * costs its socket and a small read buffer. Commands are run by a {@link CommandExecutor}, whose
+ * only worker thread is the one thread that ever touches the task list. Since it runs commands
+ * in the order they were submitted, the replies to each connection complete in order.
+ */
+public class CodyServer implements Closeable {
+
+    /** The longest command line accepted, in bytes. Longer lines close the connection. */
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    /** The number of commands a connection may have waiting for replies before it stops being read. */
+    static final int MAX_PIPELINED_COMMANDS = 64;
+
+    /** The port used when none is given. */
+    public static final int DEFAULT_PORT = 7070;
+
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    private final SocketAddress address;
+    private final CommandExecutor commandExecutor;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    /** Connections whose replies were completed by the worker thread and should be written. */
+    private final Queue<Connection> connectionsWithReplies = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean isStopping = false;
+
+    /**
+     * Constructs a server that listens on the given address.
+     *
+     * @param cody the instance to serve; it should not be used directly afterwards
+     * @param address an {@link InetSocketAddress} for TCP or a {@link UnixDomainSocketAddress} for a Unix socket
+     * @throws IOException if the address cannot be bound
+     */
+    public CodyServer(Cody cody, SocketAddress address) throws IOException {
+        this.address = address;
+        this.selector = Selector.open();
+        if (address instanceof UnixDomainSocketAddress) {
+            // a socket file left behind by a server that was not shut down cleanly blocks the bind
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.serverChannel = ServerSocketChannel.open();
+        }
+        this.serverChannel.bind(address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.commandExecutor = new CommandExecutor(cody);
+    }
+
+    /**
+     * Returns the address of a TCP port on the loopback interface, so only local clients can connect.
+     *
+     * @param port the port number, or 0 to pick any free port
+     * @return the address to listen on
+     */
+    public static InetSocketAddress loopbackAddress(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Returns the address the server is listening on, which gives the actual port if port 0 was asked for.
+     *
+     * @return the bound address
+     * @throws IOException if the server has been closed
+     */
+    public SocketAddress getAddress() throws IOException {
+        return this.serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Serves clients on the calling thread until {@link #close()} is called.
+     *
+     * @throws IOException if the selector fails
+     */
+    public void serve() throws IOException {
+        try {
+            while (!this.isStopping) {
+                this.selector.select();
+                writeCompletedReplies();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } finally {
+            for (SelectionKey key : this.selector.keys()) {
+                key.channel().close();
+            }
+            this.selector.close();
+            if (this.address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) this.address).getPath());
+            }
+            this.commandExecutor.close();
+        }
+    }
+
+    /**
+     * Stops serving. Commands that were already received are run, and their changes saved,
+     * before {@link #serve()} returns.
+     */
+    @Override
+    public void close() {
+        this.isStopping = true;
+        this.selector.wakeup();
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        try {
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            // only this client is affected, so the server carries on
+            closeQuietly(key);
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = this.serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            if (channel.getLocalAddress() instanceof InetSocketAddress) {
+                // replies are small and pipelined clients wait on them
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+            key.attach(new Connection(key));
+        } catch (IOException e) {
+            // the client went away while being accepted, which does not affect the others
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    // the connection is being dropped anyway
+                }
+            }
+        }
+    }
+
+    private void writeCompletedReplies() {
+        Connection connection = this.connectionsWithReplies.poll();
+        while (connection != null) {
+            try {
+                connection.write();
+            } catch (IOException e) {
+                closeQuietly(connection.key);
+            }
+            connection = this.connectionsWithReplies.poll();
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // the connection is being dropped anyway
+        }
+    }
+
+    /**
+     * Encodes a reply as its lines followed by a line containing only {@code .}.
+     * A line break at the very end of the reply only ends its last line.
+     */
+    static ByteBuffer encodeReply(String reply) {
+        StringBuilder framed = new StringBuilder(reply.length() + 8);
+        int start = 0;
+        while (start < reply.length()) {
+            int end = reply.indexOf('\n', start);
+            if (end < 0) {
+                end = reply.length();
+            }
+            if (reply.charAt(start) == '.') {
+                framed.append('.');
+            }
+            framed.append(reply, start, end).append('\n');
+            start = end + 1;
+        }
+        framed.append(".\n");
+        return ByteBuffer.wrap(framed.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The state of one client connection. Apart from {@link #replies}, it is only used by the selector thread.
+     */
+    private class Connection {
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /** The list this client is using, which is only used by the worker thread. */
+        private final Session session = new Session();
+
+        /** The bytes of a command line that did not fit in the read buffer. */
+        private byte[] partialLine = new byte[0];
+
+        /** Replies completed by the worker thread, in command order, waiting to be written. */
+        private final Queue<ByteBuffer> replies = new ConcurrentLinkedQueue<>();
+
+        /** Replies taken from {@link #replies} that have not been fully written, since the client reads slowly. */
+        private final Queue<ByteBuffer> unwrittenReplies = new ArrayDeque<>();
+
+        private int pendingCommandCount = 0;
+        private boolean isClosing = false;
+
+        Connection(SelectionKey key) {
+            this.key = key;
+        }
+
+        private SocketChannel channel() {
+            return (SocketChannel) this.key.channel();
+        }
+
+        void read() throws IOException {
+            int bytesRead = channel().read(this.readBuffer);
+            if (bytesRead < 0) {
+                // the client has finished sending; replies to its last commands are still written
+                if (this.partialLine.length > 0 && !this.isClosing) {
+                    // the last command does not have to end with a line break
+                    submit(takeLine(0, 0));
+                }
+                this.isClosing = true;
+                this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_READ);
+                closeIfDone();
+                return;
+            }
+            this.readBuffer.flip();
+            int lineStart = 0;
+            for (int i = 0; i < this.readBuffer.limit() && !this.isClosing; i++) {
+                if (this.readBuffer.get(i) == '\n') {
+                    submit(takeLine(lineStart, i));
+                    lineStart = i + 1;
+                }
+            }
+            keepPartialLine(lineStart);
+            this.readBuffer.clear();
+            updateInterest();
+        }
+
+        private String takeLine(int start, int end) {
+            byte[] line = new byte[this.partialLine.length + end - start];
+            System.arraycopy(this.partialLine, 0, line, 0, this.partialLine.length);
+            this.readBuffer.get(start, line, this.partialLine.length, end - start);
+            this.partialLine = new byte[0];
+            int length = line.length;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void keepPartialLine(int start) throws IOException {
+            int remaining = this.readBuffer.limit() - start;
+            if (remaining == 0 || this.isClosing) {
+                return;
+            }
+            if (this.partialLine.length + remaining > MAX_LINE_LENGTH) {
+                throw new IOException("Command line is too long.");
+            }
+            byte[] line = new byte[this.partialLine.length + remaining];
+            System.arraycopy(this.partialLine, 0, line, 0, this.partialLine.length);
+            this.readBuffer.get(start, line, this.partialLine.length, remaining);
+            this.partialLine = line;
+        }
+
+        private void submit(String userInput) {
+            if (userInput.isBlank()) {
+                return;
+            }
+            this.pendingCommandCount++;
+            CompletableFuture<String> futureReply;
+            if (new Parser(userInput).parse().getCommandWord().equals("bye")) {
+                // nothing sent after bye is run, and Cody is only closed when the server is
+                this.isClosing = true;
+                futureReply = commandExecutor.submitGoodbye();
+            } else {
+                futureReply = commandExecutor.submit(userInput, this.session);
+            }
+            futureReply.handle((reply, exception) -> {
+                if (exception instanceof CompletionException) {
+                    exception = exception.getCause();
+                }
+                this.replies.add(encodeReply(exception == null ? reply : exception.getMessage()));
+                connectionsWithReplies.add(this);
+                selector.wakeup();
+                return null;
+            });
+        }
+
+        void write() throws IOException {
+            if (!this.key.isValid()) {
+                return;
+            }
+            ByteBuffer reply = this.replies.poll();
+            while (reply != null) {
+                this.unwrittenReplies.add(reply);
+                this.pendingCommandCount--;
+                reply = this.replies.poll();
+            }
+            while (!this.unwrittenReplies.isEmpty()) {
+                ByteBuffer next = this.unwrittenReplies.peek();
+                channel().write(next);
+                if (next.hasRemaining()) {
+                    break;
+                }
+                this.unwrittenReplies.remove();
+            }
+            updateInterest();
+            closeIfDone();
+        }
+
+        private void updateInterest() {
+            if (!this.key.isValid()) {
+                return;
+            }
+            int interest = 0;
+            if (!this.isClosing && this.pendingCommandCount < MAX_PIPELINED_COMMANDS) {
+                interest |= SelectionKey.OP_READ;
+            }
+            if (!this.unwrittenReplies.isEmpty()) {
+                interest |= SelectionKey.OP_WRITE;
+            }
+            this.key.interestOps(interest);
+        }
+
+        private void closeIfDone() {
+            if (this.isClosing && this.pendingCommandCount == 0 && this.unwrittenReplies.isEmpty()) {
+                closeQuietly(this.key);
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package cody.task;
 
 import java.time.LocalDate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import cody.exception.CodyException;
 
@@ -39,6 +37,15 @@ public class Deadline extends Task {
         this.endDate = endDate;
     }
 
+    /**
+     * Returns the date by which this deadline task must be completed.
+     *
+     * @return the end date.
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
     /**
      * Converts a string representation of a deadline task into a {@code Deadline} object.
      * <p>
@@ -58,25 +65,7 @@ public class Deadline extends Task {
      * @throws CodyException if the string does not match the expected format or contains an unknown status symbol.
      */
     public static Deadline convertStringToTask(String string) throws CodyException {
-        // [D][X] return book (by: 2025-09-10)
-        String regex = "\\[D\\]\\[(.)] (.+) \\(by: (.+)\\)";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(string);
-
-        if (matcher.find()) {
-            String description = matcher.group(2);
-            LocalDate endDate = LocalDate.parse(matcher.group(3));
-            String isDoneString = matcher.group(1);
-            if (isDoneString.equals(" ")) {
-                return new Deadline(description, endDate, false);
-            } else if (isDoneString.equals("X")) {
-                return new Deadline(description, endDate, true);
-            } else {
-                throw new CodyException("Unknown Deadline status symbol.");
-            }
-        } else {
-            throw new CodyException("Regex match unsuccessful when reading Deadline from file.");
-        }
+        return TaskCodec.decodeDeadline(string);
     }
 
     /**
@@ -93,4 +82,20 @@ public class Deadline extends Task {
         String taskString = super.toString();
         return "[D]" + taskString + " (by: " + endDate + ")";
     }
+
+    /**
+     * Two deadline tasks are considered equal if they have the same description, completion status and end date.
+     *
+     * @param other any object
+     * @return true if the object is an equal deadline task.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return super.equals(other) && this.endDate.equals(((Deadline) other).endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + this.endDate.hashCode();
+    }
 }
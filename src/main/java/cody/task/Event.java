@@ -1,8 +1,6 @@
 package cody.task;
 
 import java.time.LocalDate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import cody.exception.CodyException;
 
@@ -47,6 +45,24 @@ public class Event extends Task {
         this.endDate = endDate;
     }
 
+    /**
+     * Returns the start date of this event.
+     *
+     * @return the start date.
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Returns the end date of this event.
+     *
+     * @return the end date.
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
     /**
      * Converts a string representation of an event task into an {@code Event} object.
      * <p>
@@ -66,26 +82,7 @@ public class Event extends Task {
      * @throws CodyException if the string does not match the expected format or contains an unknown status symbol.
      */
     public static Event convertStringToTask(String string) throws CodyException {
-        // [E][ ] project meeting (from: 2025-09-01 to: 2025-09-03)
-        String regex = "\\[E\\]\\[(.)] (.+) \\(from: (.+) to: (.+)\\)";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(string);
-
-        if (matcher.find()) {
-            String description = matcher.group(2);
-            LocalDate startDate = LocalDate.parse(matcher.group(3));
-            LocalDate endDate = LocalDate.parse(matcher.group(4));
-            String isDoneString = matcher.group(1);
-            if (isDoneString.equals(" ")) {
-                return new Event(description, startDate, endDate, false);
-            } else if (isDoneString.equals("X")) {
-                return new Event(description, startDate, endDate, true);
-            } else {
-                throw new CodyException("Unknown Event status symbol.");
-            }
-        } else {
-            throw new CodyException("Regex match unsuccessful when reading Event from file.");
-        }
+        return TaskCodec.decodeEvent(string);
     }
 
     /**
@@ -102,4 +99,25 @@ public class Event extends Task {
         String taskString = super.toString();
         return "[E]" + taskString + " (from: " + this.startDate + " to: " + this.endDate + ")";
     }
+
+    /**
+     * Two events are considered equal if they have the same description, completion status and start and end dates.
+     *
+     * @param other any object
+     * @return true if the object is an equal event.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        Event otherEvent = (Event) other;
+        return this.startDate.equals(otherEvent.startDate) && this.endDate.equals(otherEvent.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * super.hashCode() + this.startDate.hashCode();
+        return 31 * hash + this.endDate.hashCode();
+    }
 }
@@ -11,8 +11,18 @@ public class Task {
     /** The description of the task. */
     protected String description;
 
-    /** Whether the task has been completed. */
-    protected boolean isDone;
+    /**
+     * Whether the task has been completed.
+     * It is the only field that changes after construction, and is volatile so that a task
+     * shared between threads is always seen with its latest status.
+     */
+    protected volatile boolean isDone;
+
+    /**
+     * The id of the task, which stays the same for as long as the task is in its list,
+     * or 0 if the task has not been added to a list yet.
+     */
+    protected long id;
 
     /**
      * Constructs a {@code Task} with the given description and completion status.
@@ -41,15 +51,7 @@ public class Task {
      * @throws CodyException if the string does not begin with a recognized task type.
      */
     public static Task convertStringToTask(String string) throws CodyException {
-        if (string.startsWith("[T]")) {
-            return ToDo.convertStringToTask(string);
-        } else if (string.startsWith("[D]")) {
-            return Deadline.convertStringToTask(string);
-        } else if (string.startsWith("[E]")) {
-            return Event.convertStringToTask(string);
-        } else {
-            throw new CodyException("Unknown task type being read from file. I'm trying to read this line: " + string);
-        }
+        return TaskCodec.decode(string);
     }
 
     /**
@@ -61,6 +63,15 @@ public class Task {
         return (isDone ? "X" : " "); // mark done task with X
     }
 
+    /**
+     * Returns whether the task has been completed.
+     *
+     * @return {@code true} if the task is done, {@code false} otherwise.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Returns the description of the task.
      *
@@ -70,6 +81,24 @@ public class Task {
         return description;
     }
 
+    /**
+     * Returns the id of the task, which does not change when other tasks are added or removed.
+     *
+     * @return the id, or 0 if the task has not been added to a list yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the task. Ids are assigned by the list the task is added to.
+     *
+     * @param id the id, a positive number.
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Marks this task as done by setting {@code isDone} to {@code true}.
      */
@@ -100,16 +129,34 @@ public class Task {
     }
 
     /**
-     * Two tasks are considered equal if their string representations are the same.
+     * Two tasks are considered equal if they are of the same type and have the same
+     * description, completion status and dates. Their ids are not compared.
      * @param other any object
-     * @return true if the object is an instance of Task, and has the same string representation as this task.
+     * @return true if the object is a task of the same class with the same fields as this task.
      */
     @Override
     public boolean equals(Object other) {
-        if (!(other instanceof Task)) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || other.getClass() != this.getClass()) {
             return false;
         }
         Task otherTask = (Task) other;
-        return this.toString().equals(otherTask.toString());
+        return this.isDone == otherTask.isDone && this.description.equals(otherTask.description);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     * Since the completion status is part of it, a task must not be kept in a hash-based
+     * collection while it is marked or unmarked.
+     *
+     * @return the hash code of this task.
+     */
+    @Override
+    public int hashCode() {
+        int hash = this.getClass().getName().hashCode();
+        hash = 31 * hash + this.description.hashCode();
+        return 31 * hash + (this.isDone ? 1 : 0);
     }
 }
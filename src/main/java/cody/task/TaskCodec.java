@@ -0,0 +1,276 @@
+package cody.task;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import cody.exception.CodyException;
+
+/**
+ * Converts tasks to and from the line format used in the storage file:
+ * <pre>
+ * [T][X] task description
+ * [D][X] task description (by: yyyy-mm-dd)
+ * [E][X] task description (from: yyyy-mm-dd to: yyyy-mm-dd)
+ * </pre>
+ * where {@code [X]} indicates that the task is done and {@code [ ]} that it is not.
+ * A task that has an id is written with it in front, as in {@code #12 [T][ ] task description};
+ * lines without one, such as those written by older versions, are still read.
+ * <p>
+ * Lines are decoded with a single scan using index arithmetic: no regular expressions are
+ * involved and only the description is copied out of the line. Dates in the usual
+ * {@code yyyy-mm-dd} form are parsed directly from their digits; anything else is left to
+ * {@link LocalDate#parse(CharSequence)} so that errors are reported exactly as before.
+ * Apart from the id, the encoder produces the same text as {@link Task#toString()}, without relying on it.
+ */
+public final class TaskCodec {
+
+    /** Length of the {@code [T][X] } prefix shared by all task types. */
+    private static final int PREFIX_LENGTH = 7;
+
+    private static final String DEADLINE_SEPARATOR = " (by: ";
+    private static final String EVENT_START_SEPARATOR = " (from: ";
+    private static final String EVENT_END_SEPARATOR = " to: ";
+
+    private static final char ID_MARKER = '#';
+
+    private TaskCodec() {
+    }
+
+    /**
+     * Converts a line of the storage file into the corresponding {@code Task} subclass.
+     *
+     * @param line the line to decode.
+     * @return the decoded task.
+     * @throws CodyException if the line does not describe a valid task.
+     * @throws java.time.format.DateTimeParseException if a date in the line is invalid.
+     */
+    public static Task decode(String line) throws CodyException {
+        long id = 0;
+        int start = 0;
+        if (!line.isEmpty() && line.charAt(0) == ID_MARKER) {
+            int idEnd = line.indexOf(' ');
+            id = idEnd > 1 && idEnd <= 19 ? parseLongDigits(line, 1, idEnd) : -1;
+            if (id <= 0) {
+                throw new CodyException("Invalid task id being read from file. I'm trying to read this line: " + line);
+            }
+            start = idEnd + 1;
+        }
+        boolean hasType = line.length() >= start + 3 && line.charAt(start) == '[' && line.charAt(start + 2) == ']';
+        Task task;
+        switch (hasType ? line.charAt(start + 1) : 0) {
+        case 'T':
+            task = decodeToDo(line, start);
+            break;
+        case 'D':
+            task = decodeDeadline(line, start);
+            break;
+        case 'E':
+            task = decodeEvent(line, start);
+            break;
+        default:
+            throw new CodyException("Unknown task type being read from file. I'm trying to read this line: " + line);
+        }
+        task.id = id;
+        return task;
+    }
+
+    /**
+     * Converts a {@code [T][X] task description} line into a {@code ToDo}.
+     *
+     * @param line the line to decode.
+     * @return the decoded todo task.
+     * @throws CodyException if the line is not a valid todo line.
+     */
+    public static ToDo decodeToDo(String line) throws CodyException {
+        return decodeToDo(line, 0);
+    }
+
+    private static ToDo decodeToDo(String line, int start) throws CodyException {
+        int descriptionStart = start + PREFIX_LENGTH;
+        if (!hasPrefix(line, start, 'T') || line.length() == descriptionStart) {
+            throw new CodyException("Unable to read ToDo from file: " + line);
+        }
+        boolean isDone = decodeStatus(line, start, "ToDo");
+        return new ToDo(line.substring(descriptionStart), isDone);
+    }
+
+    /**
+     * Converts a {@code [D][X] task description (by: yyyy-mm-dd)} line into a {@code Deadline}.
+     *
+     * @param line the line to decode.
+     * @return the decoded deadline task.
+     * @throws CodyException if the line is not a valid deadline line.
+     * @throws java.time.format.DateTimeParseException if the date is invalid.
+     */
+    public static Deadline decodeDeadline(String line) throws CodyException {
+        return decodeDeadline(line, 0);
+    }
+
+    private static Deadline decodeDeadline(String line, int start) throws CodyException {
+        int descriptionStart = start + PREFIX_LENGTH;
+        int end = line.length() - 1;
+        int separator = line.lastIndexOf(DEADLINE_SEPARATOR, end);
+        int dateStart = separator + DEADLINE_SEPARATOR.length();
+        if (!hasPrefix(line, start, 'D') || line.charAt(end) != ')' || separator <= descriptionStart
+                || dateStart >= end) {
+            throw new CodyException("Unable to read Deadline from file: " + line);
+        }
+        boolean isDone = decodeStatus(line, start, "Deadline");
+        LocalDate endDate = parseDate(line, dateStart, end);
+        return new Deadline(line.substring(descriptionStart, separator), endDate, isDone);
+    }
+
+    /**
+     * Converts a {@code [E][X] task description (from: yyyy-mm-dd to: yyyy-mm-dd)} line into an {@code Event}.
+     *
+     * @param line the line to decode.
+     * @return the decoded event task.
+     * @throws CodyException if the line is not a valid event line.
+     * @throws java.time.format.DateTimeParseException if a date is invalid.
+     */
+    public static Event decodeEvent(String line) throws CodyException {
+        return decodeEvent(line, 0);
+    }
+
+    private static Event decodeEvent(String line, int start) throws CodyException {
+        int descriptionStart = start + PREFIX_LENGTH;
+        int end = line.length() - 1;
+        int startSeparator = line.lastIndexOf(EVENT_START_SEPARATOR, end);
+        int startDateStart = startSeparator + EVENT_START_SEPARATOR.length();
+        int endSeparator = line.lastIndexOf(EVENT_END_SEPARATOR, end);
+        int endDateStart = endSeparator + EVENT_END_SEPARATOR.length();
+        if (!hasPrefix(line, start, 'E') || line.charAt(end) != ')' || startSeparator <= descriptionStart
+                || endSeparator <= startDateStart || endDateStart >= end) {
+            throw new CodyException("Unable to read Event from file: " + line);
+        }
+        boolean isDone = decodeStatus(line, start, "Event");
+        LocalDate startDate = parseDate(line, startDateStart, endSeparator);
+        LocalDate endDate = parseDate(line, endDateStart, end);
+        return new Event(line.substring(descriptionStart, startSeparator), startDate, endDate, isDone);
+    }
+
+    /**
+     * Returns the line that represents the given task in the storage file.
+     *
+     * @param task the task to encode.
+     * @return the encoded task, without a line terminator.
+     */
+    public static String encode(Task task) {
+        StringBuilder builder = new StringBuilder(task.description.length() + 68);
+        encode(task, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the line that represents the given task in the storage file to a builder.
+     *
+     * @param task the task to encode.
+     * @param builder the builder to append to; no line terminator is appended.
+     */
+    public static void encode(Task task, StringBuilder builder) {
+        if (task.id > 0) {
+            builder.append(ID_MARKER).append(task.id).append(' ');
+        }
+        encodeContents(task, builder);
+    }
+
+    /**
+     * Returns the line that represents the given task without its id, which is the same for
+     * every task equal to it. Unlike the task, the returned text does not change when the task is marked.
+     *
+     * @param task the task to encode.
+     * @return the encoded task without its id.
+     */
+    public static String encodeContents(Task task) {
+        StringBuilder builder = new StringBuilder(task.description.length() + 48);
+        encodeContents(task, builder);
+        return builder.toString();
+    }
+
+    private static void encodeContents(Task task, StringBuilder builder) {
+        char type = task instanceof Deadline ? 'D' : task instanceof Event ? 'E' : 'T';
+        builder.append('[').append(type).append("][").append(task.isDone ? 'X' : ' ').append("] ")
+                .append(task.description);
+        if (task instanceof Deadline) {
+            builder.append(DEADLINE_SEPARATOR);
+            appendDate(((Deadline) task).endDate, builder);
+            builder.append(')');
+        } else if (task instanceof Event) {
+            builder.append(EVENT_START_SEPARATOR);
+            appendDate(((Event) task).startDate, builder);
+            builder.append(EVENT_END_SEPARATOR);
+            appendDate(((Event) task).endDate, builder);
+            builder.append(')');
+        }
+    }
+
+    private static boolean hasPrefix(String line, int start, char type) {
+        return line.length() >= start + PREFIX_LENGTH
+                && line.charAt(start) == '[' && line.charAt(start + 1) == type && line.charAt(start + 2) == ']'
+                && line.charAt(start + 3) == '[' && line.charAt(start + 5) == ']' && line.charAt(start + 6) == ' ';
+    }
+
+    private static boolean decodeStatus(String line, int start, String taskType) throws CodyException {
+        char status = line.charAt(start + 4);
+        if (status == ' ') {
+            return false;
+        } else if (status == 'X') {
+            return true;
+        } else {
+            throw new CodyException("Unknown " + taskType + " status symbol.");
+        }
+    }
+
+    /**
+     * Parses the ISO date in {@code line} between {@code start} (inclusive) and {@code end} (exclusive).
+     */
+    private static LocalDate parseDate(String line, int start, int end) {
+        if (end - start == 10 && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-') {
+            int year = parseDigits(line, start, start + 4);
+            int month = parseDigits(line, start + 5, start + 7);
+            int day = parseDigits(line, start + 8, start + 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // fall through so the error is reported by LocalDate.parse
+                }
+            }
+        }
+        return LocalDate.parse(line.substring(start, end));
+    }
+
+    /** Returns the value of the decimal digits in the given range, or -1 if there is a non-digit. */
+    private static int parseDigits(String line, int start, int end) {
+        return (int) parseLongDigits(line, start, end);
+    }
+
+    /** Returns the value of at most 18 decimal digits in the given range, or -1 if there is a non-digit. */
+    private static long parseLongDigits(String line, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void appendDate(LocalDate date, StringBuilder builder) {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            builder.append(date);
+            return;
+        }
+        builder.append(year).append('-');
+        appendTwoDigits(date.getMonthValue(), builder);
+        builder.append('-');
+        appendTwoDigits(date.getDayOfMonth(), builder);
+    }
+
+    private static void appendTwoDigits(int value, StringBuilder builder) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
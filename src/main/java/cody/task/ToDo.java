@@ -1,8 +1,5 @@
 package cody.task;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import cody.exception.CodyException;
 
 /**
@@ -49,23 +46,7 @@ public class ToDo extends Task {
      * @throws CodyException if the string does not match the expected format or contains an unknown status symbol.
      */
     public static ToDo convertStringToTask(String string) throws CodyException {
-        String regex = "\\[T\\]\\[(.)] (.+)"; // (.) and (.+) represents regex groups
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(string);
-
-        if (matcher.find()) {
-            String description = matcher.group(2);
-            String isDoneString = matcher.group(1);
-            if (isDoneString.equals(" ")) {
-                return new ToDo(description, false);
-            } else if (isDoneString.equals("X")) {
-                return new ToDo(description, true);
-            } else {
-                throw new CodyException("Unknown ToDo status symbol.");
-            }
-        } else {
-            throw new CodyException("Regex match unsuccessful when reading ToDo from file.");
-        }
+        return TaskCodec.decodeToDo(string);
     }
 
     /**
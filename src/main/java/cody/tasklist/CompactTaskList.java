@@ -0,0 +1,677 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import cody.exception.CodyException;
+import cody.metrics.Metrics;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+/**
+ * A {@link TaskList} that keeps its tasks in arrays of primitives instead of as objects,
+ * for lists of millions of tasks.
+ *
+ * <p>Each task takes one slot in a set of parallel arrays: its type, its id, the epoch days of its
+ * dates, and the position and length of its description in a shared array of UTF-8 bytes. Whether
+ * each task is done is kept in a {@link BitSet}. The {@link Task} objects returned by {@link #get(int)}
+ * and the queries are made from these arrays when they are asked for, and are copies: changing one
+ * does not change the list.</p>
+ *
+ * <p>Instead of the duplicate, word, date and order indexes of {@link TaskList}, which hold several objects
+ * per task, duplicates are found with an open addressing hash table of task ids, and the queries scan
+ * the arrays. They return the same tasks in the same order, but take time proportional to the number
+ * of tasks. In a list of a million short tasks, each task takes about a tenth of the memory it does
+ * in a {@link TaskList}.</p>
+ */
+public class CompactTaskList extends TaskList {
+
+    private static final byte TYPE_TODO = 'T';
+    private static final byte TYPE_DEADLINE = 'D';
+    private static final byte TYPE_EVENT = 'E';
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Unused description bytes above which the description array is compacted, if they are also most of it. */
+    private static final int MIN_UNUSED_DESCRIPTION_BYTES = 64 * 1024;
+
+    private int taskCount;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] startDays = new int[INITIAL_CAPACITY];
+    private int[] endDays = new int[INITIAL_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    private final BitSet doneTasks = new BitSet();
+
+    /** The descriptions of every task, one after the other, including those of tasks since removed. */
+    private byte[] descriptions = new byte[INITIAL_CAPACITY * 32];
+    private int descriptionsEnd;
+    private int unusedDescriptionBytes;
+
+    /**
+     * Open addressing hash table of the ids of the tasks, placed by the hash of their contents,
+     * with linear probing. An empty slot holds id 0. The hash of the task in each slot is kept
+     * alongside, so most slots can be skipped without finding their task.
+     */
+    private long[] hashedIds = new long[INITIAL_CAPACITY * 2];
+    private int[] hashes = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * Creates a CompactTaskList backed by the given storage backend,
+     * loading any tasks that were persisted previously.
+     *
+     * @param storage the backend that persists every mutation of this list
+     * @throws IOException if an error occurs while reading from storage
+     * @throws CodyException if a parsing error occurs while loading existing tasks
+     */
+    public CompactTaskList(TaskStorage storage) throws IOException, CodyException {
+        super(storage, false);
+        long startNanos = Metrics.startTimer();
+        List<Task> loadedTasks = loadExistingTasks();
+        ensureCapacity(loadedTasks.size());
+        for (Task task : loadedTasks) {
+            append(task);
+        }
+        Metrics.recordLoad(startNanos, this.taskCount);
+    }
+
+    @Override
+    public int size() {
+        return this.taskCount;
+    }
+
+    /**
+     * Returns a copy of the task at the specified index.
+     *
+     * @param taskNumber the index of the task (0-based)
+     * @return a new task with the contents of the task at the given index
+     */
+    @Override
+    public Task get(int taskNumber) {
+        if (taskNumber < 0 || taskNumber >= this.taskCount) {
+            throw new IndexOutOfBoundsException("Index " + taskNumber + " out of bounds for length " + this.taskCount);
+        }
+        String description = new String(this.descriptions, this.descriptionOffsets[taskNumber],
+                this.descriptionLengths[taskNumber], StandardCharsets.UTF_8);
+        boolean isDone = this.doneTasks.get(taskNumber);
+        LocalDate endDate = LocalDate.ofEpochDay(this.endDays[taskNumber]);
+        Task task;
+        switch (this.types[taskNumber]) {
+        case TYPE_DEADLINE:
+            task = new Deadline(description, endDate, isDone);
+            break;
+        case TYPE_EVENT:
+            task = new Event(description, LocalDate.ofEpochDay(this.startDays[taskNumber]), endDate, isDone);
+            break;
+        default:
+            task = new ToDo(description, isDone);
+            break;
+        }
+        task.setId(this.ids[taskNumber]);
+        return task;
+    }
+
+    @Override
+    public Task getById(long id) {
+        int index = indexOfId(id);
+        return index < 0 ? null : get(index);
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        int index = Arrays.binarySearch(this.ids, 0, this.taskCount, id);
+        return index < 0 ? -1 : index;
+    }
+
+    @Override
+    public boolean contains(Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte type = typeOf(task);
+        int startDay = startDayOf(task);
+        int endDay = endDayOf(task);
+        int hash = hash(type, task.isDone(), startDay, endDay, description, 0, description.length);
+        int mask = this.hashedIds.length - 1;
+        for (int slot = hash & mask; this.hashedIds[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.hashes[slot] != hash) {
+                continue;
+            }
+            int index = indexOfId(this.hashedIds[slot]);
+            if (this.types[index] == type && this.doneTasks.get(index) == task.isDone()
+                    && this.startDays[index] == startDay && this.endDays[index] == endDay
+                    && Arrays.equals(this.descriptions, this.descriptionOffsets[index],
+                            this.descriptionOffsets[index] + this.descriptionLengths[index],
+                            description, 0, description.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void add(Task task) throws IOException, CodyException {
+        if (contains(task)) {
+            throw new CodyException("This task already exists!");
+        }
+        task.setId(this.nextId++);
+        persist(StorageOperation.add(task));
+        append(task);
+        this.undoLog.record(StorageOperation.remove(this.taskCount - 1));
+    }
+
+    @Override
+    public int addAll(List<? extends Task> newTasks) throws IOException {
+        HashSet<Task> batch = new HashSet<>();
+        List<StorageOperation> operations = new ArrayList<>();
+        for (Task task : newTasks) {
+            if (!contains(task) && batch.add(task)) {
+                task.setId(this.nextId++);
+                operations.add(StorageOperation.add(task));
+            }
+        }
+        if (operations.isEmpty()) {
+            return 0;
+        }
+        persistAll(operations);
+        ensureCapacity(this.taskCount + operations.size());
+        List<StorageOperation> inverses = new ArrayList<>(operations.size());
+        for (StorageOperation operation : operations) {
+            append(operation.getTask());
+            inverses.add(StorageOperation.remove(this.taskCount - 1));
+        }
+        this.undoLog.record(inverses);
+        return operations.size();
+    }
+
+    @Override
+    public Task remove(int taskIndex) throws IOException {
+        assert taskIndex >= 0 && taskIndex < this.taskCount : "taskIndex is out of range";
+        persist(StorageOperation.remove(taskIndex));
+        Task removedTask = get(taskIndex);
+        removeSlots(new int[] { taskIndex });
+        this.undoLog.record(StorageOperation.insert(taskIndex, removedTask));
+        return removedTask;
+    }
+
+    @Override
+    public void insert(int taskIndex, Task task) throws IOException {
+        assert taskIndex >= 0 && taskIndex <= this.taskCount : "taskIndex is out of range";
+        assert taskIndex == 0 || this.ids[taskIndex - 1] < task.getId() : "ids should stay in list order";
+        assert taskIndex == this.taskCount || this.ids[taskIndex] > task.getId() : "ids should stay in list order";
+        persist(StorageOperation.insert(taskIndex, task));
+        append(task);
+        moveLastSlotTo(taskIndex);
+        this.undoLog.record(StorageOperation.remove(taskIndex));
+    }
+
+    @Override
+    public List<Task> removeAll(int[] taskIndices) throws IOException {
+        if (taskIndices.length == 0) {
+            return new ArrayList<>();
+        }
+        List<StorageOperation> operations = new ArrayList<>(taskIndices.length);
+        for (int i = taskIndices.length - 1; i >= 0; i--) {
+            assert i == 0 || taskIndices[i - 1] < taskIndices[i] : "taskIndices should be increasing";
+            operations.add(StorageOperation.remove(taskIndices[i]));
+        }
+        persistAll(operations);
+
+        List<Task> removedTasks = new ArrayList<>(taskIndices.length);
+        for (int taskIndex : taskIndices) {
+            removedTasks.add(get(taskIndex));
+        }
+        removeSlots(taskIndices);
+
+        List<StorageOperation> inverses = new ArrayList<>(taskIndices.length);
+        for (int i = taskIndices.length - 1; i >= 0; i--) {
+            inverses.add(StorageOperation.insert(taskIndices[i], removedTasks.get(i)));
+        }
+        this.undoLog.record(inverses);
+        return removedTasks;
+    }
+
+    @Override
+    public List<Task> markAll(int[] taskIndices, boolean isDone) throws IOException {
+        List<Task> markedTasks = new ArrayList<>(taskIndices.length);
+        List<StorageOperation> operations = new ArrayList<>();
+        List<StorageOperation> inverses = new ArrayList<>();
+        for (int taskIndex : taskIndices) {
+            if (this.doneTasks.get(taskIndex) != isDone) {
+                setDone(taskIndex, isDone);
+                operations.add(StorageOperation.update(taskIndex, get(taskIndex)));
+                inverses.add(StorageOperation.mark(taskIndex, !isDone));
+            }
+            markedTasks.add(get(taskIndex));
+        }
+        persistAll(operations);
+        this.undoLog.record(inverses);
+        return markedTasks;
+    }
+
+    @Override
+    public void markTaskAsDone(int taskIndex) throws IOException {
+        assert taskIndex >= 0 && taskIndex < this.taskCount : "taskIndex is out of range";
+        boolean wasDone = this.doneTasks.get(taskIndex);
+        setDone(taskIndex, true);
+        persist(StorageOperation.update(taskIndex, get(taskIndex)));
+        this.undoLog.record(StorageOperation.mark(taskIndex, wasDone));
+    }
+
+    @Override
+    public void markTaskAsNotDone(int taskIndex) throws IOException {
+        assert taskIndex >= 0 && taskIndex < this.taskCount : "taskIndex is out of range";
+        boolean wasDone = this.doneTasks.get(taskIndex);
+        setDone(taskIndex, false);
+        persist(StorageOperation.update(taskIndex, get(taskIndex)));
+        this.undoLog.record(StorageOperation.mark(taskIndex, wasDone));
+    }
+
+    /**
+     * Returns the tasks whose description contains every word of the search string, in list order,
+     * by searching the UTF-8 bytes of every description.
+     *
+     * @param searchString one or more words separated by whitespace
+     * @return the matching tasks
+     */
+    @Override
+    public ArrayList<Task> getTasksMatchingDescription(String searchString) {
+        Set<String> queryWords = searchString.isBlank() ? Set.of(searchString)
+                : DescriptionIndex.splitIntoWords(searchString);
+        List<byte[]> words = new ArrayList<>(queryWords.size());
+        for (String word : queryWords) {
+            words.add(word.getBytes(StandardCharsets.UTF_8));
+        }
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = 0; i < this.taskCount; i++) {
+            if (containsEveryWord(i, words)) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public ArrayList<Task> getTasksDueBy(LocalDate date) {
+        long day = date.toEpochDay();
+        long[] keys = new long[16];
+        int matchCount = 0;
+        for (int i = 0; i < this.taskCount; i++) {
+            if (this.types[i] != TYPE_TODO && !this.doneTasks.get(i) && this.endDays[i] <= day) {
+                keys = appendKey(keys, matchCount++, i);
+            }
+        }
+        return getSortedByEndDay(keys, matchCount);
+    }
+
+    @Override
+    public ArrayList<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        long[] keys = new long[16];
+        int matchCount = 0;
+        for (int i = 0; i < this.taskCount; i++) {
+            if (this.types[i] == TYPE_TODO || this.endDays[i] < fromDay) {
+                continue;
+            }
+            int startDay = this.types[i] == TYPE_EVENT ? this.startDays[i] : this.endDays[i];
+            if (startDay <= toDay) {
+                keys = appendKey(keys, matchCount++, i);
+            }
+        }
+        return getSortedByEndDay(keys, matchCount);
+    }
+
+    /**
+     * Returns a range of the tasks in the given order. Instead of keeping an order index, the status
+     * and type orders are read by scanning the arrays once per key, stopping at the end of the range,
+     * and the date order sorts the dated tasks.
+     *
+     * @param order the order to list the tasks in
+     * @param offset the number of tasks to skip from the start of the order
+     * @param limit the most tasks to return
+     * @return the tasks, in order
+     */
+    @Override
+    public List<Task> getTasksSortedBy(TaskOrder order, int offset, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 64));
+        switch (order) {
+        case DATE:
+            long[] keys = new long[16];
+            int keyCount = 0;
+            for (int i = 0; i < this.taskCount; i++) {
+                if (this.types[i] != TYPE_TODO) {
+                    keys = appendKey(keys, keyCount++, i);
+                }
+            }
+            Arrays.sort(keys, 0, keyCount);
+            for (int i = offset; i < keyCount && page.size() < limit; i++) {
+                page.add(get((int) keys[i]));
+            }
+            appendMatching(page, Math.max(0, offset - keyCount), limit, i -> this.types[i] == TYPE_TODO);
+            break;
+        case STATUS:
+            int skipped = appendMatching(page, offset, limit, i -> !this.doneTasks.get(i));
+            appendMatching(page, offset - skipped, limit, this.doneTasks::get);
+            break;
+        default:
+            int remainingOffset = offset;
+            for (byte type : new byte[] { TYPE_TODO, TYPE_DEADLINE, TYPE_EVENT }) {
+                remainingOffset -= appendMatching(page, remainingOffset, limit, i -> this.types[i] == type);
+            }
+            break;
+        }
+        return page;
+    }
+
+    /**
+     * Adds the tasks matching a condition to a page, in list order, after skipping the first
+     * {@code offset} of them and until the page holds {@code limit} tasks.
+     *
+     * @return the number of matching tasks skipped
+     */
+    private int appendMatching(List<Task> page, int offset, int limit, IntPredicate isMatching) {
+        int skipped = 0;
+        for (int i = 0; i < this.taskCount && page.size() < limit; i++) {
+            if (!isMatching.test(i)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(get(i));
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Adds a sort key made of a task's end day and then its index, growing the array if needed.
+     */
+    private long[] appendKey(long[] keys, int keyCount, int taskIndex) {
+        long[] grownKeys = keyCount == keys.length ? Arrays.copyOf(keys, keyCount * 2) : keys;
+        grownKeys[keyCount] = ((long) this.endDays[taskIndex] << 32) | taskIndex;
+        return grownKeys;
+    }
+
+    /**
+     * Returns the tasks of the given sort keys ordered by end day, and by index for the same end day,
+     * as the date index orders them.
+     */
+    private ArrayList<Task> getSortedByEndDay(long[] keys, int keyCount) {
+        Arrays.sort(keys, 0, keyCount);
+        ArrayList<Task> sortedTasks = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            sortedTasks.add(get((int) keys[i]));
+        }
+        return sortedTasks;
+    }
+
+    private boolean containsEveryWord(int taskIndex, List<byte[]> words) {
+        int start = this.descriptionOffsets[taskIndex];
+        int end = start + this.descriptionLengths[taskIndex];
+        for (byte[] word : words) {
+            if (indexOf(this.descriptions, start, end, word) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of {@code target} in {@code bytes} between {@code start} and {@code end}, or -1.
+     */
+    private static int indexOf(byte[] bytes, int start, int end, byte[] target) {
+        int last = end - target.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a task to the end of the arrays and the hash table.
+     */
+    private void append(Task task) {
+        ensureCapacity(this.taskCount + 1);
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int index = this.taskCount++;
+        this.types[index] = typeOf(task);
+        this.ids[index] = task.getId();
+        this.startDays[index] = startDayOf(task);
+        this.endDays[index] = endDayOf(task);
+        this.doneTasks.set(index, task.isDone());
+        ensureDescriptionCapacity(description.length);
+        System.arraycopy(description, 0, this.descriptions, this.descriptionsEnd, description.length);
+        this.descriptionOffsets[index] = this.descriptionsEnd;
+        this.descriptionLengths[index] = description.length;
+        this.descriptionsEnd += description.length;
+        addToHashTable(index);
+    }
+
+    /**
+     * Removes the tasks at the given indices from the arrays and the hash table,
+     * moving the tasks after the first of them down in a single pass.
+     *
+     * @param taskIndices the indices to remove, in increasing order without repeats
+     */
+    private void removeSlots(int[] taskIndices) {
+        for (int taskIndex : taskIndices) {
+            removeFromHashTable(taskIndex);
+            this.unusedDescriptionBytes += this.descriptionLengths[taskIndex];
+        }
+        int next = 0;
+        int kept = taskIndices[0];
+        for (int i = kept; i < this.taskCount; i++) {
+            if (next < taskIndices.length && taskIndices[next] == i) {
+                next++;
+                continue;
+            }
+            this.types[kept] = this.types[i];
+            this.ids[kept] = this.ids[i];
+            this.startDays[kept] = this.startDays[i];
+            this.endDays[kept] = this.endDays[i];
+            this.descriptionOffsets[kept] = this.descriptionOffsets[i];
+            this.descriptionLengths[kept] = this.descriptionLengths[i];
+            this.doneTasks.set(kept, this.doneTasks.get(i));
+            kept++;
+        }
+        this.doneTasks.clear(kept, this.taskCount);
+        this.taskCount = kept;
+        if (this.unusedDescriptionBytes > MIN_UNUSED_DESCRIPTION_BYTES
+                && this.unusedDescriptionBytes > this.descriptionsEnd / 2) {
+            compactDescriptions();
+        }
+    }
+
+    /**
+     * Moves the task in the last slot to the given index, moving the tasks from that index on up by one.
+     * The hash table holds ids rather than indices, so it is left as it is.
+     */
+    private void moveLastSlotTo(int taskIndex) {
+        int last = this.taskCount - 1;
+        byte type = this.types[last];
+        long id = this.ids[last];
+        int startDay = this.startDays[last];
+        int endDay = this.endDays[last];
+        int descriptionOffset = this.descriptionOffsets[last];
+        int descriptionLength = this.descriptionLengths[last];
+        boolean isDone = this.doneTasks.get(last);
+        int movedCount = last - taskIndex;
+        System.arraycopy(this.types, taskIndex, this.types, taskIndex + 1, movedCount);
+        System.arraycopy(this.ids, taskIndex, this.ids, taskIndex + 1, movedCount);
+        System.arraycopy(this.startDays, taskIndex, this.startDays, taskIndex + 1, movedCount);
+        System.arraycopy(this.endDays, taskIndex, this.endDays, taskIndex + 1, movedCount);
+        System.arraycopy(this.descriptionOffsets, taskIndex, this.descriptionOffsets, taskIndex + 1, movedCount);
+        System.arraycopy(this.descriptionLengths, taskIndex, this.descriptionLengths, taskIndex + 1, movedCount);
+        for (int i = last; i > taskIndex; i--) {
+            this.doneTasks.set(i, this.doneTasks.get(i - 1));
+        }
+        this.types[taskIndex] = type;
+        this.ids[taskIndex] = id;
+        this.startDays[taskIndex] = startDay;
+        this.endDays[taskIndex] = endDay;
+        this.descriptionOffsets[taskIndex] = descriptionOffset;
+        this.descriptionLengths[taskIndex] = descriptionLength;
+        this.doneTasks.set(taskIndex, isDone);
+    }
+
+    private void setDone(int taskIndex, boolean isDone) {
+        removeFromHashTable(taskIndex);
+        this.doneTasks.set(taskIndex, isDone);
+        addToHashTable(taskIndex);
+    }
+
+    /**
+     * Copies the descriptions of the tasks still in the list into a new array, leaving out those of removed tasks.
+     */
+    private void compactDescriptions() {
+        int usedBytes = this.descriptionsEnd - this.unusedDescriptionBytes;
+        byte[] compacted = new byte[Math.max(INITIAL_CAPACITY * 32, usedBytes)];
+        int end = 0;
+        for (int i = 0; i < this.taskCount; i++) {
+            System.arraycopy(this.descriptions, this.descriptionOffsets[i], compacted, end, this.descriptionLengths[i]);
+            this.descriptionOffsets[i] = end;
+            end += this.descriptionLengths[i];
+        }
+        this.descriptions = compacted;
+        this.descriptionsEnd = end;
+        this.unusedDescriptionBytes = 0;
+    }
+
+    private void addToHashTable(int taskIndex) {
+        if ((this.taskCount + 1) * 2 > this.hashedIds.length) {
+            growHashTable();
+        }
+        int hash = hashOf(taskIndex);
+        int mask = this.hashedIds.length - 1;
+        int slot = hash & mask;
+        while (this.hashedIds[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.hashedIds[slot] = this.ids[taskIndex];
+        this.hashes[slot] = hash;
+    }
+
+    /**
+     * Removes a task from the hash table, moving back any later tasks in its probe sequence
+     * that would otherwise no longer be found.
+     */
+    private void removeFromHashTable(int taskIndex) {
+        long id = this.ids[taskIndex];
+        int mask = this.hashedIds.length - 1;
+        int hole = hashOf(taskIndex) & mask;
+        while (this.hashedIds[hole] != id) {
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask; this.hashedIds[slot] != 0; slot = (slot + 1) & mask) {
+            int home = this.hashes[slot] & mask;
+            // a task can move back to the hole unless its home slot lies cyclically after the hole
+            boolean isHomeAfterHole = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!isHomeAfterHole) {
+                this.hashedIds[hole] = this.hashedIds[slot];
+                this.hashes[hole] = this.hashes[slot];
+                hole = slot;
+            }
+        }
+        this.hashedIds[hole] = 0;
+    }
+
+    private void growHashTable() {
+        long[] oldIds = this.hashedIds;
+        int[] oldHashes = this.hashes;
+        this.hashedIds = new long[oldIds.length * 2];
+        this.hashes = new int[oldIds.length * 2];
+        int mask = this.hashedIds.length - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == 0) {
+                continue;
+            }
+            int slot = oldHashes[i] & mask;
+            while (this.hashedIds[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.hashedIds[slot] = oldIds[i];
+            this.hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private int hashOf(int taskIndex) {
+        return hash(this.types[taskIndex], this.doneTasks.get(taskIndex), this.startDays[taskIndex],
+                this.endDays[taskIndex], this.descriptions, this.descriptionOffsets[taskIndex],
+                this.descriptionLengths[taskIndex]);
+    }
+
+    private static int hash(byte type, boolean isDone, int startDay, int endDay, byte[] description, int offset,
+            int length) {
+        int hash = 31 * type + (isDone ? 1 : 0);
+        hash = 31 * hash + startDay;
+        hash = 31 * hash + endDay;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + description[i];
+        }
+        // spread the high bits into the low bits used to pick a slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte typeOf(Task task) {
+        return task instanceof Deadline ? TYPE_DEADLINE : task instanceof Event ? TYPE_EVENT : TYPE_TODO;
+    }
+
+    /**
+     * Returns the start day of an event, or 0 for other tasks.
+     */
+    private static int startDayOf(Task task) {
+        return task instanceof Event ? Math.toIntExact(((Event) task).getStartDate().toEpochDay()) : 0;
+    }
+
+    /**
+     * Returns the end day of a deadline or event, or 0 for a todo.
+     */
+    private static int endDayOf(Task task) {
+        if (task instanceof Deadline) {
+            return Math.toIntExact(((Deadline) task).getEndDate().toEpochDay());
+        }
+        return task instanceof Event ? Math.toIntExact(((Event) task).getEndDate().toEpochDay()) : 0;
+    }
+
+    private void ensureCapacity(int requiredCount) {
+        if (requiredCount <= this.types.length) {
+            return;
+        }
+        int capacity = Math.max(requiredCount, this.types.length + this.types.length / 2);
+        this.types = Arrays.copyOf(this.types, capacity);
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.startDays = Arrays.copyOf(this.startDays, capacity);
+        this.endDays = Arrays.copyOf(this.endDays, capacity);
+        this.descriptionOffsets = Arrays.copyOf(this.descriptionOffsets, capacity);
+        this.descriptionLengths = Arrays.copyOf(this.descriptionLengths, capacity);
+    }
+
+    private void ensureDescriptionCapacity(int additionalBytes) {
+        long required = (long) this.descriptionsEnd + additionalBytes;
+        if (required <= this.descriptions.length) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Task descriptions cannot take up more than 2 GB");
+        }
+        long capacity = Math.min(Integer.MAX_VALUE - 8, Math.max(required, (long) this.descriptions.length * 2));
+        this.descriptions = Arrays.copyOf(this.descriptions, (int) capacity);
+    }
+}
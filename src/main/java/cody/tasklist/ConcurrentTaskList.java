@@ -0,0 +1,403 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+
+/**
+ * A {@link TaskList} that can be shared between threads.
+ *
+ * <p>Changes are made one at a time under a lock, by whichever thread makes them, and written to
+ * storage before the lock is released. After every change, the tasks are published as an immutable
+ * snapshot through a volatile field. Reads such as {@link #size()}, {@link #get(int)} and the
+ * queries only look at the latest snapshot, so they never wait for a change, however slow its
+ * storage write.</p>
+ *
+ * <p>Snapshots are cheap to publish when tasks are only added: the new snapshot shares the array of
+ * the old one, since slots that have been published are never written again. Any other change copies
+ * the array, which costs about as much as the shifting an {@link ArrayList} already does to remove a
+ * task. Marking a task changes the task itself, so a snapshot may show a task as done even if it was
+ * taken before the task was marked.</p>
+ *
+ * <p>The word and date indexes of {@link TaskList} are not safe to read while they are being changed,
+ * so the queries here scan the snapshot instead. They return the same tasks in the same order, but
+ * take time proportional to the number of tasks.</p>
+ */
+public class ConcurrentTaskList extends TaskList {
+
+    /** Taken by every change, so that changes and their storage writes happen one at a time. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a ConcurrentTaskList backed by the given storage backend,
+     * loading any tasks that were persisted previously.
+     *
+     * @param storage the backend that persists every mutation of this list
+     * @throws IOException if an error occurs while reading from storage
+     * @throws CodyException if a parsing error occurs while loading existing tasks
+     */
+    public ConcurrentTaskList(TaskStorage storage) throws IOException, CodyException {
+        super(storage);
+        publishCopy();
+    }
+
+    /**
+     * Returns the tasks as they were after the latest change, as a list that never changes.
+     * Use this instead of calling {@link #size()} and {@link #get(int)} separately when
+     * several reads have to agree with each other, such as when listing every task.
+     *
+     * @return an unmodifiable view of the latest snapshot
+     */
+    public List<Task> getSnapshot() {
+        return this.snapshot;
+    }
+
+    @Override
+    public int size() {
+        return this.snapshot.size();
+    }
+
+    @Override
+    public Task get(int taskNumber) {
+        return this.snapshot.get(taskNumber);
+    }
+
+    /**
+     * Returns the task with the given id, found by a binary search of the latest snapshot,
+     * since the id map of {@link TaskList} is not safe to read while it is being changed.
+     *
+     * @param id the id of the task
+     * @return the task, or {@code null} if no task in the list has that id
+     */
+    @Override
+    public Task getById(long id) {
+        Snapshot tasks = this.snapshot;
+        int index = indexOfId(tasks, id);
+        return index < 0 ? null : tasks.get(index);
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        return indexOfId(this.snapshot, id);
+    }
+
+    /**
+     * Returns whether a task equal to the given task is in the list.
+     * This waits for any change in progress, since it reads the duplicate index.
+     *
+     * @param task the task to look for
+     * @return true if an equal task is in the list
+     */
+    @Override
+    public boolean contains(Task task) {
+        this.writeLock.lock();
+        try {
+            return super.contains(task);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void add(Task task) throws IOException, CodyException {
+        this.writeLock.lock();
+        try {
+            super.add(task);
+            publishAppended();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int addAll(List<? extends Task> newTasks) throws IOException {
+        this.writeLock.lock();
+        try {
+            int addedCount = super.addAll(newTasks);
+            publishAppended();
+            return addedCount;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Task remove(int taskIndex) throws IOException {
+        this.writeLock.lock();
+        try {
+            Task removedTask = super.remove(taskIndex);
+            publishCopy();
+            return removedTask;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void insert(int taskIndex, Task task) throws IOException {
+        this.writeLock.lock();
+        try {
+            super.insert(taskIndex, task);
+            publishCopy();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> removeAll(int[] taskIndices) throws IOException {
+        this.writeLock.lock();
+        try {
+            List<Task> removedTasks = super.removeAll(taskIndices);
+            publishCopy();
+            return removedTasks;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> markAll(int[] taskIndices, boolean isDone) throws IOException {
+        this.writeLock.lock();
+        try {
+            return super.markAll(taskIndices, isDone);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void markTaskAsDone(int taskIndex) throws IOException {
+        this.writeLock.lock();
+        try {
+            super.markTaskAsDone(taskIndex);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void markTaskAsNotDone(int taskIndex) throws IOException {
+        this.writeLock.lock();
+        try {
+            super.markTaskAsNotDone(taskIndex);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reverses the most recent change, holding the lock for the whole change, so that no other
+     * change can come between its operations.
+     *
+     * @return the number of tasks added, removed or marked by the change, or 0 if there is nothing to undo
+     * @throws IOException if an error occurs while updating storage
+     */
+    @Override
+    public int undo() throws IOException {
+        this.writeLock.lock();
+        try {
+            return super.undo();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int redo() throws IOException {
+        this.writeLock.lock();
+        try {
+            return super.redo();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        this.writeLock.lock();
+        try {
+            super.beginBatch();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int flushBatch() throws IOException {
+        this.writeLock.lock();
+        try {
+            return super.flushBatch();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int endBatch() throws IOException {
+        this.writeLock.lock();
+        try {
+            return super.endBatch();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writeLock.lock();
+        try {
+            super.close();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a range of the tasks in the given order.
+     * This waits for any change in progress, since it reads the order index, but only for as long
+     * as it takes to read the range.
+     *
+     * @param order the order to list the tasks in
+     * @param offset the number of tasks to skip from the start of the order
+     * @param limit the most tasks to return
+     * @return the tasks, in order
+     */
+    @Override
+    public List<Task> getTasksSortedBy(TaskOrder order, int offset, int limit) {
+        this.writeLock.lock();
+        try {
+            return super.getTasksSortedBy(order, offset, limit);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getTasksMatchingDescription(String searchString) {
+        ArrayList<Task> matches = new ArrayList<>();
+        Snapshot tasks = this.snapshot;
+        if (searchString.isBlank()) {
+            for (Task task : tasks) {
+                if (task.getDescription().contains(searchString)) {
+                    matches.add(task);
+                }
+            }
+            return matches;
+        }
+        Set<String> queryWords = DescriptionIndex.splitIntoWords(searchString);
+        for (Task task : tasks) {
+            if (containsEveryWord(task.getDescription(), queryWords)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public ArrayList<Task> getTasksDueBy(LocalDate date) {
+        long day = date.toEpochDay();
+        ArrayList<Task> dueTasks = new ArrayList<>();
+        for (Task task : this.snapshot) {
+            if (DateIndex.isDated(task) && !task.isDone() && DateIndex.endDayOf(task) <= day) {
+                dueTasks.add(task);
+            }
+        }
+        // a stable sort keeps tasks ending on the same day in list order, as the date index does
+        dueTasks.sort(Comparator.comparingLong(DateIndex::endDayOf));
+        return dueTasks;
+    }
+
+    @Override
+    public ArrayList<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        ArrayList<Task> overlappingTasks = new ArrayList<>();
+        for (Task task : this.snapshot) {
+            if (DateIndex.isDated(task) && DateIndex.endDayOf(task) >= fromDay
+                    && DateIndex.startDayOf(task) <= toDay) {
+                overlappingTasks.add(task);
+            }
+        }
+        overlappingTasks.sort(Comparator.comparingLong(DateIndex::endDayOf));
+        return overlappingTasks;
+    }
+
+    private static boolean containsEveryWord(String description, Set<String> words) {
+        for (String word : words) {
+            if (!description.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Publishes the tasks after a change that only added tasks at the end of the list,
+     * sharing the array of the current snapshot when it has room. The slots written here
+     * are beyond the end of every snapshot published so far.
+     */
+    private void publishAppended() {
+        Snapshot current = this.snapshot;
+        int newSize = this.tasks.size();
+        if (newSize == current.size()) {
+            return;
+        }
+        if (newSize > current.tasks.length) {
+            publishCopy();
+            return;
+        }
+        for (int i = current.size(); i < newSize; i++) {
+            current.tasks[i] = this.tasks.get(i);
+        }
+        this.snapshot = new Snapshot(current.tasks, newSize);
+    }
+
+    /**
+     * Publishes the tasks in a new array, with room for more tasks to be added without copying.
+     */
+    private void publishCopy() {
+        Task[] array = this.tasks.toArray(new Task[0]);
+        this.snapshot = new Snapshot(Arrays.copyOf(array, Math.max(16, array.length + array.length / 2)),
+                array.length);
+    }
+
+    /**
+     * An unmodifiable view of the first {@code size} slots of an array of tasks.
+     * Slots below {@code size} are never written again, so the view never changes.
+     */
+    private static class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final Task[] tasks;
+        private final int size;
+
+        Snapshot(Task[] tasks, int size) {
+            this.tasks = tasks;
+            this.size = size;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+            }
+            return this.tasks[index];
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
+}
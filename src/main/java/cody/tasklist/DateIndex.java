@@ -0,0 +1,139 @@
+package cody.tasklist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+
+/**
+ * A sorted index of the dates of {@link Deadline} and {@link Event} tasks, used to answer
+ * date range queries without scanning every task.
+ * <p>
+ * Every dated task is treated as an interval of epoch days: a deadline covers only its end date,
+ * and an event covers its start date through its end date. Tasks are kept in a tree keyed on their
+ * end day, so the tasks ending in a range are found in O(log n + k). A task overlapping a range
+ * {@code [from, to]} must end on or after {@code from}, and on or before {@code to} plus the longest
+ * event duration, so overlap queries only visit that part of the tree. The longest duration is
+ * tracked with a multiset of durations so it stays correct as events are removed.
+ * <p>
+ * Within a day, tasks are kept in order of id, which is also their list order.
+ */
+class DateIndex {
+
+    /** The dated tasks ending on each epoch day. */
+    private final TreeMap<Long, List<Task>> tasksByEndDay = new TreeMap<>();
+
+    /** The number of indexed tasks spanning each number of days. */
+    private final TreeMap<Long, Integer> durationCounts = new TreeMap<>();
+
+    /**
+     * Adds a task to the index. Tasks without dates are ignored.
+     *
+     * @param task the task to add.
+     */
+    void add(Task task) {
+        if (!isDated(task)) {
+            return;
+        }
+        List<Task> tasksOnDay = this.tasksByEndDay.computeIfAbsent(endDayOf(task), key -> new ArrayList<>(1));
+        // a task is almost always added after every other, unless its removal is being undone
+        int position = tasksOnDay.size();
+        while (position > 0 && tasksOnDay.get(position - 1).getId() > task.getId()) {
+            position--;
+        }
+        tasksOnDay.add(position, task);
+        this.durationCounts.merge(endDayOf(task) - startDayOf(task), 1, Integer::sum);
+    }
+
+    /**
+     * Removes a task from the index. Tasks without dates are ignored.
+     *
+     * @param task the task to remove.
+     */
+    void remove(Task task) {
+        if (!isDated(task)) {
+            return;
+        }
+        long endDay = endDayOf(task);
+        List<Task> tasksOnDay = this.tasksByEndDay.get(endDay);
+        if (tasksOnDay == null) {
+            return;
+        }
+        for (int i = 0; i < tasksOnDay.size(); i++) {
+            // tasks are tracked by identity, since equal tasks may both be in the list
+            if (tasksOnDay.get(i) == task) {
+                tasksOnDay.remove(i);
+                this.durationCounts.computeIfPresent(endDay - startDayOf(task),
+                        (key, count) -> count == 1 ? null : count - 1);
+                break;
+            }
+        }
+        if (tasksOnDay.isEmpty()) {
+            this.tasksByEndDay.remove(endDay);
+        }
+    }
+
+    /**
+     * Returns the dated tasks that end on or before the given date, ordered by end date.
+     *
+     * @param date the last date to include.
+     * @return the matching tasks.
+     */
+    List<Task> endingOnOrBefore(LocalDate date) {
+        List<Task> matches = new ArrayList<>();
+        for (List<Task> tasksOnDay : this.tasksByEndDay.headMap(date.toEpochDay(), true).values()) {
+            matches.addAll(tasksOnDay);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the dated tasks whose dates overlap the range from {@code from} to {@code to}
+     * (both inclusive), ordered by end date.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range.
+     * @return the matching tasks.
+     */
+    List<Task> overlapping(LocalDate from, LocalDate to) {
+        List<Task> matches = new ArrayList<>();
+        if (this.durationCounts.isEmpty()) {
+            return matches;
+        }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        long lastEndDay = toDay + this.durationCounts.lastKey();
+        for (Map.Entry<Long, List<Task>> entry
+                : this.tasksByEndDay.subMap(fromDay, true, lastEndDay, true).entrySet()) {
+            for (Task task : entry.getValue()) {
+                if (startDayOf(task) <= toDay) {
+                    matches.add(task);
+                }
+            }
+        }
+        return matches;
+    }
+
+    static boolean isDated(Task task) {
+        return task instanceof Deadline || task instanceof Event;
+    }
+
+    static long startDayOf(Task task) {
+        if (task instanceof Event) {
+            return ((Event) task).getStartDate().toEpochDay();
+        }
+        return endDayOf(task);
+    }
+
+    static long endDayOf(Task task) {
+        if (task instanceof Event) {
+            return ((Event) task).getEndDate().toEpochDay();
+        }
+        return ((Deadline) task).getEndDate().toEpochDay();
+    }
+}
@@ -0,0 +1,202 @@
+package cody.tasklist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import cody.task.Task;
+
+/**
+ * An inverted index from the words in task descriptions to the tasks containing them,
+ * used to answer {@code find} queries without scanning every task.
+ * <p>
+ * Descriptions and queries are split into words at whitespace. A task matches a query if its
+ * description contains every query word as a substring. Since a query word has no whitespace, it
+ * can only occur inside a single word of the description, so the matching tasks are exactly those
+ * in the posting lists of the indexed words that contain the query word. Those indexed words are
+ * found through a second, much smaller index from each 3-character sequence to the indexed words
+ * containing it.
+ * <p>
+ * Tasks are tracked by identity, since their equality changes when they are marked or unmarked.
+ * Results are put in list order by sorting them by id, since ids increase in list order.
+ */
+class DescriptionIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    /** Matches are put in list order by walking the list once they exceed this fraction of it. */
+    private static final int LINEAR_ORDERING_RATIO = 16;
+
+    /** The tasks whose description contains each word. */
+    final HashMap<String, Set<Task>> postings = new HashMap<>();
+
+    /** The indexed words containing each sequence of {@code GRAM_LENGTH} characters. */
+    final HashMap<String, Set<String>> wordsByGram = new HashMap<>();
+
+    /**
+     * Adds a task that has been added to the list.
+     *
+     * @param task the task to add.
+     */
+    void add(Task task) {
+        for (String word : splitIntoWords(task.getDescription())) {
+            Set<Task> posting = this.postings.get(word);
+            if (posting == null) {
+                posting = Collections.newSetFromMap(new IdentityHashMap<>());
+                this.postings.put(word, posting);
+                for (String gram : gramsOf(word)) {
+                    this.wordsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(word);
+                }
+            }
+            posting.add(task);
+        }
+    }
+
+    /**
+     * Removes a task that has been removed from the list.
+     *
+     * @param task the task to remove.
+     */
+    void remove(Task task) {
+        for (String word : splitIntoWords(task.getDescription())) {
+            Set<Task> posting = this.postings.get(word);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(task);
+            if (posting.isEmpty()) {
+                this.postings.remove(word);
+                for (String gram : gramsOf(word)) {
+                    Set<String> words = this.wordsByGram.get(gram);
+                    words.remove(word);
+                    if (words.isEmpty()) {
+                        this.wordsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains every word of the query, in list order.
+     *
+     * @param query one or more words separated by whitespace.
+     * @param tasks the indexed tasks in list order, used to order a large number of matches.
+     * @return the matching tasks, or an empty list if the query has no words.
+     */
+    List<Task> find(String query, List<Task> tasks) {
+        List<String> queryWords = new ArrayList<>(splitIntoWords(query));
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // start from the most selective word, and only filter by the remaining ones
+        // while that is cheaper than looking up their postings
+        HashMap<String, List<String>> matchingWords = new HashMap<>();
+        HashMap<String, Integer> estimatedMatches = new HashMap<>();
+        for (String queryWord : queryWords) {
+            List<String> words = indexedWordsContaining(queryWord);
+            int estimate = 0;
+            for (String word : words) {
+                estimate += this.postings.get(word).size();
+            }
+            matchingWords.put(queryWord, words);
+            estimatedMatches.put(queryWord, estimate);
+        }
+        queryWords.sort(Comparator.comparing(estimatedMatches::get));
+
+        Set<Task> candidates = tasksInPostings(matchingWords.get(queryWords.get(0)));
+        for (int i = 1; i < queryWords.size() && !candidates.isEmpty(); i++) {
+            String queryWord = queryWords.get(i);
+            if (estimatedMatches.get(queryWord) <= candidates.size()) {
+                candidates.retainAll(tasksInPostings(matchingWords.get(queryWord)));
+            } else {
+                candidates.removeIf(task -> !task.getDescription().contains(queryWord));
+            }
+        }
+
+        if (candidates.size() > tasks.size() / LINEAR_ORDERING_RATIO) {
+            // cheaper to walk the list than to sort this many matches
+            List<Task> matches = new ArrayList<>(candidates.size());
+            for (Task task : tasks) {
+                if (candidates.contains(task)) {
+                    matches.add(task);
+                }
+            }
+            return matches;
+        }
+        List<Task> matches = new ArrayList<>(candidates);
+        matches.sort(Comparator.comparingLong(Task::getId));
+        return matches;
+    }
+
+    private List<String> indexedWordsContaining(String queryWord) {
+        List<String> words = new ArrayList<>();
+        if (queryWord.length() < GRAM_LENGTH) {
+            for (String word : this.postings.keySet()) {
+                if (word.contains(queryWord)) {
+                    words.add(word);
+                }
+            }
+            return words;
+        }
+
+        Set<String> smallest = null;
+        for (String gram : gramsOf(queryWord)) {
+            Set<String> wordsWithGram = this.wordsByGram.get(gram);
+            if (wordsWithGram == null) {
+                return words;
+            }
+            if (smallest == null || wordsWithGram.size() < smallest.size()) {
+                smallest = wordsWithGram;
+            }
+        }
+        for (String word : smallest) {
+            if (word.contains(queryWord)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private Set<Task> tasksInPostings(List<String> words) {
+        Set<Task> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String word : words) {
+            tasks.addAll(this.postings.get(word));
+        }
+        return tasks;
+    }
+
+    static Set<String> splitIntoWords(String text) {
+        Set<String> words = new HashSet<>();
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                words.add(text.substring(start, end));
+            }
+            start = end;
+        }
+        return words;
+    }
+
+    private static Set<String> gramsOf(String word) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,132 @@
+package cody.tasklist;
+
+/**
+ * Decides when a {@link WriteBehindStorage} commits the operations it has queued.
+ * <p>
+ * A policy is written as one of:
+ * <ul>
+ *   <li>{@code sync} - every operation is committed and synced before the command returns</li>
+ *   <li>{@code interval:<ms>} - queued operations are committed and synced every {@code ms} milliseconds</li>
+ *   <li>{@code ops:<n>} - queued operations are committed and synced once {@code n} of them are queued</li>
+ *   <li>{@code shutdown} - operations are only committed when the task list is closed</li>
+ * </ul>
+ */
+public class DurabilityPolicy {
+
+    /** The kinds of policy that are supported. */
+    public enum Mode {
+        SYNC, INTERVAL, OPERATIONS, SHUTDOWN
+    }
+
+    private final Mode mode;
+    private final long parameter;
+
+    private DurabilityPolicy(Mode mode, long parameter) {
+        this.mode = mode;
+        this.parameter = parameter;
+    }
+
+    /**
+     * Returns a policy that commits every operation before returning to the caller.
+     *
+     * @return the sync policy.
+     */
+    public static DurabilityPolicy sync() {
+        return new DurabilityPolicy(Mode.SYNC, 0);
+    }
+
+    /**
+     * Returns a policy that commits queued operations at a fixed interval.
+     *
+     * @param intervalMillis the time between commits, in milliseconds.
+     * @return the interval policy.
+     */
+    public static DurabilityPolicy everyMillis(long intervalMillis) {
+        assert intervalMillis > 0 : "intervalMillis should be positive";
+        return new DurabilityPolicy(Mode.INTERVAL, intervalMillis);
+    }
+
+    /**
+     * Returns a policy that commits queued operations once enough of them have been queued.
+     *
+     * @param operationCount the number of queued operations that triggers a commit.
+     * @return the operation count policy.
+     */
+    public static DurabilityPolicy everyOperations(int operationCount) {
+        assert operationCount > 0 : "operationCount should be positive";
+        return new DurabilityPolicy(Mode.OPERATIONS, operationCount);
+    }
+
+    /**
+     * Returns a policy that only commits when the storage is flushed or closed.
+     *
+     * @return the shutdown policy.
+     */
+    public static DurabilityPolicy onShutdown() {
+        return new DurabilityPolicy(Mode.SHUTDOWN, 0);
+    }
+
+    /**
+     * Converts the string form of a policy, as described in the class documentation, into a policy.
+     *
+     * @param string the policy to parse.
+     * @return the corresponding policy.
+     * @throws IllegalArgumentException if the string is not a valid policy.
+     */
+    public static DurabilityPolicy parse(String string) {
+        int separator = string.indexOf(':');
+        String name = separator < 0 ? string : string.substring(0, separator);
+        String argument = separator < 0 ? "" : string.substring(separator + 1);
+        try {
+            switch (name) {
+            case "sync":
+                return sync();
+            case "interval":
+                long intervalMillis = Long.parseLong(argument);
+                if (intervalMillis > 0) {
+                    return everyMillis(intervalMillis);
+                }
+                break;
+            case "ops":
+                int operationCount = Integer.parseInt(argument);
+                if (operationCount > 0) {
+                    return everyOperations(operationCount);
+                }
+                break;
+            case "shutdown":
+                return onShutdown();
+            default:
+                break;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Unknown durability policy: " + string);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the interval in milliseconds for {@code INTERVAL} policies,
+     * or the number of operations for {@code OPERATIONS} policies.
+     *
+     * @return the numeric parameter of this policy.
+     */
+    public long getParameter() {
+        return parameter;
+    }
+
+    @Override
+    public String toString() {
+        switch (this.mode) {
+        case INTERVAL:
+            return "interval:" + this.parameter;
+        case OPERATIONS:
+            return "ops:" + this.parameter;
+        default:
+            return this.mode == Mode.SYNC ? "sync" : "shutdown";
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package cody.tasklist;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import cody.exception.CodyException;
+import cody.metrics.Metrics;
+import cody.task.Task;
+
+/**
+ * Stores tasks as a snapshot file plus an append-only journal of {@link StorageOperation}s.
+ * <p>
+ * The snapshot has the same format as the file written by {@link Storage}. Every mutation
+ * only appends one short line to the journal instead of rewriting the snapshot. Once the
+ * journal holds a configurable number of records, or a configurable time has passed since the
+ * last checkpoint and the journal is not empty, it is compacted into a checkpoint: the snapshot
+ * is rewritten with the current tasks, through a temporary file that is synced and then moved
+ * over it, and the journal is emptied. Loading the tasks therefore replays at most one
+ * checkpoint interval of records, however long the history of the list.
+ * <p>
+ * Every record is numbered, and the first line of the journal holds the number of the last
+ * record in the checkpoint it follows, and a checksum of that snapshot:
+ * <pre>
+ * # checkpoint 1042 3fa2c1d0
+ * 1043 ADD #7 [T][ ] read book
+ * 1044 REMOVE 3
+ * </pre>
+ * If the process stops after a checkpoint has replaced the snapshot but before the journal was
+ * emptied, the checksum no longer matches and the (already applied) journal is ignored. A record
+ * that cannot be replayed, such as one that is garbled or out of sequence, ends the replay: it and
+ * the records after it are set aside in a {@code .rejected} file next to the journal, reported
+ * by {@link #getLoadErrors()}, and a checkpoint is taken, so loading never fails on the journal.
+ * Journals written before records were numbered are still read, and replaced by a checkpoint.
+ */
+public class JournaledStorage implements TaskStorage {
+
+    /** Number of journal records after which the journal is compacted into the snapshot. */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    /** Time after a checkpoint after which the next record written compacts the journal, in milliseconds. */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 60_000;
+
+    private static final String HEADER_PREFIX = "# checkpoint ";
+
+    /** Header of the journals written before records were numbered. */
+    private static final String UNNUMBERED_HEADER_PREFIX = "# snapshot ";
+
+    private final Storage snapshot;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int compactionThreshold;
+    private final long checkpointIntervalMillis;
+
+    private FileOutputStream journalStream;
+    private BufferedWriter journalWriter;
+    private int journalRecordCount;
+
+    /** The number of the last record written, or replayed when the tasks were loaded. */
+    private long sequenceNumber;
+    private long lastCheckpointMillis = System.currentTimeMillis();
+
+    /** An id greater than that of every task in the snapshot or recorded in the journal. */
+    private long nextId;
+
+    /** The journal records that could not be replayed when the tasks were last loaded. */
+    private List<LoadResult.LineError> journalErrors = List.of();
+
+    /**
+     * Constructs a {@code JournaledStorage} with the default compaction threshold.
+     *
+     * @param directoryName the directory where the files are stored.
+     * @param filePathString the path of the snapshot file; the journal is stored next to it.
+     * @throws IOException if an I/O error occurs when creating the directory or files.
+     */
+    public JournaledStorage(String directoryName, String filePathString) throws IOException {
+        this(directoryName, filePathString, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructs a {@code JournaledStorage}.
+     *
+     * @param directoryName the directory where the files are stored.
+     * @param filePathString the path of the snapshot file; the journal is stored next to it.
+     * @param compactionThreshold the number of journal records that triggers a compaction.
+     * @throws IOException if an I/O error occurs when creating the directory or files.
+     */
+    public JournaledStorage(String directoryName, String filePathString, int compactionThreshold)
+            throws IOException {
+        this(directoryName, filePathString, compactionThreshold, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructs a {@code JournaledStorage}.
+     *
+     * @param directoryName the directory where the files are stored.
+     * @param filePathString the path of the snapshot file; the journal is stored next to it.
+     * @param compactionThreshold the number of journal records that triggers a compaction.
+     * @param checkpointIntervalMillis the time after a checkpoint after which the next record
+     *                                 written triggers a compaction, in milliseconds.
+     * @throws IOException if an I/O error occurs when creating the directory or files.
+     */
+    public JournaledStorage(String directoryName, String filePathString, int compactionThreshold,
+            long checkpointIntervalMillis) throws IOException {
+        assert compactionThreshold > 0 : "compactionThreshold should be positive";
+        assert checkpointIntervalMillis > 0 : "checkpointIntervalMillis should be positive";
+        this.snapshot = new Storage(directoryName, filePathString);
+        this.snapshotPath = Paths.get(filePathString);
+        this.journalPath = Paths.get(filePathString + ".journal");
+        this.compactionThreshold = compactionThreshold;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+    }
+
+    /**
+     * Reads the snapshot and replays the journal on top of it.
+     * <p>
+     * A partially written last journal record (for example after a crash) is discarded. The replay
+     * stops at the first complete record that cannot be replayed, and the records from there on are
+     * set aside. The snapshot lines that cannot be read are set aside too, but the journal is still
+     * replayed against the snapshot as it was written. Unless the snapshot was read and the journal
+     * replayed in full, a checkpoint of the tasks is then taken.
+     *
+     * @return the tasks as they were after the last recorded operation that could be replayed.
+     * @throws IOException if an error occurs when reading or writing the files.
+     * @throws CodyException if the snapshot is invalid.
+     */
+    @Override
+    public ArrayList<Task> getExistingTasks() throws IOException, CodyException {
+        // the snapshot is only rewritten by the checkpoint below, so the journal still matches it
+        LoadResult snapshotResult = this.snapshot.readExistingTasks();
+        ArrayList<Task> tasks = snapshotResult.getTasks();
+        String snapshotChecksum = checksumOf(this.snapshotPath);
+        this.nextId = this.snapshot.getNextId();
+        boolean isJournalClean = false;
+        this.journalRecordCount = 0;
+        this.journalErrors = List.of();
+
+        if (Files.exists(this.journalPath)) {
+            byte[] journalBytes = Files.readAllBytes(this.journalPath);
+            Metrics.recordBytesRead(journalBytes.length);
+            String journal = new String(journalBytes, StandardCharsets.UTF_8);
+            String[] lines = journal.split("\n", -1);
+            // the last element is either empty or a record that was cut off mid-write
+            int completeLines = lines.length - 1;
+            String header = completeLines > 0 ? lines[0] : "";
+            boolean isNumbered = header.startsWith(HEADER_PREFIX);
+            // a journal whose checksum does not match was already compacted into the snapshot
+            boolean isHeaderValid = (isNumbered || header.startsWith(UNNUMBERED_HEADER_PREFIX))
+                    && header.endsWith(" " + snapshotChecksum);
+            if (isHeaderValid) {
+                this.sequenceNumber = isNumbered ? parseCheckpointNumber(header) : 0;
+                replay(lines, completeLines, isNumbered, tasks);
+            } else if (isNumbered) {
+                // the snapshot already holds the records of this journal, so numbering carries on after them
+                this.sequenceNumber = parseCheckpointNumber(header);
+                for (int i = 1; i < completeLines; i++) {
+                    this.sequenceNumber += lines[i].isEmpty() ? 0 : 1;
+                }
+            }
+            isJournalClean = isHeaderValid && isNumbered && this.journalErrors.isEmpty()
+                    && lines[completeLines].isEmpty();
+        }
+
+        if (!isJournalClean || !snapshotResult.isClean()) {
+            compact(tasks);
+        }
+        return tasks;
+    }
+
+    /**
+     * Applies the complete records of the journal to the tasks in order, until one cannot be applied.
+     * That record and the ones after it are set aside in the {@code .rejected} file.
+     */
+    private void replay(String[] lines, int completeLines, boolean isNumbered, List<Task> tasks)
+            throws IOException {
+        for (int i = 1; i < completeLines; i++) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            try {
+                String record = isNumbered ? removeSequenceNumber(lines[i]) : lines[i];
+                StorageOperation operation = StorageOperation.fromJournalLine(record);
+                operation.applyTo(tasks);
+                recordId(operation);
+                this.sequenceNumber++;
+                this.journalRecordCount++;
+            } catch (CodyException e) {
+                rejectRecords(lines, i, completeLines, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the operation of a numbered record, checking that the record is the next in sequence.
+     */
+    private String removeSequenceNumber(String line) throws CodyException {
+        int separator = line.indexOf(' ');
+        String expected = Long.toString(this.sequenceNumber + 1);
+        if (separator < 0 || !line.substring(0, separator).equals(expected)) {
+            throw new CodyException("Journal record out of sequence, expected record " + expected);
+        }
+        return line.substring(separator + 1);
+    }
+
+    private static long parseCheckpointNumber(String header) {
+        String[] fields = header.substring(HEADER_PREFIX.length()).split(" ");
+        try {
+            return fields.length == 2 ? Long.parseLong(fields[0]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void rejectRecords(String[] lines, int start, int end, String message) throws IOException {
+        List<String> rejectedLines = new ArrayList<>();
+        List<LoadResult.LineError> errors = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            rejectedLines.add(lines[i]);
+            String reason = i == start ? message : "Follows a journal record that could not be replayed";
+            errors.add(new LoadResult.LineError(i + 1, lines[i], reason));
+        }
+        Files.write(Paths.get(this.journalPath + ".rejected"), rejectedLines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.journalErrors = errors;
+    }
+
+    /**
+     * Returns the snapshot lines and then the journal records that could not be read when the
+     * tasks were last loaded.
+     *
+     * @return the unreadable entries.
+     */
+    @Override
+    public List<LoadResult.LineError> getLoadErrors() {
+        if (this.journalErrors.isEmpty()) {
+            return this.snapshot.getLoadErrors();
+        }
+        List<LoadResult.LineError> errors = new ArrayList<>(this.snapshot.getLoadErrors());
+        errors.addAll(this.journalErrors);
+        return errors;
+    }
+
+    /**
+     * Returns an id greater than that of every task in the snapshot or recorded in the journal,
+     * including tasks that have since been removed.
+     *
+     * @return the next id, or 0 if no task has had an id.
+     */
+    @Override
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    /**
+     * Records that a task has been appended to the list.
+     *
+     * @param task the task that was added.
+     * @throws IOException if an error occurs while writing the journal.
+     */
+    @Override
+    public void addToFile(Task task) throws IOException {
+        append(StorageOperation.add(task));
+    }
+
+    /**
+     * Records that the task at the given index has been removed.
+     *
+     * @param taskIndex the index of the removed task (0-based).
+     * @throws IOException if an error occurs while writing the journal.
+     */
+    @Override
+    public void removeFromFile(int taskIndex) throws IOException {
+        append(StorageOperation.remove(taskIndex));
+    }
+
+    /**
+     * Records that a task has been put back at the given index.
+     *
+     * @param taskIndex the index the task was inserted at (0-based).
+     * @param task the task that was inserted.
+     * @throws IOException if an error occurs while writing the journal.
+     */
+    @Override
+    public void insertToFile(int taskIndex, Task task) throws IOException {
+        append(StorageOperation.insert(taskIndex, task));
+    }
+
+    /**
+     * Records the new completion status of the task at the given index.
+     *
+     * @param taskIndex the index of the updated task (0-based).
+     * @param updatedTask the task as it is after the update.
+     * @throws IOException if an error occurs while writing the journal.
+     */
+    @Override
+    public void updateTask(int taskIndex, Task updatedTask) throws IOException {
+        append(StorageOperation.update(taskIndex, updatedTask));
+    }
+
+    /**
+     * Takes a checkpoint: rewrites the snapshot so that it contains the current tasks, and empties the journal.
+     *
+     * @throws IOException if an error occurs while reading or writing the files.
+     * @throws CodyException if the existing snapshot is invalid.
+     */
+    public void compact() throws IOException, CodyException {
+        compact(getExistingTasks());
+    }
+
+    /**
+     * Rewrites the snapshot so that it contains the given tasks, and empties the journal.
+     *
+     * @param tasks the tasks to write, in list order.
+     * @throws IOException if an error occurs while writing the files.
+     */
+    @Override
+    public void writeAll(List<Task> tasks) throws IOException {
+        compact(tasks);
+    }
+
+    /**
+     * Takes a checkpoint of the given tasks. The snapshot is durable before the journal is emptied,
+     * so the records of the journal are never lost in between.
+     */
+    private void compact(List<Task> tasks) throws IOException {
+        closeJournalWriter();
+        this.snapshot.writeAll(tasks, this.nextId);
+        resetJournal();
+        this.lastCheckpointMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the number of the last operation recorded, which keeps increasing across checkpoints.
+     *
+     * @return the sequence number, or 0 if no operation has been recorded.
+     */
+    public long getSequenceNumber() {
+        return this.sequenceNumber;
+    }
+
+    /**
+     * Records a batch of operations with a single write to the journal.
+     *
+     * @param operations the operations to record, in order.
+     * @throws IOException if an error occurs while writing the journal.
+     */
+    @Override
+    public void apply(List<StorageOperation> operations) throws IOException {
+        openJournalWriter();
+        for (StorageOperation operation : operations) {
+            writeJournalLine(operation);
+        }
+        this.journalWriter.flush();
+        this.journalRecordCount += operations.size();
+        compactIfNeeded();
+    }
+
+    /**
+     * Forces the journal to the storage device.
+     *
+     * @throws IOException if an error occurs while syncing the journal.
+     */
+    @Override
+    public void sync() throws IOException {
+        if (this.journalWriter != null) {
+            this.journalWriter.flush();
+            this.journalStream.getChannel().force(false);
+            Metrics.recordFsync();
+        }
+    }
+
+    /**
+     * Closes the journal. The journal is reopened if more operations are recorded afterwards.
+     *
+     * @throws IOException if an error occurs while closing the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        closeJournalWriter();
+    }
+
+    private void append(StorageOperation operation) throws IOException {
+        openJournalWriter();
+        writeJournalLine(operation);
+        this.journalWriter.flush();
+        this.journalRecordCount++;
+        compactIfNeeded();
+    }
+
+    private void writeJournalLine(StorageOperation operation) throws IOException {
+        recordId(operation);
+        this.sequenceNumber++;
+        String line = this.sequenceNumber + " " + operation.toJournalLine();
+        this.journalWriter.write(line);
+        this.journalWriter.write('\n');
+        Metrics.recordTextWritten(line);
+        Metrics.recordBytesWritten(1);
+    }
+
+    private void recordId(StorageOperation operation) {
+        if (operation.getTask() != null) {
+            this.nextId = Math.max(this.nextId, operation.getTask().getId() + 1);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        long millisSinceCheckpoint = System.currentTimeMillis() - this.lastCheckpointMillis;
+        boolean isIntervalOver = millisSinceCheckpoint >= this.checkpointIntervalMillis;
+        if (this.journalRecordCount < this.compactionThreshold && !isIntervalOver) {
+            return;
+        }
+        try {
+            compact();
+        } catch (CodyException e) {
+            throw new IOException("Unable to compact the task journal: " + e.getMessage(), e);
+        }
+    }
+
+    private void openJournalWriter() throws IOException {
+        if (this.journalWriter != null) {
+            return;
+        }
+        if (!Files.exists(this.journalPath)) {
+            resetJournal();
+        }
+        this.journalStream = new FileOutputStream(this.journalPath.toFile(), true);
+        this.journalWriter = new BufferedWriter(new OutputStreamWriter(this.journalStream, StandardCharsets.UTF_8));
+    }
+
+    private void resetJournal() throws IOException {
+        Path tempPath = Paths.get(this.journalPath + ".tmp");
+        String header = HEADER_PREFIX + this.sequenceNumber + " " + checksumOf(this.snapshotPath) + "\n";
+        Files.write(tempPath, header.getBytes(StandardCharsets.UTF_8));
+        Files.move(tempPath, this.journalPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.journalRecordCount = 0;
+    }
+
+    private void closeJournalWriter() throws IOException {
+        if (this.journalWriter != null) {
+            this.journalWriter.close();
+            this.journalWriter = null;
+            this.journalStream = null;
+        }
+    }
+
+    private static String checksumOf(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,100 @@
+package cody.tasklist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.task.Task;
+
+/**
+ * Represents the outcome of reading a task file with a {@link TaskFileLoader}:
+ * the tasks that could be read, in file order, and the lines that could not.
+ */
+public class LoadResult {
+
+    /**
+     * Represents a line of a task file that does not correspond to a valid {@code Task}.
+     */
+    public static class LineError {
+        private final long lineNumber;
+        private final String line;
+        private final String message;
+
+        /**
+         * Constructs a {@code LineError}.
+         *
+         * @param lineNumber the 1-based number of the line in the file.
+         * @param line the contents of the line.
+         * @param message why the line could not be read.
+         */
+        public LineError(long lineNumber, String line, String message) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + this.lineNumber + ": " + this.message;
+        }
+    }
+
+    private final ArrayList<Task> tasks;
+    private final List<LineError> errors;
+    private final long nextId;
+
+    /**
+     * Constructs a {@code LoadResult} for a file that does not record the id of the next task.
+     *
+     * @param tasks the tasks that were read, in file order.
+     * @param errors the lines that could not be read, in file order.
+     */
+    public LoadResult(ArrayList<Task> tasks, List<LineError> errors) {
+        this(tasks, errors, 0);
+    }
+
+    /**
+     * Constructs a {@code LoadResult}.
+     *
+     * @param tasks the tasks that were read, in file order.
+     * @param errors the lines that could not be read, in file order.
+     * @param nextId the id of the next task to be added, as recorded in the file, or 0 if it is not.
+     */
+    public LoadResult(ArrayList<Task> tasks, List<LineError> errors, long nextId) {
+        this.tasks = tasks;
+        this.errors = errors;
+        this.nextId = nextId;
+    }
+
+    public ArrayList<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Returns whether every non-empty line of the file was read successfully.
+     *
+     * @return {@code true} if there are no line errors.
+     */
+    public boolean isClean() {
+        return errors.isEmpty();
+    }
+}
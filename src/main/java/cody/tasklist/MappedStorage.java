@@ -0,0 +1,574 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.metrics.Metrics;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+/**
+ * Stores tasks in a memory-mapped binary file made of fixed-size slots.
+ * <p>
+ * The file starts with a header, followed by one record per task in list order:
+ * <pre>
+ * header: magic (int) | version (int) | end of data (int) | next id (int)
+ * record: slot count (int) | state (byte) | done (byte) | type (byte) | start day (int) | end day (int)
+ *         | id (long) | description length (int) | description (UTF-8)
+ * </pre>
+ * Every record is padded to a whole number of {@value #SLOT_SIZE}-byte slots. Dates are stored as
+ * epoch days. An offset table kept in memory maps each task index to its record, so marking or
+ * unmarking a task only writes its done byte. Deleting a task only turns its record into a
+ * tombstone; tombstones are reclaimed by rewriting the file once they take up most of it.
+ * A tombstone keeps the id of its task, and the next id in the header is written when the file is
+ * rewritten, so the id of a removed task is never given to another one.
+ * A task put back in the middle of the list is appended like a new one; since ids are in list
+ * order, records are put back in order of id when the file is read.
+ * <p>
+ * Files written before tasks had ids, whose records have no id field, are rewritten in the
+ * current format when they are opened.
+ */
+public class MappedStorage implements TaskStorage {
+
+    /** Size in bytes of one slot. A record takes up one or more consecutive slots. */
+    public static final int SLOT_SIZE = 64;
+
+    private static final int MAGIC = 0x434F4459; // "CODY"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int DATA_END_OFFSET = 8;
+    private static final int NEXT_ID_OFFSET = 12;
+
+    private static final int STATE_OFFSET = 4;
+    private static final int DONE_OFFSET = 5;
+    private static final int TYPE_OFFSET = 6;
+    private static final int START_DAY_OFFSET = 7;
+    private static final int END_DAY_OFFSET = 11;
+    private static final int ID_OFFSET = 15;
+    private static final int DESCRIPTION_LENGTH_OFFSET = 23;
+    private static final int DESCRIPTION_OFFSET = 27;
+
+    /** Version of the files written before tasks had ids, whose records have no id field. */
+    private static final int VERSION_WITHOUT_IDS = 1;
+    private static final int VERSION_WITHOUT_IDS_DESCRIPTION_LENGTH_OFFSET = 15;
+    private static final int VERSION_WITHOUT_IDS_DESCRIPTION_OFFSET = 19;
+
+    private static final byte STATE_TOMBSTONE = 0;
+    private static final byte STATE_LIVE = 1;
+
+    private static final byte TYPE_TODO = 'T';
+    private static final byte TYPE_DEADLINE = 'D';
+    private static final byte TYPE_EVENT = 'E';
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final Path filePath;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /** Format version of the records in the mapped file. */
+    private int version = VERSION;
+
+    /** Offset of the record of each task, in list order. */
+    private int[] offsets = new int[16];
+    private int taskCount;
+    private int dataEnd;
+    private int tombstoneBytes;
+
+    /** An id greater than that of every record in the file, live or not, and than the next id in the header. */
+    private long nextId;
+
+    /**
+     * Constructs a {@code MappedStorage}, creating the directory and binary file if they do not exist.
+     *
+     * @param directoryName the directory where the file is stored.
+     * @param filePathString the path of the binary file used for storing tasks.
+     * @throws IOException if an I/O error occurs when creating or mapping the file,
+     *                     or if the file is not a task file written by this class.
+     */
+    public MappedStorage(String directoryName, String filePathString) throws IOException {
+        Files.createDirectories(Paths.get(directoryName));
+        this.filePath = Paths.get(filePathString);
+        boolean isNewFile = !Files.exists(this.filePath) || Files.size(this.filePath) == 0;
+        map(isNewFile ? INITIAL_CAPACITY : Files.size(this.filePath));
+        if (isNewFile) {
+            this.buffer.putInt(0, MAGIC);
+            this.buffer.putInt(4, VERSION);
+            setDataEnd(HEADER_SIZE);
+        } else if (this.buffer.getInt(0) != MAGIC
+                || this.buffer.getInt(4) != VERSION && this.buffer.getInt(4) != VERSION_WITHOUT_IDS) {
+            throw new IOException("Not a Cody binary task file: " + filePathString);
+        }
+        this.version = this.buffer.getInt(4);
+        this.dataEnd = this.buffer.getInt(DATA_END_OFFSET);
+        if (this.version == VERSION_WITHOUT_IDS) {
+            try {
+                writeAll(getExistingTasks());
+            } catch (CodyException e) {
+                throw new IOException("Unable to upgrade the binary task file: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Converts a text task file, as written by {@link Storage}, into a binary task file.
+     *
+     * @param textFilePathString the path of the existing text file.
+     * @param binaryFilePathString the path of the binary file to create; any existing file is replaced.
+     * @throws IOException if an error occurs while reading or writing the files.
+     * @throws CodyException if a line in the text file does not correspond to a valid {@code Task}.
+     */
+    public static void convertFromTextFile(String textFilePathString, String binaryFilePathString)
+            throws IOException, CodyException {
+        Path textFilePath = Paths.get(textFilePathString);
+        Path directoryPath = textFilePath.toAbsolutePath().getParent();
+        Storage textStorage = new Storage(directoryPath.toString(), textFilePathString);
+        ArrayList<Task> tasks = textStorage.getExistingTasks();
+        writeFile(Paths.get(binaryFilePathString), tasks, textStorage.getNextId());
+    }
+
+    /**
+     * Reads all live records from the binary file and rebuilds the offset table.
+     *
+     * @return an {@code ArrayList} containing all tasks stored in the file.
+     * @throws CodyException if a record in the file is malformed.
+     */
+    @Override
+    public ArrayList<Task> getExistingTasks() throws CodyException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        this.taskCount = 0;
+        this.tombstoneBytes = 0;
+        this.nextId = this.buffer.getInt(NEXT_ID_OFFSET);
+        int offset = HEADER_SIZE;
+        while (offset < this.dataEnd) {
+            int recordSize = this.buffer.getInt(offset) * SLOT_SIZE;
+            if (recordSize <= 0 || offset + recordSize > this.dataEnd) {
+                throw new CodyException("Corrupted record in binary task file at offset " + offset);
+            }
+            if (this.buffer.get(offset + STATE_OFFSET) == STATE_LIVE) {
+                tasks.add(readTask(offset));
+                appendOffset(offset);
+            } else {
+                this.tombstoneBytes += recordSize;
+            }
+            if (this.version == VERSION) {
+                this.nextId = Math.max(this.nextId, this.buffer.getLong(offset + ID_OFFSET) + 1);
+            }
+            offset += recordSize;
+        }
+        Metrics.recordBytesRead(this.dataEnd);
+        for (int i = 1; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() < tasks.get(i - 1).getId()) {
+                return sortById(tasks);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns an id greater than that of every task in the file, including the tasks removed
+     * since it was last rewritten, and than the next id recorded in its header.
+     *
+     * @return the next id, or 0 if no task has had an id.
+     */
+    @Override
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    /**
+     * Puts tasks read out of list order, and their offsets, back in order of id.
+     */
+    private ArrayList<Task> sortById(ArrayList<Task> tasks) {
+        Integer[] order = new Integer[tasks.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> tasks.get(i).getId()));
+        ArrayList<Task> sortedTasks = new ArrayList<>(tasks.size());
+        int[] sortedOffsets = new int[this.offsets.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedTasks.add(tasks.get(order[i]));
+            sortedOffsets[i] = this.offsets[order[i]];
+        }
+        this.offsets = sortedOffsets;
+        return sortedTasks;
+    }
+
+    /**
+     * Appends a record for a new task at the end of the file.
+     *
+     * @param task the task to add.
+     * @throws IOException if the file cannot be grown.
+     */
+    @Override
+    public void addToFile(Task task) throws IOException {
+        this.nextId = Math.max(this.nextId, task.getId() + 1);
+        byte[] record = encode(task);
+        ensureCapacity(this.dataEnd + record.length);
+        this.buffer.put(this.dataEnd, record);
+        Metrics.recordBytesWritten(record.length);
+        force(this.dataEnd, record.length);
+        appendOffset(this.dataEnd);
+        // the record only becomes part of the file once the end of data moves past it
+        setDataEnd(this.dataEnd + record.length);
+    }
+
+    /**
+     * Appends a record for a task that is put back at the given index, and moves its offset there.
+     *
+     * @param taskIndex the index the task was inserted at (0-based).
+     * @param task the task that was inserted.
+     * @throws IOException if the file cannot be grown.
+     */
+    @Override
+    public void insertToFile(int taskIndex, Task task) throws IOException {
+        assert taskIndex >= 0 && taskIndex <= this.taskCount : "taskIndex is out of range";
+        addToFile(task);
+        int offset = this.offsets[this.taskCount - 1];
+        System.arraycopy(this.offsets, taskIndex, this.offsets, taskIndex + 1, this.taskCount - 1 - taskIndex);
+        this.offsets[taskIndex] = offset;
+    }
+
+    /**
+     * Turns the record of the task at the given index into a tombstone.
+     *
+     * @param taskIndex the index of the task to remove (0-based).
+     * @throws IOException if an error occurs while reclaiming tombstones.
+     */
+    @Override
+    public void removeFromFile(int taskIndex) throws IOException {
+        assert taskIndex >= 0 && taskIndex < this.taskCount : "taskIndex is out of range";
+        int offset = this.offsets[taskIndex];
+        this.buffer.put(offset + STATE_OFFSET, STATE_TOMBSTONE);
+        Metrics.recordBytesWritten(1);
+        force(offset + STATE_OFFSET, 1);
+        this.tombstoneBytes += this.buffer.getInt(offset) * SLOT_SIZE;
+        System.arraycopy(this.offsets, taskIndex + 1, this.offsets, taskIndex, this.taskCount - taskIndex - 1);
+        this.taskCount--;
+        reclaimTombstonesIfNeeded();
+    }
+
+    /**
+     * Applies a batch of operations in order.
+     * <p>
+     * Each run of removals in decreasing index order, such as removing many tasks at once,
+     * tombstones all of its records, compacts the offsets table in a single pass and forces
+     * the file once, instead of doing so for every removal.
+     *
+     * @param operations the operations to apply.
+     * @throws IOException if an error occurs while writing.
+     */
+    @Override
+    public void apply(List<StorageOperation> operations) throws IOException {
+        int i = 0;
+        while (i < operations.size()) {
+            StorageOperation operation = operations.get(i);
+            switch (operation.getType()) {
+            case ADD:
+                addToFile(operation.getTask());
+                i++;
+                break;
+            case REMOVE:
+                int end = StorageOperation.endOfDescendingRemovals(operations, i);
+                removeAll(operations.subList(i, end));
+                i = end;
+                break;
+            case INSERT:
+                insertToFile(operation.getTaskIndex(), operation.getTask());
+                i++;
+                break;
+            default:
+                updateTask(operation.getTaskIndex(), operation.getTask());
+                i++;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tombstones the records of a run of removals in decreasing index order.
+     */
+    private void removeAll(List<StorageOperation> removals) throws IOException {
+        for (StorageOperation removal : removals) {
+            assert removal.getTaskIndex() >= 0 && removal.getTaskIndex() < this.taskCount : "taskIndex is out of range";
+            int offset = this.offsets[removal.getTaskIndex()];
+            this.buffer.put(offset + STATE_OFFSET, STATE_TOMBSTONE);
+            Metrics.recordBytesWritten(1);
+            this.tombstoneBytes += this.buffer.getInt(offset) * SLOT_SIZE;
+            this.offsets[removal.getTaskIndex()] = -1;
+        }
+        int kept = 0;
+        for (int i = 0; i < this.taskCount; i++) {
+            if (this.offsets[i] >= 0) {
+                this.offsets[kept++] = this.offsets[i];
+            }
+        }
+        this.taskCount = kept;
+        force();
+        reclaimTombstonesIfNeeded();
+    }
+
+    private void reclaimTombstonesIfNeeded() throws IOException {
+        if (this.tombstoneBytes > INITIAL_CAPACITY && this.tombstoneBytes > (this.dataEnd - HEADER_SIZE) / 2) {
+            reclaimTombstones();
+        }
+    }
+
+    /**
+     * Overwrites the done byte of the task at the given index.
+     * The other fields of a task never change after it is added.
+     *
+     * @param taskIndex the index of the task to update (0-based).
+     * @param updatedTask the task as it is after the update.
+     */
+    @Override
+    public void updateTask(int taskIndex, Task updatedTask) {
+        assert taskIndex >= 0 && taskIndex < this.taskCount : "taskIndex is out of range";
+        int doneOffset = this.offsets[taskIndex] + DONE_OFFSET;
+        this.buffer.put(doneOffset, updatedTask.isDone() ? (byte) 1 : (byte) 0);
+        Metrics.recordBytesWritten(1);
+        force(doneOffset, 1);
+    }
+
+    /**
+     * Forces all changes made to the mapped file to the storage device.
+     */
+    @Override
+    public void sync() {
+        force();
+    }
+
+    /**
+     * Forces all changes to the storage device and closes the file.
+     *
+     * @throws IOException if an error occurs while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        this.channel.close();
+    }
+
+    /**
+     * Rewrites the file without tombstones and remaps it.
+     *
+     * @throws IOException if an error occurs while writing or mapping the new file.
+     */
+    public void reclaimTombstones() throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>(this.taskCount);
+        try {
+            for (int i = 0; i < this.taskCount; i++) {
+                tasks.add(readTask(this.offsets[i]));
+            }
+        } catch (CodyException e) {
+            throw new IOException("Unable to reclaim tombstones in the task file: " + e.getMessage(), e);
+        }
+        writeAll(tasks);
+    }
+
+    /**
+     * Replaces the file with one holding only the given tasks, and remaps it.
+     * <p>
+     * The new file is first written next to the current one and then moved over it,
+     * so the file never ends up half-written. The current mapping is released before the move,
+     * since some systems, such as Windows, do not allow a mapped file to be replaced. If the
+     * move fails anyway, the current file is mapped again, so the storage can still be used.
+     *
+     * @param tasks the tasks to write, in list order.
+     * @throws IOException if an error occurs while writing or mapping the new file.
+     */
+    @Override
+    public void writeAll(List<Task> tasks) throws IOException {
+        Path tempPath = Paths.get(this.filePath + ".tmp");
+        for (Task task : tasks) {
+            this.nextId = Math.max(this.nextId, task.getId() + 1);
+        }
+        writeFile(tempPath, tasks, this.nextId);
+        unmap();
+        try {
+            Files.move(tempPath, this.filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            map(Files.size(this.filePath));
+            throw e;
+        }
+        map(Files.size(this.filePath));
+        this.version = VERSION;
+        this.dataEnd = this.buffer.getInt(DATA_END_OFFSET);
+        this.taskCount = 0;
+        this.tombstoneBytes = 0;
+        for (int offset = HEADER_SIZE; offset < this.dataEnd; offset += this.buffer.getInt(offset) * SLOT_SIZE) {
+            appendOffset(offset);
+        }
+    }
+
+    private static void writeFile(Path path, List<Task> tasks, long nextId) throws IOException {
+        int size = HEADER_SIZE;
+        List<byte[]> records = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            byte[] record = encode(task);
+            records.add(record);
+            size += record.length;
+        }
+        ByteBuffer content = ByteBuffer.allocate(size);
+        // a next id beyond the range of the header field is recorded as the largest one it holds
+        content.putInt(MAGIC).putInt(VERSION).putInt(size).putInt((int) Math.min(nextId, Integer.MAX_VALUE));
+        for (byte[] record : records) {
+            content.put(record);
+        }
+        content.flip();
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                out.write(content);
+            }
+            out.force(true);
+        }
+        Metrics.recordBytesWritten(size);
+        Metrics.recordFsync();
+    }
+
+    private static byte[] encode(Task task) {
+        byte type;
+        long startDay = 0;
+        long endDay = 0;
+        if (task instanceof Deadline) {
+            type = TYPE_DEADLINE;
+            endDay = ((Deadline) task).getEndDate().toEpochDay();
+        } else if (task instanceof Event) {
+            type = TYPE_EVENT;
+            startDay = ((Event) task).getStartDate().toEpochDay();
+            endDay = ((Event) task).getEndDate().toEpochDay();
+        } else {
+            type = TYPE_TODO;
+        }
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int slotCount = (DESCRIPTION_OFFSET + description.length + SLOT_SIZE - 1) / SLOT_SIZE;
+
+        ByteBuffer record = ByteBuffer.allocate(slotCount * SLOT_SIZE);
+        record.putInt(slotCount)
+                .put(STATE_LIVE)
+                .put(task.isDone() ? (byte) 1 : (byte) 0)
+                .put(type)
+                .putInt((int) startDay)
+                .putInt((int) endDay)
+                .putLong(task.getId())
+                .putInt(description.length)
+                .put(description);
+        return record.array();
+    }
+
+    private Task readTask(int offset) throws CodyException {
+        boolean isDone = this.buffer.get(offset + DONE_OFFSET) == 1;
+        byte type = this.buffer.get(offset + TYPE_OFFSET);
+        boolean hasId = this.version != VERSION_WITHOUT_IDS;
+        int descriptionLengthOffset = hasId ? DESCRIPTION_LENGTH_OFFSET : VERSION_WITHOUT_IDS_DESCRIPTION_LENGTH_OFFSET;
+        byte[] description = new byte[this.buffer.getInt(offset + descriptionLengthOffset)];
+        this.buffer.get(offset + (hasId ? DESCRIPTION_OFFSET : VERSION_WITHOUT_IDS_DESCRIPTION_OFFSET), description);
+        String descriptionString = new String(description, StandardCharsets.UTF_8);
+        LocalDate startDate = LocalDate.ofEpochDay(this.buffer.getInt(offset + START_DAY_OFFSET));
+        LocalDate endDate = LocalDate.ofEpochDay(this.buffer.getInt(offset + END_DAY_OFFSET));
+
+        Task task;
+        switch (type) {
+        case TYPE_TODO:
+            task = new ToDo(descriptionString, isDone);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(descriptionString, endDate, isDone);
+            break;
+        case TYPE_EVENT:
+            task = new Event(descriptionString, startDate, endDate, isDone);
+            break;
+        default:
+            throw new CodyException("Unknown task type in binary task file at offset " + offset);
+        }
+        if (hasId) {
+            task.setId(this.buffer.getLong(offset + ID_OFFSET));
+        }
+        return task;
+    }
+
+    /**
+     * Forces a range of the mapped file to the storage device.
+     */
+    private void force(int offset, int length) {
+        this.buffer.force(offset, length);
+        Metrics.recordFsync();
+    }
+
+    /**
+     * Forces the whole mapped file to the storage device.
+     */
+    private void force() {
+        this.buffer.force();
+        Metrics.recordFsync();
+    }
+
+    private void appendOffset(int offset) {
+        if (this.taskCount == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+        }
+        this.offsets[this.taskCount++] = offset;
+    }
+
+    private void setDataEnd(int dataEnd) {
+        this.dataEnd = dataEnd;
+        this.buffer.putInt(DATA_END_OFFSET, dataEnd);
+        force(DATA_END_OFFSET, Integer.BYTES);
+    }
+
+    private void ensureCapacity(int requiredSize) throws IOException {
+        if (requiredSize <= this.buffer.capacity()) {
+            return;
+        }
+        long newCapacity = Math.max(requiredSize, (long) this.buffer.capacity() * 2);
+        if (newCapacity > Integer.MAX_VALUE) {
+            throw new IOException("Binary task file cannot grow beyond 2 GB");
+        }
+        this.channel.close();
+        map(newCapacity);
+    }
+
+    /**
+     * Closes the file and releases its mapping now, rather than once the buffer is garbage collected.
+     * The buffer must not be used afterwards, so it is dropped.
+     */
+    private void unmap() throws IOException {
+        this.channel.close();
+        MappedByteBuffer mapping = this.buffer;
+        this.buffer = null;
+        try {
+            // the only way to release a mapping before Java 22; it is part of the jdk.unsupported module
+            Field unsafeField = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            Object unsafe = unsafeField.get(null);
+            unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, mapping);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // the mapping is then released when the buffer is garbage collected, which is enough on most systems
+        }
+    }
+
+    private void map(long size) throws IOException {
+        this.channel = FileChannel.open(this.filePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
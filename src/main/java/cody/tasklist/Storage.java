@@ -1,16 +1,23 @@
 package cody.tasklist;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import cody.exception.CodyException;
+import cody.metrics.Metrics;
 import cody.task.Task;
+import cody.task.TaskCodec;
 
 /**
  * Deals with all interactions involving the file where task data is stored.
@@ -18,17 +25,29 @@ import cody.task.Task;
  * This class handles:
  * <ul>
  *   <li>Creating the directory and file if they do not exist</li>
- *   <li>Reading existing tasks from the file</li>
+ *   <li>Reading existing tasks from the file, setting aside lines that cannot be read</li>
  *   <li>Adding new tasks to the file</li>
  *   <li>Removing tasks from the file</li>
  *   <li>Updating tasks in the file</li>
+ *   <li>Applying a batch of changes to the file at once</li>
+ *   <li>Rewriting the whole file at once</li>
  * </ul>
+ * Changes other than adding a task rewrite the file by writing a temporary file and moving it over
+ * the storage file, so a crash while writing leaves either the old or the new file, never a truncated one.
+ * A rewritten file starts with a {@value TaskFileLoader#NEXT_ID_HEADER} line, which keeps the
+ * id of the next task once the task with the highest id has been removed.
  */
-public class Storage {
+public class Storage implements TaskStorage {
 
     /** The path of the file where tasks are stored. */
     String filePathString;
 
+    /** The lines that could not be read when the file was last loaded. */
+    private List<LoadResult.LineError> loadErrors = List.of();
+
+    /** An id greater than that of every task read from or written to the file. */
+    private long nextId;
+
     /**
      * Constructs a {@code Storage} object and ensures that the storage file exists.
      * <p>
@@ -58,24 +77,72 @@ public class Storage {
 
     /**
      * Reads all existing tasks from the storage file and converts them into {@code Task} objects.
+     * <p>
+     * The file is read with a {@link TaskFileLoader}. Lines that do not correspond to a valid
+     * {@code Task} are moved to a {@code .rejected} file next to the storage file, so that the
+     * storage file and the task list stay aligned, and are reported by {@link #getLoadErrors()}.
      *
      * @return an {@code ArrayList} containing all tasks read from the file.
      * @throws IOException if an error occurs when reading the file.
-     * @throws CodyException if a line in the file does not correspond to a valid {@code Task}.
      */
+    @Override
     public ArrayList<Task> getExistingTasks() throws IOException, CodyException {
+        LoadResult result = readExistingTasks();
+        if (!result.isClean()) {
+            writeAll(result.getTasks());
+        }
+        return result.getTasks();
+    }
+
+    /**
+     * Reads all existing tasks from the storage file like {@link #getExistingTasks()}, moving the
+     * lines that cannot be read to the {@code .rejected} file, but leaves the storage file as it is.
+     * The caller then has to write the tasks back, such as after replaying changes recorded
+     * against the file as it was.
+     */
+    LoadResult readExistingTasks() throws IOException {
         Path filePath = Paths.get(this.filePathString);
-        List<String> lines;
-        ArrayList<Task> existingTasks = new ArrayList<>();
-        lines = Files.readAllLines(filePath);
-        for (String line : lines) {
-            if (line.isEmpty()) {
-                continue;
-            }
-            Task task = Task.convertStringToTask(line);
-            existingTasks.add(task);
+        recordFileRead(filePath);
+        LoadResult result = new TaskFileLoader().load(filePath);
+        this.loadErrors = result.getErrors();
+        this.nextId = result.getNextId();
+        for (Task task : result.getTasks()) {
+            recordId(task);
+        }
+        if (!result.isClean()) {
+            setAside(result.getErrors());
         }
-        return existingTasks;
+        return result;
+    }
+
+    /**
+     * Returns the lines that could not be read by the last call to {@link #getExistingTasks()}.
+     *
+     * @return the unreadable lines, in file order.
+     */
+    @Override
+    public List<LoadResult.LineError> getLoadErrors() {
+        return this.loadErrors;
+    }
+
+    /**
+     * Returns an id greater than that of every task read from or written to the file,
+     * including those recorded by the {@value TaskFileLoader#NEXT_ID_HEADER} line of the file.
+     *
+     * @return the next id, or 0 if no task has had an id.
+     */
+    @Override
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    private void setAside(List<LoadResult.LineError> errors) throws IOException {
+        List<String> rejectedLines = new ArrayList<>(errors.size());
+        for (LoadResult.LineError error : errors) {
+            rejectedLines.add(error.getLine());
+        }
+        Files.write(Paths.get(this.filePathString + ".rejected"), rejectedLines,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
     }
 
     /**
@@ -84,10 +151,14 @@ public class Storage {
      * @param task the task to add.
      * @throws IOException if an error occurs while writing to the file.
      */
+    @Override
     public void addToFile(Task task) throws IOException {
+        recordId(task);
         FileWriter fw = new FileWriter(this.filePathString, true);
-        fw.write(task.toString() + "\n");
+        String line = TaskCodec.encode(task) + "\n";
+        fw.write(line);
         fw.close();
+        Metrics.recordTextWritten(line);
     }
 
     /**
@@ -96,12 +167,34 @@ public class Storage {
      * @param taskIndex the index of the task to remove (0-based).
      * @throws IOException if an error occurs while modifying the file.
      */
+    @Override
     public void removeFromFile(int taskIndex) throws IOException {
         Path filePath = Paths.get(this.filePathString);
         List<String> lines;
-        lines = Files.readAllLines(filePath);
+        recordFileRead(filePath);
+        lines = readTaskLines(filePath);
         lines.remove(taskIndex);
-        Files.write(filePath, lines);
+        replaceLines(filePath, lines);
+        recordFileWritten(filePath);
+    }
+
+    /**
+     * Inserts a task into the storage file at the given index.
+     *
+     * @param taskIndex the index the task was inserted at (0-based).
+     * @param task the task that was inserted.
+     * @throws IOException if an error occurs while modifying the file.
+     */
+    @Override
+    public void insertToFile(int taskIndex, Task task) throws IOException {
+        Path filePath = Paths.get(this.filePathString);
+        List<String> lines;
+        recordFileRead(filePath);
+        lines = readTaskLines(filePath);
+        recordId(task);
+        lines.add(taskIndex, TaskCodec.encode(task));
+        replaceLines(filePath, lines);
+        recordFileWritten(filePath);
     }
 
     /**
@@ -111,11 +204,185 @@ public class Storage {
      * @param updatedTask the new task to replace the old one.
      * @throws IOException if an error occurs while modifying the file.
      */
+    @Override
     public void updateTask(int taskIndex, Task updatedTask) throws IOException {
         Path filePath = Paths.get(filePathString);
         List<String> lines;
-        lines = Files.readAllLines(filePath);
-        lines.set(taskIndex, updatedTask.toString());
-        Files.write(filePath, lines);
+        recordFileRead(filePath);
+        lines = readTaskLines(filePath);
+        lines.set(taskIndex, TaskCodec.encode(updatedTask));
+        replaceLines(filePath, lines);
+        recordFileWritten(filePath);
+    }
+
+    /**
+     * Applies a batch of operations to the storage file.
+     * <p>
+     * A batch made up only of added tasks is appended with one write. Any other batch is applied
+     * to the lines of the file in memory, so the file is read and rewritten once for the whole batch,
+     * and each run of removals in decreasing index order takes a single pass over the lines.
+     *
+     * @param operations the operations to apply, in order.
+     * @throws IOException if an error occurs while modifying the file.
+     */
+    @Override
+    public void apply(List<StorageOperation> operations) throws IOException {
+        boolean isAppendOnly = operations.stream()
+                .allMatch(operation -> operation.getType() == StorageOperation.Type.ADD);
+        if (isAppendOnly) {
+            FileWriter fw = new FileWriter(this.filePathString, true);
+            for (StorageOperation operation : operations) {
+                recordId(operation.getTask());
+                String line = TaskCodec.encode(operation.getTask()) + "\n";
+                fw.write(line);
+                Metrics.recordTextWritten(line);
+            }
+            fw.close();
+            return;
+        }
+
+        Path filePath = Paths.get(this.filePathString);
+        recordFileRead(filePath);
+        List<String> lines = readTaskLines(filePath);
+        int i = 0;
+        while (i < operations.size()) {
+            StorageOperation operation = operations.get(i);
+            switch (operation.getType()) {
+            case ADD:
+                recordId(operation.getTask());
+                lines.add(TaskCodec.encode(operation.getTask()));
+                i++;
+                break;
+            case REMOVE:
+                // blank out a whole run of removals, then close the gaps in one pass
+                int end = StorageOperation.endOfDescendingRemovals(operations, i);
+                for (; i < end; i++) {
+                    lines.set(operations.get(i).getTaskIndex(), null);
+                }
+                lines.removeIf(Objects::isNull);
+                break;
+            case INSERT:
+                recordId(operation.getTask());
+                lines.add(operation.getTaskIndex(), TaskCodec.encode(operation.getTask()));
+                i++;
+                break;
+            default:
+                lines.set(operation.getTaskIndex(), TaskCodec.encode(operation.getTask()));
+                i++;
+                break;
+            }
+        }
+        replaceLines(filePath, lines);
+        recordFileWritten(filePath);
+    }
+
+    /**
+     * Forces the contents of the storage file to the storage device.
+     *
+     * @throws IOException if an error occurs while syncing the file.
+     */
+    @Override
+    public void sync() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(this.filePathString), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Metrics.recordFsync();
+    }
+
+    /**
+     * Replaces the contents of the storage file with the given tasks.
+     * <p>
+     * The tasks are first written to a temporary file next to the storage file, which is forced to
+     * the storage device and then moved over the storage file, so the file never ends up half-written,
+     * and the new contents are durable once this returns.
+     *
+     * @param tasks the tasks to write, in list order.
+     * @throws IOException if an error occurs while writing the file.
+     */
+    @Override
+    public void writeAll(List<Task> tasks) throws IOException {
+        writeAll(tasks, 0);
+    }
+
+    /**
+     * Replaces the contents of the storage file with the given tasks, recording an id for the
+     * next task that is at least {@code nextId}, such as one given to a task that is only in a journal.
+     */
+    void writeAll(List<Task> tasks, long nextId) throws IOException {
+        this.nextId = Math.max(this.nextId, nextId);
+        for (Task task : tasks) {
+            recordId(task);
+        }
+        Path filePath = Paths.get(this.filePathString);
+        Path tempPath = Paths.get(this.filePathString + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+            writer.append(nextIdHeader()).append('\n');
+            StringBuilder line = new StringBuilder();
+            for (Task task : tasks) {
+                line.setLength(0);
+                TaskCodec.encode(task, line);
+                writer.append(line).append('\n');
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Metrics.recordFsync();
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordFileWritten(filePath);
+    }
+
+    /**
+     * Replaces the storage file with the given lines, by writing them to a temporary file, forcing it
+     * to the storage device and moving it over the storage file, so that a crash part way through
+     * never truncates the file, even on file systems that do not flush a file when it is renamed.
+     */
+    private void replaceLines(Path filePath, List<String> lines) throws IOException {
+        Path tempPath = Paths.get(this.filePathString + ".tmp");
+        lines.add(0, nextIdHeader());
+        Files.write(tempPath, lines);
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Metrics.recordFsync();
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the lines of the storage file, leaving out its {@value TaskFileLoader#NEXT_ID_HEADER}
+     * line, so that each line is at the index of its task.
+     */
+    private static List<String> readTaskLines(Path filePath) throws IOException {
+        List<String> lines = Files.readAllLines(filePath);
+        if (!lines.isEmpty() && lines.get(0).startsWith(TaskFileLoader.NEXT_ID_HEADER)) {
+            lines.remove(0);
+        }
+        return lines;
+    }
+
+    private String nextIdHeader() {
+        return TaskFileLoader.NEXT_ID_HEADER + this.nextId;
+    }
+
+    private void recordId(Task task) {
+        this.nextId = Math.max(this.nextId, task.getId() + 1);
+    }
+
+    /**
+     * Counts a whole file as read, if metrics are on. Its size is only looked up then.
+     */
+    private static void recordFileRead(Path filePath) throws IOException {
+        if (Metrics.ENABLED) {
+            Metrics.recordBytesRead(Files.size(filePath));
+        }
+    }
+
+    /**
+     * Counts a whole file as written, if metrics are on. Its size is only looked up then.
+     */
+    private static void recordFileWritten(Path filePath) throws IOException {
+        if (Metrics.ENABLED) {
+            Metrics.recordBytesWritten(Files.size(filePath));
+        }
     }
 }
@@ -0,0 +1,90 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import cody.exception.CodyException;
+
+/**
+ * Creates the {@link TaskStorage} backend selected by the user.
+ * <p>
+ * The backend is chosen through the {@code cody.storage} system property:
+ * <ul>
+ *   <li>{@code text} (default) - a plain text file rewritten on every change, see {@link Storage}</li>
+ *   <li>{@code journal} - a text snapshot plus an append-only journal, see {@link JournaledStorage}</li>
+ *   <li>{@code mapped} - a memory-mapped binary file updated in place, see {@link MappedStorage}.
+ *       The binary file is stored next to the text file with a {@code .bin} extension, and is
+ *       created from the text file the first time this backend is used.</li>
+ * </ul>
+ * If the {@code cody.durability} system property is set to a {@link DurabilityPolicy}, the backend
+ * is wrapped in a {@link WriteBehindStorage} that commits changes according to that policy.
+ */
+public class StorageFactory {
+
+    /** Name of the system property that selects the storage backend. */
+    public static final String STORAGE_PROPERTY = "cody.storage";
+
+    /** Name of the system property that selects the write-behind durability policy, if any. */
+    public static final String DURABILITY_PROPERTY = "cody.durability";
+
+    private StorageFactory() {
+    }
+
+    /**
+     * Creates the storage backend selected by the {@code cody.storage} and
+     * {@code cody.durability} system properties.
+     *
+     * @param directoryName the directory where the storage files are located.
+     * @param filePathString the path of the main storage file.
+     * @return the configured storage backend.
+     * @throws IOException if the storage files cannot be created.
+     */
+    public static TaskStorage create(String directoryName, String filePathString) throws IOException {
+        TaskStorage storage = create(System.getProperty(STORAGE_PROPERTY, "text"), directoryName, filePathString);
+        String durability = System.getProperty(DURABILITY_PROPERTY);
+        if (durability == null) {
+            return storage;
+        }
+        return new WriteBehindStorage(storage, DurabilityPolicy.parse(durability));
+    }
+
+    /**
+     * Creates a storage backend by name.
+     *
+     * @param mode the name of the backend, {@code text}, {@code journal} or {@code mapped}.
+     * @param directoryName the directory where the storage files are located.
+     * @param filePathString the path of the main storage file.
+     * @return the requested storage backend.
+     * @throws IOException if the storage files cannot be created.
+     * @throws IllegalArgumentException if the backend name is unknown.
+     */
+    public static TaskStorage create(String mode, String directoryName, String filePathString)
+            throws IOException {
+        switch (mode) {
+        case "text":
+            return new Storage(directoryName, filePathString);
+        case "journal":
+            return new JournaledStorage(directoryName, filePathString);
+        case "mapped":
+            return createMappedStorage(directoryName, filePathString);
+        default:
+            throw new IllegalArgumentException("Unknown storage mode: " + mode);
+        }
+    }
+
+    private static MappedStorage createMappedStorage(String directoryName, String filePathString)
+            throws IOException {
+        String binaryFilePathString = filePathString.replaceFirst("\\.txt$", "") + ".bin";
+        Path textFilePath = Paths.get(filePathString);
+        if (!Files.exists(Paths.get(binaryFilePathString)) && Files.exists(textFilePath)) {
+            try {
+                MappedStorage.convertFromTextFile(filePathString, binaryFilePathString);
+            } catch (CodyException e) {
+                throw new IOException("Unable to convert " + filePathString + ": " + e.getMessage(), e);
+            }
+        }
+        return new MappedStorage(directoryName, binaryFilePathString);
+    }
+}
@@ -0,0 +1,224 @@
+package cody.tasklist;
+
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.task.TaskCodec;
+
+/**
+ * Represents a single mutation of a task list, as recorded by a {@link JournaledStorage}.
+ * <p>
+ * Each operation is stored as one line in the journal:
+ * <pre>
+ * ADD #6 [T][ ] read book
+ * REMOVE 3
+ * DONE 0
+ * UNDONE 0
+ * INSERT 2 #7 [D][ ] return book (by: 2024-03-05)
+ * </pre>
+ * where the numbers are 0-based task indices.
+ */
+public class StorageOperation {
+
+    /** The kinds of mutation that can be recorded. */
+    public enum Type {
+        ADD, REMOVE, DONE, UNDONE, INSERT
+    }
+
+    private final Type type;
+    private final int taskIndex;
+    private final Task task;
+
+    private StorageOperation(Type type, int taskIndex, Task task) {
+        this.type = type;
+        this.taskIndex = taskIndex;
+        this.task = task;
+    }
+
+    /**
+     * Returns an operation that appends a task to the end of the list.
+     *
+     * @param task the task that was added.
+     * @return the add operation.
+     */
+    public static StorageOperation add(Task task) {
+        return new StorageOperation(Type.ADD, -1, task);
+    }
+
+    /**
+     * Returns an operation that removes the task at the given index.
+     *
+     * @param taskIndex the index of the removed task (0-based).
+     * @return the remove operation.
+     */
+    public static StorageOperation remove(int taskIndex) {
+        return new StorageOperation(Type.REMOVE, taskIndex, null);
+    }
+
+    /**
+     * Returns an operation that sets the completion status of the task at the given index
+     * to the current status of {@code updatedTask}.
+     *
+     * @param taskIndex the index of the updated task (0-based).
+     * @param updatedTask the task as it is after the update.
+     * @return the done or undone operation.
+     */
+    public static StorageOperation update(int taskIndex, Task updatedTask) {
+        Type type = updatedTask.isDone() ? Type.DONE : Type.UNDONE;
+        return new StorageOperation(type, taskIndex, updatedTask);
+    }
+
+    /**
+     * Returns an operation that sets the completion status of the task at the given index,
+     * without carrying the task itself.
+     *
+     * @param taskIndex the index of the updated task (0-based).
+     * @param isDone whether the task becomes done.
+     * @return the done or undone operation.
+     */
+    public static StorageOperation mark(int taskIndex, boolean isDone) {
+        return new StorageOperation(isDone ? Type.DONE : Type.UNDONE, taskIndex, null);
+    }
+
+    /**
+     * Returns an operation that puts a task back at the given index, such as when the removal
+     * of the task is undone. The task keeps the id it had before it was removed.
+     *
+     * @param taskIndex the index the task is inserted at (0-based), at most the size of the list.
+     * @param task the task that was inserted.
+     * @return the insert operation.
+     */
+    public static StorageOperation insert(int taskIndex, Task task) {
+        return new StorageOperation(Type.INSERT, taskIndex, task);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getTaskIndex() {
+        return taskIndex;
+    }
+
+    /**
+     * Returns the task added, inserted or updated by this operation.
+     * Operations read back from a journal only carry the task for {@code ADD} and {@code INSERT}.
+     *
+     * @return the task, or {@code null} if this operation does not carry one.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the end of the run of removals starting at {@code start}, in which every removal
+     * is of a lower index than the one before it. Since none of the removals in such a run
+     * shifts the index of a later one, the whole run can be applied in a single pass.
+     *
+     * @param operations the operations being applied.
+     * @param start the index of a removal in {@code operations}.
+     * @return the index in {@code operations} just after the run.
+     */
+    static int endOfDescendingRemovals(List<StorageOperation> operations, int start) {
+        assert operations.get(start).type == Type.REMOVE : "the run should start with a removal";
+        int end = start + 1;
+        while (end < operations.size() && operations.get(end).type == Type.REMOVE
+                && operations.get(end).taskIndex < operations.get(end - 1).taskIndex) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Applies this operation to an in-memory list of tasks.
+     *
+     * @param tasks the list to modify.
+     * @throws CodyException if the operation refers to a task index that does not exist.
+     */
+    public void applyTo(List<Task> tasks) throws CodyException {
+        int maxTaskIndex = this.type == Type.INSERT ? tasks.size() : tasks.size() - 1;
+        if (this.type != Type.ADD && (this.taskIndex < 0 || this.taskIndex > maxTaskIndex)) {
+            throw new CodyException("Journal refers to a task that does not exist: " + this.toJournalLine());
+        }
+        switch (this.type) {
+        case ADD:
+            tasks.add(this.task);
+            break;
+        case REMOVE:
+            tasks.remove(this.taskIndex);
+            break;
+        case DONE:
+            tasks.get(this.taskIndex).markAsDone();
+            break;
+        case UNDONE:
+            tasks.get(this.taskIndex).markAsNotDone();
+            break;
+        case INSERT:
+            tasks.add(this.taskIndex, this.task);
+            break;
+        default:
+            throw new AssertionError("Unknown operation type " + this.type);
+        }
+    }
+
+    /**
+     * Returns the journal line that represents this operation.
+     *
+     * @return the operation as a single line without a line terminator.
+     */
+    public String toJournalLine() {
+        if (this.type == Type.ADD) {
+            return this.type + " " + TaskCodec.encode(this.task);
+        }
+        if (this.type == Type.INSERT) {
+            return this.type + " " + this.taskIndex + " " + TaskCodec.encode(this.task);
+        }
+        return this.type + " " + this.taskIndex;
+    }
+
+    /**
+     * Converts a journal line back into a {@code StorageOperation}.
+     *
+     * @param line a line previously produced by {@link #toJournalLine()}.
+     * @return the corresponding operation.
+     * @throws CodyException if the line is not a valid journal record.
+     */
+    public static StorageOperation fromJournalLine(String line) throws CodyException {
+        int separator = line.indexOf(' ');
+        if (separator < 0) {
+            throw new CodyException("Invalid journal record: " + line);
+        }
+        String argument = line.substring(separator + 1);
+        Type type;
+        try {
+            type = Type.valueOf(line.substring(0, separator));
+        } catch (IllegalArgumentException e) {
+            throw new CodyException("Unknown journal operation: " + line);
+        }
+        if (type == Type.ADD) {
+            return add(TaskCodec.decode(argument));
+        }
+        Task task = null;
+        if (type == Type.INSERT) {
+            int taskStart = argument.indexOf(' ');
+            if (taskStart < 0) {
+                throw new CodyException("Invalid journal record: " + line);
+            }
+            task = TaskCodec.decode(argument.substring(taskStart + 1));
+            argument = argument.substring(0, taskStart);
+        }
+        int taskIndex;
+        try {
+            taskIndex = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            throw new CodyException("Invalid task index in journal record: " + line);
+        }
+        return new StorageOperation(type, taskIndex, task);
+    }
+
+    @Override
+    public String toString() {
+        return toJournalLine();
+    }
+}
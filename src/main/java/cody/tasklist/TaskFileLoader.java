@@ -0,0 +1,159 @@
+package cody.tasklist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.task.TaskCodec;
+
+/**
+ * Reads a task file, as written by {@link Storage}, using several threads.
+ * <p>
+ * The file is streamed in chunks of lines. Each chunk is parsed on a {@link ForkJoinPool} while
+ * the next one is being read, and the parsed chunks are joined back together in file order, since
+ * task numbers are positional. Only a bounded number of chunks are in flight at any time, so the
+ * raw text of the file is never held in memory all at once.
+ * <p>
+ * A line that cannot be parsed does not stop the load; it is reported in the {@link LoadResult}.
+ * Empty lines are skipped. The file may start with a {@value #NEXT_ID_HEADER} line giving the id
+ * of the next task to be added, which is reported by {@link LoadResult#getNextId()}.
+ */
+public class TaskFileLoader {
+
+    /** Number of lines parsed together as one chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** Start of the optional first line of the file that holds the id of the next task to be added. */
+    public static final String NEXT_ID_HEADER = "# next id ";
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    /**
+     * Constructs a {@code TaskFileLoader} that parses on the common {@link ForkJoinPool}.
+     */
+    public TaskFileLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a {@code TaskFileLoader}.
+     *
+     * @param pool the pool on which chunks are parsed.
+     * @param chunkSize the number of lines parsed together as one chunk.
+     */
+    public TaskFileLoader(ForkJoinPool pool, int chunkSize) {
+        assert chunkSize > 0 : "chunkSize should be positive";
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = 2 * pool.getParallelism() + 1;
+    }
+
+    /**
+     * Reads all tasks from the given file.
+     *
+     * @param filePath the file to read.
+     * @return the tasks read, in file order, together with the lines that could not be read.
+     * @throws IOException if an error occurs when reading the file.
+     */
+    public LoadResult load(Path filePath) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        List<LoadResult.LineError> errors = new ArrayList<>();
+        ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+        long nextId = 0;
+
+        try (BufferedReader reader = new BufferedReader(
+                Files.newBufferedReader(filePath, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            long firstLineNumber = 1;
+            String[] chunk = readChunk(reader);
+            if (chunk != null && chunk[0].startsWith(NEXT_ID_HEADER)) {
+                nextId = parseNextId(chunk[0]);
+                // an empty line is skipped, and keeps the numbers of the lines after it
+                chunk[0] = "";
+            }
+            while (chunk != null) {
+                if (inFlight.size() == this.maxChunksInFlight) {
+                    inFlight.removeFirst().join().addTo(tasks, errors);
+                }
+                String[] lines = chunk;
+                long lineNumber = firstLineNumber;
+                inFlight.addLast(this.pool.submit(() -> parseChunk(lines, lineNumber)));
+                firstLineNumber += chunk.length;
+                chunk = readChunk(reader);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            inFlight.removeFirst().join().addTo(tasks, errors);
+        }
+        return new LoadResult(tasks, errors, nextId);
+    }
+
+    private static long parseNextId(String header) {
+        try {
+            return Long.parseLong(header.substring(NEXT_ID_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private String[] readChunk(BufferedReader reader) throws IOException {
+        String[] chunk = new String[this.chunkSize];
+        int count = 0;
+        String line;
+        while (count < this.chunkSize && (line = reader.readLine()) != null) {
+            chunk[count++] = line;
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count < this.chunkSize) {
+            String[] lastChunk = new String[count];
+            System.arraycopy(chunk, 0, lastChunk, 0, count);
+            return lastChunk;
+        }
+        return chunk;
+    }
+
+    private static ChunkResult parseChunk(String[] lines, long firstLineNumber) {
+        ChunkResult result = new ChunkResult(lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                result.tasks.add(TaskCodec.decode(line));
+            } catch (CodyException | RuntimeException e) {
+                result.errors.add(new LoadResult.LineError(firstLineNumber + i, line, e.getMessage()));
+            }
+        }
+        return result;
+    }
+
+    /** The tasks and errors of one chunk of lines. */
+    private static class ChunkResult {
+        private final ArrayList<Task> tasks;
+        private final List<LoadResult.LineError> errors = new ArrayList<>();
+
+        ChunkResult(int lineCount) {
+            this.tasks = new ArrayList<>(lineCount);
+        }
+
+        void addTo(ArrayList<Task> allTasks, List<LoadResult.LineError> allErrors) {
+            allTasks.addAll(this.tasks);
+            allErrors.addAll(this.errors);
+        }
+    }
+}
@@ -1,23 +1,75 @@
 package cody.tasklist;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import cody.exception.CodyException;
+import cody.metrics.Metrics;
 import cody.task.Task;
+import cody.task.TaskCodec;
 
 /**
  * Represents a list of {@link Task} objects.
  * 
  * <p>This abstraction manages tasks in memory and keeps them
  * synchronized with persistent storage through an instance
- * of {@link Storage}.</p>
+ * of {@link TaskStorage}.</p>
+ *
+ * <p>Every task in the list has an id, which is assigned when it is added and does not change
+ * when other tasks are added or removed. Ids increase in list order, so a task can be looked up
+ * by id in constant time, and its position found by a binary search.</p>
+ *
+ * <p>Every change is recorded in an {@link UndoLog} as the operations that reverse it, so that the
+ * most recent changes can be undone and redone by {@link #undo()} and {@link #redo()}. Undoing the
+ * removal of a task puts the same task back where it was, with the same id.</p>
  */
 public class TaskList {
     ArrayList<Task> tasks = new ArrayList<>();
-    Storage storage;
+    TaskStorage storage;
+
+    /**
+     * Number of tasks in the list equal to each distinct task, keyed on the task's contents
+     * without its id, so that duplicates can be detected without comparing against every task.
+     * The keys are copies, since a task in the list changes when it is marked, and the task is
+     * counted under its new contents once it has been marked or unmarked.
+     */
+    HashMap<String, Integer> taskCounts = new HashMap<>();
+
+    /** Index of the words in task descriptions, used by {@link #getTasksMatchingDescription(String)}. */
+    DescriptionIndex descriptionIndex = new DescriptionIndex();
+
+    /** Index of the dates of deadlines and events, used by the date range queries. */
+    DateIndex dateIndex = new DateIndex();
+
+    /**
+     * Index of the dates of the deadlines and events not done yet, used by {@link #getTasksDueBy(LocalDate)},
+     * so that the tasks done in the past, which only ever grow in number, are never visited.
+     */
+    DateIndex undoneDateIndex = new DateIndex();
+
+    /** The tasks kept sorted in each {@link TaskOrder}, used by {@link #getTasksSortedBy(TaskOrder, int, int)}. */
+    TaskOrderIndex orderIndex = new TaskOrderIndex();
+
+    /** The tasks by id, used by {@link #getById(long)}. */
+    HashMap<Long, Task> tasksById = new HashMap<>();
+
+    /** The id given to the next task added, which is greater than that of every task in the list. */
+    long nextId = 1;
+
+    /** The changes that can be undone or redone. */
+    UndoLog undoLog = new UndoLog();
+
+    /**
+     * Changes made since the last write to storage while a batch is open,
+     * or {@code null} when changes are written to storage as they are made.
+     */
+    private List<StorageOperation> pendingOperations;
 
     /**
      * Creates a TaskList backed by a storage file.
@@ -31,8 +83,59 @@ public class TaskList {
      * @throws CodyException if a parsing error occurs while loading existing tasks
      */
     public TaskList(String directoryName, String filePathString) throws IOException, CodyException {
-        this.storage = new Storage(directoryName, filePathString);
-        this.tasks = storage.getExistingTasks();
+        this(new Storage(directoryName, filePathString));
+    }
+
+    /**
+     * Creates a TaskList backed by the given storage backend,
+     * loading any tasks that were persisted previously.
+     *
+     * @param storage the backend that persists every mutation of this list
+     * @throws IOException if an error occurs while reading from storage
+     * @throws CodyException if a parsing error occurs while loading existing tasks
+     */
+    public TaskList(TaskStorage storage) throws IOException, CodyException {
+        this(storage, true);
+    }
+
+    /**
+     * Creates a TaskList backed by the given storage backend, for subclasses that may keep
+     * their tasks in another form and load them through {@link #loadExistingTasks()} instead.
+     *
+     * @param storage the backend that persists every mutation of this list
+     * @param isLoadingTasks whether to load the persisted tasks into this list and its indexes
+     * @throws IOException if an error occurs while reading from storage
+     * @throws CodyException if a parsing error occurs while loading existing tasks
+     */
+    TaskList(TaskStorage storage, boolean isLoadingTasks) throws IOException, CodyException {
+        this.storage = storage;
+        if (!isLoadingTasks) {
+            return;
+        }
+        long startNanos = Metrics.startTimer();
+        this.tasks = loadExistingTasks();
+        for (Task task : this.tasks) {
+            addToIndexes(task);
+        }
+        Metrics.recordLoad(startNanos, this.tasks.size());
+    }
+
+    /**
+     * Reads the persisted tasks and gives them ids, saving them again if any ids had to be assigned.
+     * The next id is greater than that of every task the storage has persisted, even if the task
+     * with the highest id has since been removed.
+     *
+     * @return the tasks, in list order
+     * @throws IOException if an error occurs while reading from or writing to storage
+     * @throws CodyException if a parsing error occurs while loading existing tasks
+     */
+    ArrayList<Task> loadExistingTasks() throws IOException, CodyException {
+        ArrayList<Task> loadedTasks = this.storage.getExistingTasks();
+        if (assignLoadedIds(loadedTasks)) {
+            this.storage.writeAll(loadedTasks);
+        }
+        this.nextId = Math.max(this.nextId, this.storage.getNextId());
+        return loadedTasks;
     }
 
     /**
@@ -40,7 +143,7 @@ public class TaskList {
      *
      * @return the size of the task list
      */
-    public Integer size() {
+    public int size() {
         return this.tasks.size();
     }
 
@@ -50,23 +153,110 @@ public class TaskList {
      * @param taskNumber the index of the task (0-based)
      * @return the task at the given index
      */
-    public Task get(Integer taskNumber) {
+    public Task get(int taskNumber) {
         return this.tasks.get(taskNumber);
     }
 
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id the id of the task
+     * @return the task, or {@code null} if no task in the list has that id
+     */
+    public Task getById(long id) {
+        return this.tasksById.get(id);
+    }
+
+    /**
+     * Returns the position of the task with the given id.
+     *
+     * @param id the id of the task
+     * @return the index of the task (0-based), or -1 if no task in the list has that id
+     */
+    public int indexOfId(long id) {
+        return indexOfId(this.tasks, id);
+    }
+
+    /**
+     * Finds a task by id with a binary search, which works because ids increase in list order.
+     */
+    static int indexOfId(List<Task> tasks, long id) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = tasks.get(middle).getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Adds a new task to the list and updates the storage file.
+     * The task is given the next id.
      *
      * @param task the task to be added
      * @throws IOException if an error occurs while writing to storage
+     * @throws CodyException if an equal task is already in the list
      */
     public void add(Task task) throws IOException, CodyException {
         // check for duplicates before adding
-        if (this.tasks.contains(task)) {
+        if (this.contains(task)) {
             throw new CodyException("This task already exists!");
         }
-        storage.addToFile(task);
+        task.setId(this.nextId++);
+        persist(StorageOperation.add(task));
         this.tasks.add(task);
+        addToIndexes(task);
+        this.undoLog.record(StorageOperation.remove(this.tasks.size() - 1));
+    }
+
+    /**
+     * Adds every task that is not already in the list, skipping duplicates within
+     * {@code newTasks} as well, and persists them as one batch.
+     * The tasks added are given ids in order.
+     *
+     * @param newTasks the tasks to be added, in order
+     * @return the number of tasks that were added
+     * @throws IOException if an error occurs while writing to storage
+     */
+    public int addAll(List<? extends Task> newTasks) throws IOException {
+        HashSet<Task> batch = new HashSet<>();
+        List<StorageOperation> operations = new ArrayList<>();
+        for (Task task : newTasks) {
+            if (!this.contains(task) && batch.add(task)) {
+                task.setId(this.nextId++);
+                operations.add(StorageOperation.add(task));
+            }
+        }
+        if (operations.isEmpty()) {
+            return 0;
+        }
+        persistAll(operations);
+        List<StorageOperation> inverses = new ArrayList<>(operations.size());
+        for (StorageOperation operation : operations) {
+            this.tasks.add(operation.getTask());
+            addToIndexes(operation.getTask());
+            inverses.add(StorageOperation.remove(this.tasks.size() - 1));
+        }
+        this.undoLog.record(inverses);
+        return operations.size();
+    }
+
+    /**
+     * Returns whether a task equal to the given task is in the list.
+     *
+     * @param task the task to look for
+     * @return true if an equal task is in the list
+     */
+    public boolean contains(Task task) {
+        return this.taskCounts.containsKey(TaskCodec.encodeContents(task));
     }
 
     /**
@@ -78,8 +268,109 @@ public class TaskList {
      */
     public Task remove(int taskIndex) throws IOException {
         assert taskIndex >= 0 && taskIndex < this.tasks.size() : "taskIndex is out of range";
-        storage.removeFromFile(taskIndex);
-        return this.tasks.remove(taskIndex);
+        persist(StorageOperation.remove(taskIndex));
+        Task removedTask = this.tasks.remove(taskIndex);
+        removeFromIndexes(removedTask);
+        this.undoLog.record(StorageOperation.insert(taskIndex, removedTask));
+        return removedTask;
+    }
+
+    /**
+     * Puts a task back into the list at the specified index, keeping the id it already has,
+     * such as when the removal of the task is undone. The id must lie between those of the
+     * tasks on either side of the index, so that ids stay in list order.
+     *
+     * @param taskIndex the index to insert the task at (0-based), at most the size of the list
+     * @param task the task to insert
+     * @throws IOException if an error occurs while updating storage
+     */
+    public void insert(int taskIndex, Task task) throws IOException {
+        assert taskIndex >= 0 && taskIndex <= this.tasks.size() : "taskIndex is out of range";
+        assert task.getId() > 0 && task.getId() < this.nextId : "task should have been given an id by this list";
+        assert taskIndex == 0 || this.tasks.get(taskIndex - 1).getId() < task.getId() : "ids should stay in list order";
+        assert taskIndex == this.tasks.size() || this.tasks.get(taskIndex).getId() > task.getId()
+                : "ids should stay in list order";
+        persist(StorageOperation.insert(taskIndex, task));
+        this.tasks.add(taskIndex, task);
+        addToIndexes(task);
+        this.undoLog.record(StorageOperation.remove(taskIndex));
+    }
+
+    /**
+     * Removes the tasks at the specified indices from the list, and persists the removals as one batch.
+     * The list is compacted in a single pass, however many tasks are removed.
+     *
+     * @param taskIndices the indices of the tasks to remove (0-based), in increasing order without repeats
+     * @return the removed tasks, in list order
+     * @throws IOException if an error occurs while updating storage
+     */
+    public List<Task> removeAll(int[] taskIndices) throws IOException {
+        // removing from the highest index down means no removal shifts the index of a later one
+        List<StorageOperation> operations = new ArrayList<>(taskIndices.length);
+        for (int i = taskIndices.length - 1; i >= 0; i--) {
+            assert i == 0 || taskIndices[i - 1] < taskIndices[i] : "taskIndices should be increasing";
+            operations.add(StorageOperation.remove(taskIndices[i]));
+        }
+        persistAll(operations);
+
+        List<Task> removedTasks = new ArrayList<>(taskIndices.length);
+        int next = 0;
+        int kept = 0;
+        for (int i = 0; i < this.tasks.size(); i++) {
+            Task task = this.tasks.get(i);
+            if (next < taskIndices.length && taskIndices[next] == i) {
+                removedTasks.add(task);
+                removeFromIndexes(task);
+                next++;
+            } else {
+                this.tasks.set(kept++, task);
+            }
+        }
+        this.tasks.subList(kept, this.tasks.size()).clear();
+
+        // the removals were made from the highest index down, and are reversed from the lowest up
+        List<StorageOperation> inverses = new ArrayList<>(taskIndices.length);
+        for (int i = taskIndices.length - 1; i >= 0; i--) {
+            inverses.add(StorageOperation.insert(taskIndices[i], removedTasks.get(i)));
+        }
+        this.undoLog.record(inverses);
+        return removedTasks;
+    }
+
+    /**
+     * Marks the tasks at the specified indices as done or not done, and persists the changes as one batch.
+     * Tasks that already have that status are left as they are.
+     *
+     * @param taskIndices the indices of the tasks to update (0-based)
+     * @param isDone whether the tasks should be marked as done
+     * @return the tasks at those indices, in the order given
+     * @throws IOException if an error occurs while updating storage
+     */
+    public List<Task> markAll(int[] taskIndices, boolean isDone) throws IOException {
+        List<Task> markedTasks = new ArrayList<>(taskIndices.length);
+        List<StorageOperation> operations = new ArrayList<>();
+        List<StorageOperation> inverses = new ArrayList<>();
+        for (int taskIndex : taskIndices) {
+            Task task = this.tasks.get(taskIndex);
+            markedTasks.add(task);
+            if (task.isDone() == isDone) {
+                continue;
+            }
+            unindexTask(task);
+            orderIndex.remove(task);
+            if (isDone) {
+                task.markAsDone();
+            } else {
+                task.markAsNotDone();
+            }
+            indexTask(task);
+            orderIndex.add(task);
+            operations.add(StorageOperation.update(taskIndex, task));
+            inverses.add(StorageOperation.mark(taskIndex, !isDone));
+        }
+        persistAll(operations);
+        this.undoLog.record(inverses);
+        return markedTasks;
     }
 
     /**
@@ -90,8 +381,15 @@ public class TaskList {
      */
     public void markTaskAsDone(int taskIndex) throws IOException {
         assert taskIndex >= 0 && taskIndex < this.tasks.size() : "taskIndex is out of range";
-        this.tasks.get(taskIndex).markAsDone();
-        storage.updateTask(taskIndex, this.tasks.get(taskIndex));
+        Task task = this.tasks.get(taskIndex);
+        boolean wasDone = task.isDone();
+        unindexTask(task);
+        orderIndex.remove(task);
+        task.markAsDone();
+        indexTask(task);
+        orderIndex.add(task);
+        persist(StorageOperation.update(taskIndex, task));
+        this.undoLog.record(StorageOperation.mark(taskIndex, wasDone));
     }
 
     /**
@@ -102,13 +400,336 @@ public class TaskList {
      */
     public void markTaskAsNotDone(int taskIndex) throws IOException {
         assert taskIndex >= 0 && taskIndex < this.tasks.size() : "taskIndex is out of range";
-        this.tasks.get(taskIndex).markAsNotDone();
-        storage.updateTask(taskIndex, this.tasks.get(taskIndex));
+        Task task = this.tasks.get(taskIndex);
+        boolean wasDone = task.isDone();
+        unindexTask(task);
+        orderIndex.remove(task);
+        task.markAsNotDone();
+        indexTask(task);
+        orderIndex.add(task);
+        persist(StorageOperation.update(taskIndex, task));
+        this.undoLog.record(StorageOperation.mark(taskIndex, wasDone));
+    }
+
+    /**
+     * Reverses the most recent change that has not been undone, writing only the reversed
+     * operations to storage, as one write.
+     *
+     * @return the number of tasks added, removed or marked by the change, or 0 if there is nothing to undo
+     * @throws IOException if an error occurs while updating storage
+     */
+    public int undo() throws IOException {
+        List<StorageOperation> step = this.undoLog.takeUndoStep();
+        if (step == null) {
+            return 0;
+        }
+        this.undoLog.addRedoStep(replay(step));
+        return step.size();
+    }
+
+    /**
+     * Makes the most recently undone change again, writing only its operations to storage, as one write.
+     * Changes can only be redone until another change is made.
+     *
+     * @return the number of tasks added, removed or marked by the change, or 0 if there is nothing to redo
+     * @throws IOException if an error occurs while updating storage
+     */
+    public int redo() throws IOException {
+        List<StorageOperation> step = this.undoLog.takeRedoStep();
+        if (step == null) {
+            return 0;
+        }
+        this.undoLog.addUndoStep(replay(step));
+        return step.size();
     }
 
+    /**
+     * Applies the operations of a step of the undo log, last first, through the methods that
+     * change this list, without recording them as a new change.
+     *
+     * @return the operations that reverse those applied, in the order they were applied
+     */
+    private List<StorageOperation> replay(List<StorageOperation> step) throws IOException {
+        List<StorageOperation> inverses = new ArrayList<>(step.size());
+        boolean isInBatch = this.pendingOperations != null;
+        if (!isInBatch) {
+            beginBatch();
+        }
+        this.undoLog.setReplaying(true);
+        try {
+            for (int i = step.size() - 1; i >= 0; i--) {
+                inverses.add(applyOperation(step.get(i)));
+            }
+        } finally {
+            this.undoLog.setReplaying(false);
+            if (!isInBatch) {
+                endBatch();
+            }
+        }
+        return inverses;
+    }
+
+    /**
+     * Applies an operation recorded in the undo log.
+     *
+     * @return the operation that reverses it
+     */
+    private StorageOperation applyOperation(StorageOperation operation) throws IOException {
+        int taskIndex = operation.getTaskIndex();
+        switch (operation.getType()) {
+        case REMOVE:
+            return StorageOperation.insert(taskIndex, remove(taskIndex));
+        case INSERT:
+            insert(taskIndex, operation.getTask());
+            return StorageOperation.remove(taskIndex);
+        case DONE:
+        case UNDONE:
+            boolean wasDone = get(taskIndex).isDone();
+            if (operation.getType() == StorageOperation.Type.DONE) {
+                markTaskAsDone(taskIndex);
+            } else {
+                markTaskAsNotDone(taskIndex);
+            }
+            return StorageOperation.mark(taskIndex, wasDone);
+        default:
+            throw new AssertionError("Additions are undone by removals and redone by insertions");
+        }
+    }
+
+    /**
+     * Starts a batch: until the batch ends, changes to the list are kept in memory and
+     * written to storage together by {@link #flushBatch()} or {@link #endBatch()},
+     * instead of one at a time as they are made.
+     */
+    public void beginBatch() {
+        assert this.pendingOperations == null : "a batch is already open";
+        this.pendingOperations = new ArrayList<>();
+    }
+
+    /**
+     * Returns whether a batch is open, so that changes are not yet written to storage.
+     *
+     * @return true if {@link #beginBatch()} has been called and the batch has not ended
+     */
+    public boolean isInBatch() {
+        return this.pendingOperations != null;
+    }
+
+    /**
+     * Writes the changes made so far in the current batch to storage as one write,
+     * and keeps the batch open. Does nothing if no batch is open, since every change
+     * has then been written already.
+     *
+     * @return the number of changes written
+     * @throws IOException if an error occurs while writing to storage
+     */
+    public int flushBatch() throws IOException {
+        if (this.pendingOperations == null || this.pendingOperations.isEmpty()) {
+            return 0;
+        }
+        List<StorageOperation> operations = this.pendingOperations;
+        this.pendingOperations = new ArrayList<>();
+        long startNanos = Metrics.startTimer();
+        storage.apply(operations);
+        Metrics.recordPersist(startNanos);
+        return operations.size();
+    }
+
+    /**
+     * Writes the changes made in the current batch to storage as one write, and ends the batch.
+     * The batch is ended even if the write fails. Does nothing if no batch is open.
+     *
+     * @return the number of changes written
+     * @throws IOException if an error occurs while writing to storage
+     */
+    public int endBatch() throws IOException {
+        try {
+            return flushBatch();
+        } finally {
+            this.pendingOperations = null;
+        }
+    }
+
+    /**
+     * Returns the persisted entries that could not be read when this list was loaded.
+     *
+     * @return the unreadable entries, in file order
+     */
+    public List<LoadResult.LineError> getLoadErrors() {
+        return storage.getLoadErrors();
+    }
+
+    /**
+     * Writes out any changes still pending, including those of an open batch,
+     * and releases the storage backend.
+     *
+     * @throws IOException if an error occurs while writing to storage
+     */
+    public void close() throws IOException {
+        if (this.pendingOperations != null) {
+            endBatch();
+        }
+        storage.close();
+    }
+
+    /**
+     * Writes a change to storage, or keeps it for the end of the batch if one is open.
+     */
+    void persist(StorageOperation operation) throws IOException {
+        if (this.pendingOperations != null) {
+            this.pendingOperations.add(operation);
+            return;
+        }
+        long startNanos = Metrics.startTimer();
+        switch (operation.getType()) {
+        case ADD:
+            storage.addToFile(operation.getTask());
+            break;
+        case REMOVE:
+            storage.removeFromFile(operation.getTaskIndex());
+            break;
+        case INSERT:
+            storage.insertToFile(operation.getTaskIndex(), operation.getTask());
+            break;
+        default:
+            storage.updateTask(operation.getTaskIndex(), operation.getTask());
+            break;
+        }
+        Metrics.recordPersist(startNanos);
+    }
+
+    /**
+     * Writes changes to storage as one batch, or keeps them for the end of the batch if one is open.
+     */
+    void persistAll(List<StorageOperation> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        if (this.pendingOperations != null) {
+            this.pendingOperations.addAll(operations);
+            return;
+        }
+        long startNanos = Metrics.startTimer();
+        storage.apply(operations);
+        Metrics.recordPersist(startNanos);
+    }
+
+    /**
+     * Returns the tasks whose description contains every word of the search string, in list order.
+     *
+     * <p>Candidates are looked up in an inverted index of description words, so only
+     * tasks that can match are examined.</p>
+     *
+     * @param searchString one or more words separated by whitespace
+     * @return the matching tasks
+     */
     public ArrayList<Task> getTasksMatchingDescription(String searchString) {
-        Stream<Task> tasksStream = this.tasks.stream().filter(task -> task.getDescription().contains(searchString));
-        return new ArrayList<Task>(tasksStream.collect(Collectors.toList()));
+        if (searchString.isBlank()) {
+            Stream<Task> tasksStream = this.tasks.stream().filter(task -> task.getDescription().contains(searchString));
+            return new ArrayList<Task>(tasksStream.collect(Collectors.toList()));
+        }
+        return new ArrayList<Task>(descriptionIndex.find(searchString, this.tasks));
     }
 
+    /**
+     * Returns the deadlines and events that are not done yet and end on or before the given date,
+     * ordered by end date.
+     *
+     * @param date the last date to include
+     * @return the matching tasks
+     */
+    public ArrayList<Task> getTasksDueBy(LocalDate date) {
+        return new ArrayList<Task>(undoneDateIndex.endingOnOrBefore(date));
+    }
+
+    /**
+     * Returns the deadlines and events whose dates overlap the given range, ordered by end date.
+     * A deadline only covers its end date; an event covers its start date through its end date.
+     *
+     * @param from the first date of the range
+     * @param to the last date of the range
+     * @return the matching tasks
+     */
+    public ArrayList<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        return new ArrayList<Task>(dateIndex.overlapping(from, to));
+    }
+
+    /**
+     * Returns the deadlines due on the given date and the events taking place on it, ordered by end date.
+     *
+     * @param date the date to look up
+     * @return the matching tasks
+     */
+    public ArrayList<Task> getTasksOn(LocalDate date) {
+        return getTasksBetween(date, date);
+    }
+
+    /**
+     * Returns a range of the tasks in the given order, read from an index that is kept sorted
+     * as the list changes, so only the tasks up to the end of the range are visited.
+     * Tasks that tie on the order's key are in list order.
+     *
+     * @param order the order to list the tasks in
+     * @param offset the number of tasks to skip from the start of the order
+     * @param limit the most tasks to return
+     * @return the tasks, in order
+     */
+    public List<Task> getTasksSortedBy(TaskOrder order, int offset, int limit) {
+        return orderIndex.get(order, offset, limit);
+    }
+
+    /**
+     * Makes the ids of the loaded tasks increase in list order, giving the next free id to each
+     * task that has no id, such as those of a file written before tasks had ids, or whose id is
+     * out of order. The other tasks keep their ids.
+     *
+     * @return whether any task was given a new id
+     */
+    private boolean assignLoadedIds(List<Task> loadedTasks) {
+        long lastId = 0;
+        boolean isChanged = false;
+        for (Task task : loadedTasks) {
+            if (task.getId() <= lastId) {
+                task.setId(lastId + 1);
+                isChanged = true;
+            }
+            lastId = task.getId();
+        }
+        this.nextId = lastId + 1;
+        return isChanged;
+    }
+
+    private void addToIndexes(Task task) {
+        this.tasksById.put(task.getId(), task);
+        indexTask(task);
+        descriptionIndex.add(task);
+        dateIndex.add(task);
+        orderIndex.add(task);
+    }
+
+    private void removeFromIndexes(Task task) {
+        this.tasksById.remove(task.getId());
+        unindexTask(task);
+        descriptionIndex.remove(task);
+        dateIndex.remove(task);
+        orderIndex.remove(task);
+    }
+
+    /**
+     * Adds a task to the indexes that depend on whether it is done, which are updated around every
+     * change to its status.
+     */
+    private void indexTask(Task task) {
+        this.taskCounts.merge(TaskCodec.encodeContents(task), 1, Integer::sum);
+        if (!task.isDone()) {
+            undoneDateIndex.add(task);
+        }
+    }
+
+    private void unindexTask(Task task) {
+        this.taskCounts.computeIfPresent(TaskCodec.encodeContents(task), (key, count) -> count == 1 ? null : count - 1);
+        if (!task.isDone()) {
+            undoneDateIndex.remove(task);
+        }
+    }
 }
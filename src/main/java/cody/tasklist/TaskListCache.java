@@ -0,0 +1,213 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import cody.exception.CodyException;
+
+/**
+ * Keeps the named task lists in a directory, loading each one the first time it is used.
+ * <p>
+ * The list called {@code name} is stored in {@code <directory>/<name>.txt}, using the backend
+ * chosen by {@link StorageFactory}, so the default list {@code tasks} is the file Cody has always used.
+ * If the {@code cody.tasklist} system property is set to {@code compact}, lists are loaded as
+ * {@link CompactTaskList}s, which take much less memory per task but search by scanning.
+ * <p>
+ * Only a bounded number of lists are kept in memory, both by count and by their total number of
+ * tasks, which is what most of their memory goes to. When a list is loaded and either limit is
+ * exceeded, the least recently used lists are closed, which writes out their pending changes,
+ * and dropped from memory until they are used again. The list that was just asked for is never
+ * dropped, even if it is over the limits by itself.
+ */
+public class TaskListCache {
+
+    /** Name of the system property that selects how loaded lists keep their tasks in memory. */
+    public static final String TASK_LIST_PROPERTY = "cody.tasklist";
+
+    /** The name of the list used when no other list has been chosen. */
+    public static final String DEFAULT_LIST_NAME = "tasks";
+
+    /** The default number of lists kept in memory. */
+    public static final int DEFAULT_MAX_LOADED_LISTS = 16;
+
+    /** The default total number of tasks kept in memory across all loaded lists. */
+    public static final int DEFAULT_MAX_LOADED_TASKS = 200_000;
+
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private final String directoryName;
+    private final int maxLoadedLists;
+    private final int maxLoadedTasks;
+
+    /** The loaded lists, from least to most recently used. */
+    private final LinkedHashMap<String, TaskList> loadedLists = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Constructs a cache of the lists in a directory with the default limits.
+     *
+     * @param directoryName the directory where the list files are stored
+     */
+    public TaskListCache(String directoryName) {
+        this(directoryName, DEFAULT_MAX_LOADED_LISTS, DEFAULT_MAX_LOADED_TASKS);
+    }
+
+    /**
+     * Constructs a cache of the lists in a directory.
+     *
+     * @param directoryName the directory where the list files are stored
+     * @param maxLoadedLists the number of lists kept in memory
+     * @param maxLoadedTasks the total number of tasks kept in memory across all loaded lists
+     */
+    public TaskListCache(String directoryName, int maxLoadedLists, int maxLoadedTasks) {
+        assert maxLoadedLists > 0 : "at least one list should be kept in memory";
+        this.directoryName = directoryName;
+        this.maxLoadedLists = maxLoadedLists;
+        this.maxLoadedTasks = maxLoadedTasks;
+    }
+
+    /**
+     * Checks if a name can be used for a list, which is stored in a file of the same name.
+     *
+     * @param name the name to check
+     * @return whether the name is 1 to 64 letters, digits, {@code -} or {@code _}
+     */
+    public static boolean isValidName(String name) {
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '-'
+                    && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the list with the given name, loading it or creating an empty one if it is not in memory.
+     * Loading a list may close and drop the least recently used lists.
+     *
+     * @param name a valid list name
+     * @return the list
+     * @throws IOException if an error occurs while loading this list or writing out a dropped one
+     * @throws CodyException if the list file has tasks that cannot be read
+     */
+    public TaskList get(String name) throws IOException, CodyException {
+        assert isValidName(name) : "name should have been checked with isValidName";
+        TaskList tasks = this.loadedLists.get(name);
+        if (tasks != null) {
+            return tasks;
+        }
+        String filePathString = Paths.get(this.directoryName, name + ".txt").toString();
+        tasks = createTaskList(StorageFactory.create(this.directoryName, filePathString));
+        this.loadedLists.put(name, tasks);
+        evictLeastRecentlyUsed(tasks);
+        return tasks;
+    }
+
+    /**
+     * Loads a list from its storage, as the kind of list selected by the {@code cody.tasklist} system property.
+     *
+     * @throws IllegalArgumentException if the selected kind of list is unknown
+     */
+    private static TaskList createTaskList(TaskStorage storage) throws IOException, CodyException {
+        String mode = System.getProperty(TASK_LIST_PROPERTY, "standard");
+        switch (mode) {
+        case "standard":
+            return new TaskList(storage);
+        case "compact":
+            return new CompactTaskList(storage);
+        default:
+            storage.close();
+            throw new IllegalArgumentException("Unknown task list mode: " + mode);
+        }
+    }
+
+    /**
+     * Returns the names of all lists, whether they are in memory or only stored in the directory.
+     *
+     * @return the names, in alphabetical order
+     * @throws IOException if the directory cannot be read
+     */
+    public List<String> getListNames() throws IOException {
+        TreeSet<String> names = new TreeSet<>(this.loadedLists.keySet());
+        Path directoryPath = Paths.get(this.directoryName);
+        if (Files.isDirectory(directoryPath)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directoryPath, "*.{txt,bin}")) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String name = fileName.substring(0, fileName.length() - ".txt".length());
+                    if (isValidName(name)) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Returns the number of lists currently in memory.
+     *
+     * @return the number of loaded lists
+     */
+    public int getLoadedListCount() {
+        return this.loadedLists.size();
+    }
+
+    /**
+     * Closes every loaded list, writing out their pending changes.
+     * Every list is closed even if closing one of them fails.
+     *
+     * @throws IOException the first error that occurred while closing a list
+     */
+    public void close() throws IOException {
+        IOException firstError = null;
+        for (TaskList tasks : this.loadedLists.values()) {
+            try {
+                tasks.close();
+            } catch (IOException e) {
+                if (firstError == null) {
+                    firstError = e;
+                }
+            }
+        }
+        this.loadedLists.clear();
+        if (firstError != null) {
+            throw firstError;
+        }
+    }
+
+    /**
+     * Closes and drops the least recently used lists until the cache is within its limits,
+     * without dropping {@code keep}.
+     */
+    private void evictLeastRecentlyUsed(TaskList keep) throws IOException {
+        int loadedTaskCount = 0;
+        for (TaskList tasks : this.loadedLists.values()) {
+            loadedTaskCount += tasks.size();
+        }
+        Iterator<Map.Entry<String, TaskList>> leastRecentlyUsed = this.loadedLists.entrySet().iterator();
+        while (this.loadedLists.size() > this.maxLoadedLists || loadedTaskCount > this.maxLoadedTasks) {
+            TaskList tasks = leastRecentlyUsed.next().getValue();
+            if (tasks == keep) {
+                break;
+            }
+            // a list whose changes could not be written out stays in memory, so they are not lost
+            tasks.close();
+            leastRecentlyUsed.remove();
+            loadedTaskCount -= tasks.size();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package cody.tasklist;
+
+/**
+ * The orders other than list order that the tasks of a {@link TaskList} can be listed in.
+ * Tasks that tie on the order's key are kept in list order.
+ */
+public enum TaskOrder {
+    /** Deadlines and events by end date, followed by todos, which have no date. */
+    DATE,
+    /** Tasks not done yet, followed by those done. */
+    STATUS,
+    /** Todos, then deadlines, then events. */
+    TYPE;
+
+    /**
+     * Returns the order with the given name, as typed by the user.
+     *
+     * @param name the name of the order, such as {@code date}, in any case
+     * @return the order, or {@code null} if there is no order with that name
+     */
+    public static TaskOrder fromName(String name) {
+        for (TaskOrder order : values()) {
+            if (order.name().equalsIgnoreCase(name)) {
+                return order;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package cody.tasklist;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+
+/**
+ * Keeps the tasks of a list sorted in each {@link TaskOrder}, so that a page of a sorted listing
+ * can be read without sorting the whole list.
+ * <p>
+ * Each order is a tree of tasks keyed on the order's key and then on id, which is also list order,
+ * so every task has a distinct place. Adding and removing a task takes O(log n) per order, and the
+ * tasks at positions {@code offset} to {@code offset + k} of an order are read in O(log n + offset + k).
+ * Since the status key changes when a task is marked, a task must be removed before it is marked
+ * and added again afterwards, as the duplicate index of {@link TaskList} requires.
+ */
+class TaskOrderIndex {
+
+    private final EnumMap<TaskOrder, TreeSet<Task>> sortedTasks = new EnumMap<>(TaskOrder.class);
+
+    TaskOrderIndex() {
+        this.sortedTasks.put(TaskOrder.DATE, new TreeSet<>(
+                Comparator.comparingLong(TaskOrderIndex::dateKeyOf).thenComparingLong(Task::getId)));
+        this.sortedTasks.put(TaskOrder.STATUS, new TreeSet<>(
+                Comparator.comparing(Task::isDone).thenComparingLong(Task::getId)));
+        this.sortedTasks.put(TaskOrder.TYPE, new TreeSet<>(
+                Comparator.comparingInt(TaskOrderIndex::typeKeyOf).thenComparingLong(Task::getId)));
+    }
+
+    /**
+     * Adds a task to every order.
+     *
+     * @param task the task to add.
+     */
+    void add(Task task) {
+        for (TreeSet<Task> tasks : this.sortedTasks.values()) {
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from every order. The task must not have changed since it was added.
+     *
+     * @param task the task to remove.
+     */
+    void remove(Task task) {
+        for (TreeSet<Task> tasks : this.sortedTasks.values()) {
+            tasks.remove(task);
+        }
+    }
+
+    /**
+     * Returns a range of the tasks in the given order.
+     *
+     * @param order the order to list the tasks in.
+     * @param offset the number of tasks to skip from the start of the order.
+     * @param limit the most tasks to return.
+     * @return the tasks, in order.
+     */
+    List<Task> get(TaskOrder order, int offset, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Task> iterator = this.sortedTasks.get(order).iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Returns the end day of a dated task, or a day after every other for a todo.
+     */
+    static long dateKeyOf(Task task) {
+        return DateIndex.isDated(task) ? DateIndex.endDayOf(task) : Long.MAX_VALUE;
+    }
+
+    static int typeKeyOf(Task task) {
+        if (task instanceof Deadline) {
+            return 1;
+        }
+        return task instanceof Event ? 2 : 0;
+    }
+}
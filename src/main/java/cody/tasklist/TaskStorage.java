@@ -0,0 +1,144 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+
+/**
+ * Represents a persistence backend for a {@link TaskList}.
+ * <p>
+ * Implementations receive every mutation made to the task list, addressed by the
+ * 0-based position of the task, and must be able to reproduce the same list of tasks
+ * through {@link #getExistingTasks()} when the application restarts.
+ */
+public interface TaskStorage {
+
+    /**
+     * Reads all tasks that have been persisted so far, in list order.
+     *
+     * @return an {@code ArrayList} containing all persisted tasks.
+     * @throws IOException if an error occurs when reading the underlying file(s).
+     * @throws CodyException if the persisted data does not correspond to valid tasks.
+     */
+    ArrayList<Task> getExistingTasks() throws IOException, CodyException;
+
+    /**
+     * Returns the persisted entries that could not be read by the last call to
+     * {@link #getExistingTasks()} and were left out of the returned list.
+     * <p>
+     * The default implementation reports no errors.
+     *
+     * @return the unreadable entries, in file order.
+     */
+    default List<LoadResult.LineError> getLoadErrors() {
+        return List.of();
+    }
+
+    /**
+     * Returns the id to give the next task added, as persisted when the tasks were last read by
+     * {@link #getExistingTasks()}. It is greater than the id of every task persisted so far,
+     * including tasks that have since been removed, so that the id of a removed task is never
+     * given to another one after a restart.
+     * <p>
+     * The default implementation returns 0, so that only the ids of the persisted tasks are used.
+     *
+     * @return the next id, or 0 if it is not known.
+     */
+    default long getNextId() {
+        return 0;
+    }
+
+    /**
+     * Persists a task that has been appended to the end of the list.
+     *
+     * @param task the task that was added.
+     * @throws IOException if an error occurs while writing.
+     */
+    void addToFile(Task task) throws IOException;
+
+    /**
+     * Persists the removal of the task at the given position.
+     *
+     * @param taskIndex the index of the removed task (0-based).
+     * @throws IOException if an error occurs while writing.
+     */
+    void removeFromFile(int taskIndex) throws IOException;
+
+    /**
+     * Persists a task that has been put back at the given position, such as when its removal
+     * is undone. The task keeps its id, so ids stay in list order.
+     *
+     * @param taskIndex the index the task was inserted at (0-based).
+     * @param task the task that was inserted.
+     * @throws IOException if an error occurs while writing.
+     */
+    void insertToFile(int taskIndex, Task task) throws IOException;
+
+    /**
+     * Persists a change to the task at the given position.
+     *
+     * @param taskIndex the index of the updated task (0-based).
+     * @param updatedTask the task as it is after the update.
+     * @throws IOException if an error occurs while writing.
+     */
+    void updateTask(int taskIndex, Task updatedTask) throws IOException;
+
+    /**
+     * Persists a batch of operations, in order, as one write where the backend allows it.
+     * <p>
+     * The default implementation persists each operation on its own.
+     *
+     * @param operations the operations to persist.
+     * @throws IOException if an error occurs while writing.
+     */
+    default void apply(List<StorageOperation> operations) throws IOException {
+        for (StorageOperation operation : operations) {
+            switch (operation.getType()) {
+            case ADD:
+                addToFile(operation.getTask());
+                break;
+            case REMOVE:
+                removeFromFile(operation.getTaskIndex());
+                break;
+            case INSERT:
+                insertToFile(operation.getTaskIndex(), operation.getTask());
+                break;
+            default:
+                updateTask(operation.getTaskIndex(), operation.getTask());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replaces everything persisted so far with the given tasks, such as when the tasks of an
+     * older file have been given ids.
+     *
+     * @param tasks the tasks to persist, in list order.
+     * @throws IOException if an error occurs while writing.
+     */
+    void writeAll(List<Task> tasks) throws IOException;
+
+    /**
+     * Forces everything written so far to the storage device.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @throws IOException if an error occurs while syncing.
+     */
+    default void sync() throws IOException {
+    }
+
+    /**
+     * Writes out anything still pending and releases the resources held by this backend.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @throws IOException if an error occurs while writing.
+     */
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,109 @@
+package cody.tasklist;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * A bounded history of the changes made to a {@link TaskList}, kept as the operations that reverse them.
+ * <p>
+ * Each change to the list, such as adding a task or marking several tasks at once, is recorded as
+ * one step: the inverse of every operation it made, in the order the operations were made. Undoing
+ * the step applies those inverses last first, and records their own inverses as a step that redoes
+ * it. An inverse only holds a task index, plus the task itself when a removal is reversed, so the
+ * history takes a small, fixed amount of memory per task changed, whatever the size of the list.
+ * <p>
+ * Only the most recent {@code maxSteps} steps are kept. Recording a new change clears the steps
+ * that could be redone, since they no longer apply to the list.
+ */
+class UndoLog {
+
+    /** The default number of changes that can be undone. */
+    static final int DEFAULT_MAX_STEPS = 100;
+
+    private final int maxSteps;
+    private final ArrayDeque<List<StorageOperation>> undoSteps = new ArrayDeque<>();
+    private final ArrayDeque<List<StorageOperation>> redoSteps = new ArrayDeque<>();
+
+    /** Whether a step is being undone or redone, during which changes to the list are not recorded. */
+    private boolean isReplaying;
+
+    UndoLog() {
+        this(DEFAULT_MAX_STEPS);
+    }
+
+    UndoLog(int maxSteps) {
+        assert maxSteps > 0 : "at least one step should be kept";
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Records a change made of a single operation.
+     *
+     * @param inverse the operation that reverses it.
+     */
+    void record(StorageOperation inverse) {
+        record(List.of(inverse));
+    }
+
+    /**
+     * Records a change, unless it is made while undoing or redoing another one.
+     *
+     * @param inverses the operations that reverse each operation of the change, in the order
+     *                 the operations were made. A change with no operations is not recorded.
+     */
+    void record(List<StorageOperation> inverses) {
+        if (this.isReplaying || inverses.isEmpty()) {
+            return;
+        }
+        this.redoSteps.clear();
+        push(this.undoSteps, inverses);
+    }
+
+    /**
+     * Takes the most recent change that can be undone.
+     *
+     * @return the inverses recorded for it, or {@code null} if there is nothing to undo.
+     */
+    List<StorageOperation> takeUndoStep() {
+        return this.undoSteps.pollLast();
+    }
+
+    /**
+     * Takes the most recently undone change.
+     *
+     * @return the operations that redo it, or {@code null} if there is nothing to redo.
+     */
+    List<StorageOperation> takeRedoStep() {
+        return this.redoSteps.pollLast();
+    }
+
+    /**
+     * Keeps a change that has just been undone, so that it can be redone.
+     *
+     * @param operations the operations that redo it, in the order they should be reversed.
+     */
+    void addRedoStep(List<StorageOperation> operations) {
+        push(this.redoSteps, operations);
+    }
+
+    /**
+     * Keeps a change that has just been redone, so that it can be undone again.
+     * Unlike {@link #record(List)}, the changes that can still be redone are kept.
+     *
+     * @param inverses the operations that reverse it.
+     */
+    void addUndoStep(List<StorageOperation> inverses) {
+        push(this.undoSteps, inverses);
+    }
+
+    void setReplaying(boolean isReplaying) {
+        this.isReplaying = isReplaying;
+    }
+
+    private void push(ArrayDeque<List<StorageOperation>> steps, List<StorageOperation> step) {
+        steps.addLast(step);
+        if (steps.size() > this.maxSteps) {
+            steps.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cody.tasklist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+
+/**
+ * Queues the operations of a {@link TaskList} and commits them to another {@link TaskStorage}
+ * in batches, on a dedicated flusher thread.
+ * <p>
+ * Each commit hands every queued operation to {@link TaskStorage#apply(List)} and then calls
+ * {@link TaskStorage#sync()}, so a burst of commands costs one write instead of one per command.
+ * When commits happen is decided by a {@link DurabilityPolicy}. {@link #flush()} and
+ * {@link #close()} wait until everything queued so far has been committed.
+ * <p>
+ * If a commit fails, the error is reported by the next call made to this storage.
+ */
+public class WriteBehindStorage implements TaskStorage {
+
+    private final TaskStorage delegate;
+    private final DurabilityPolicy policy;
+    private final Thread flusher;
+    private final Thread shutdownHook;
+
+    /** Guards every field below. */
+    private final Object lock = new Object();
+    private ArrayList<StorageOperation> pending = new ArrayList<>();
+    private long queuedCount;
+    private long committedCount;
+    private long flushRequestedCount;
+    private long lastCommitMillis = System.currentTimeMillis();
+    private IOException failure;
+    private boolean isClosed;
+
+    /**
+     * Constructs a {@code WriteBehindStorage} and starts its flusher thread.
+     * <p>
+     * A shutdown hook flushes the queue if the application exits without closing the task list.
+     *
+     * @param delegate the backend that operations are committed to.
+     * @param policy decides when queued operations are committed.
+     */
+    public WriteBehindStorage(TaskStorage delegate, DurabilityPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.flusher = new Thread(this::runFlusher, "cody-storage-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        this.shutdownHook = new Thread(this::closeQuietly, "cody-storage-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Commits any queued operations, then reads the tasks from the underlying storage.
+     *
+     * @return an {@code ArrayList} containing all persisted tasks.
+     * @throws IOException if an error occurs when committing or reading.
+     * @throws CodyException if the persisted data does not correspond to valid tasks.
+     */
+    @Override
+    public ArrayList<Task> getExistingTasks() throws IOException, CodyException {
+        flush();
+        return this.delegate.getExistingTasks();
+    }
+
+    @Override
+    public List<LoadResult.LineError> getLoadErrors() {
+        return this.delegate.getLoadErrors();
+    }
+
+    @Override
+    public long getNextId() {
+        return this.delegate.getNextId();
+    }
+
+    @Override
+    public void addToFile(Task task) throws IOException {
+        enqueue(StorageOperation.add(task));
+    }
+
+    @Override
+    public void removeFromFile(int taskIndex) throws IOException {
+        enqueue(StorageOperation.remove(taskIndex));
+    }
+
+    @Override
+    public void insertToFile(int taskIndex, Task task) throws IOException {
+        enqueue(StorageOperation.insert(taskIndex, task));
+    }
+
+    @Override
+    public void updateTask(int taskIndex, Task updatedTask) throws IOException {
+        enqueue(StorageOperation.update(taskIndex, updatedTask));
+    }
+
+    @Override
+    public void apply(List<StorageOperation> operations) throws IOException {
+        for (StorageOperation operation : operations) {
+            enqueue(operation);
+        }
+    }
+
+    /**
+     * Commits every queued operation, then replaces the contents of the underlying storage.
+     *
+     * @param tasks the tasks to write, in list order.
+     * @throws IOException if an error occurs when committing or writing.
+     */
+    @Override
+    public void writeAll(List<Task> tasks) throws IOException {
+        flush();
+        this.delegate.writeAll(tasks);
+    }
+
+    /**
+     * Commits every queued operation and waits until the commit has finished.
+     */
+    @Override
+    public void sync() throws IOException {
+        flush();
+    }
+
+    /**
+     * Commits every operation queued so far and waits until the commit has finished.
+     *
+     * @throws IOException if a commit has failed.
+     */
+    public void flush() throws IOException {
+        synchronized (this.lock) {
+            this.flushRequestedCount = this.queuedCount;
+            this.lock.notifyAll();
+            awaitCommitted(this.queuedCount);
+        }
+    }
+
+    /**
+     * Commits every queued operation, stops the flusher thread and closes the underlying storage.
+     *
+     * @throws IOException if a commit has failed or the underlying storage cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.lock) {
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            this.lock.notifyAll();
+            awaitCommitted(this.queuedCount);
+        }
+        try {
+            this.flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // the application is already shutting down, which is what the hook is for
+        }
+        this.delegate.close();
+    }
+
+    private void enqueue(StorageOperation operation) throws IOException {
+        synchronized (this.lock) {
+            throwIfFailed();
+            if (this.isClosed) {
+                throw new IOException("Storage has already been closed.");
+            }
+            this.pending.add(operation);
+            this.queuedCount++;
+            this.lock.notifyAll();
+            if (this.policy.getMode() == DurabilityPolicy.Mode.SYNC) {
+                awaitCommitted(this.queuedCount);
+            }
+        }
+    }
+
+    /** Must be called while holding {@code lock}. */
+    private void awaitCommitted(long operationCount) throws IOException {
+        boolean isInterrupted = false;
+        while (this.committedCount < operationCount && this.failure == null) {
+            try {
+                this.lock.wait();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        throwIfFailed();
+    }
+
+    /** Must be called while holding {@code lock}. */
+    private void throwIfFailed() throws IOException {
+        if (this.failure != null) {
+            throw new IOException("Unable to save tasks: " + this.failure.getMessage(), this.failure);
+        }
+    }
+
+    /** Must be called while holding {@code lock}. Returns how long to wait, or 0 to commit now. */
+    private long millisUntilCommit() {
+        if (this.pending.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        if (this.isClosed || this.flushRequestedCount > this.committedCount) {
+            return 0;
+        }
+        switch (this.policy.getMode()) {
+        case SYNC:
+            return 0;
+        case INTERVAL:
+            long elapsedMillis = System.currentTimeMillis() - this.lastCommitMillis;
+            return Math.max(0, this.policy.getParameter() - elapsedMillis);
+        case OPERATIONS:
+            return this.pending.size() >= this.policy.getParameter() ? 0 : Long.MAX_VALUE;
+        default:
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            ArrayList<StorageOperation> batch;
+            synchronized (this.lock) {
+                long waitMillis = millisUntilCommit();
+                while (waitMillis > 0) {
+                    if (this.isClosed && this.pending.isEmpty()) {
+                        return;
+                    }
+                    try {
+                        this.lock.wait(waitMillis == Long.MAX_VALUE ? 0 : waitMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    waitMillis = millisUntilCommit();
+                }
+                batch = this.pending;
+                this.pending = new ArrayList<>();
+            }
+
+            IOException commitFailure = null;
+            try {
+                this.delegate.apply(batch);
+                this.delegate.sync();
+            } catch (IOException e) {
+                commitFailure = e;
+            } catch (RuntimeException e) {
+                commitFailure = new IOException(e.getMessage(), e);
+            }
+
+            synchronized (this.lock) {
+                this.committedCount += batch.size();
+                this.lastCommitMillis = System.currentTimeMillis();
+                if (commitFailure != null && this.failure == null) {
+                    this.failure = commitFailure;
+                }
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
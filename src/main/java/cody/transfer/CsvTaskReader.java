@@ -0,0 +1,163 @@
+package cody.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+/**
+ * Reads tasks from a CSV file with one task per row, in the columns written by {@link CsvTaskWriter}:
+ * <pre>
+ * type,description,done,start,end
+ * todo,read book,false,,
+ * deadline,return book,true,,2024-03-05
+ * event,"project week, part 2",false,2024-03-04,2024-03-08
+ * </pre>
+ * The type is {@code todo}, {@code deadline} or {@code event}, done is {@code true} or {@code false}
+ * (blank means not done), and dates are in {@code yyyy-mm-dd} form. The header row is optional.
+ * Fields are quoted as described in RFC 4180, so a quoted field may hold commas, doubled quotes
+ * and line breaks, although a description with a line break is rejected.
+ */
+public class CsvTaskReader implements TaskReader {
+
+    private static final int COLUMN_COUNT = 5;
+
+    private final BufferedReader reader;
+    private long nextLineNumber = 1;
+    private long lineNumber;
+
+    /**
+     * Constructs a {@code CsvTaskReader}.
+     *
+     * @param reader the CSV text to read.
+     */
+    public CsvTaskReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Task read() throws IOException, CodyException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (isBlank(fields) || this.lineNumber == 1 && fields.get(0).trim().equalsIgnoreCase("type"));
+
+        if (fields.size() != COLUMN_COUNT) {
+            throw new CodyException("Expected " + COLUMN_COUNT + " fields but found " + fields.size());
+        }
+        String description = TaskTransfer.checkDescription(fields.get(1));
+        boolean isDone = parseDone(fields.get(2).trim());
+        String type = fields.get(0).trim().toLowerCase();
+        switch (type) {
+        case "todo":
+            return new ToDo(description, isDone);
+        case "deadline":
+            return new Deadline(description, parseDate(fields.get(4), "end"), isDone);
+        case "event":
+            LocalDate startDate = parseDate(fields.get(3), "start");
+            LocalDate endDate = parseDate(fields.get(4), "end");
+            if (endDate.isBefore(startDate)) {
+                throw new CodyException("End date cannot be before start date.");
+            }
+            return new Event(description, startDate, endDate, isDone);
+        default:
+            throw new CodyException("Unknown task type: " + fields.get(0));
+        }
+    }
+
+    @Override
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Reads the fields of the next row, which spans more than one line if a quoted field holds a line break.
+     *
+     * @return the fields, or {@code null} at the end of the file.
+     */
+    private List<String> readRecord() throws IOException, CodyException {
+        String line = this.reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        this.lineNumber = this.nextLineNumber++;
+        List<String> fields = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!isQuoted) {
+                    break;
+                }
+                // a quoted field goes on to the next line
+                line = this.reader.readLine();
+                if (line == null) {
+                    throw new CodyException("Quoted field is not closed");
+                }
+                this.nextLineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (isQuoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private static boolean parseDone(String done) throws CodyException {
+        if (done.isEmpty() || done.equalsIgnoreCase("false")) {
+            return false;
+        }
+        if (done.equalsIgnoreCase("true")) {
+            return true;
+        }
+        throw new CodyException("Done should be true or false: " + done);
+    }
+
+    private static LocalDate parseDate(String date, String column) throws CodyException {
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            throw new CodyException("Invalid " + column + " date, expected yyyy-mm-dd: " + date);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cody.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+
+/**
+ * Writes tasks to a CSV file with a header row and one task per row, in the format read by
+ * {@link CsvTaskReader}. Fields holding a comma, a quote or a line break are quoted.
+ */
+public class CsvTaskWriter implements TaskWriter {
+
+    /** The header row, naming the columns. */
+    static final String HEADER = "type,description,done,start,end";
+
+    private final Writer writer;
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Constructs a {@code CsvTaskWriter} and writes the header row.
+     *
+     * @param writer where the CSV text is written.
+     * @throws IOException if the header cannot be written.
+     */
+    public CsvTaskWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        this.writer.write(HEADER + "\n");
+    }
+
+    @Override
+    public void write(Task task) throws IOException {
+        this.row.setLength(0);
+        if (task instanceof Deadline) {
+            this.row.append("deadline,");
+        } else if (task instanceof Event) {
+            this.row.append("event,");
+        } else {
+            this.row.append("todo,");
+        }
+        appendField(task.getDescription());
+        this.row.append(',').append(task.isDone()).append(',');
+        if (task instanceof Event) {
+            this.row.append(((Event) task).getStartDate()).append(',').append(((Event) task).getEndDate());
+        } else if (task instanceof Deadline) {
+            this.row.append(',').append(((Deadline) task).getEndDate());
+        } else {
+            this.row.append(',');
+        }
+        this.row.append('\n');
+        this.writer.append(this.row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+
+    private void appendField(String value) {
+        boolean isQuoted = false;
+        for (int i = 0; i < value.length() && !isQuoted; i++) {
+            char c = value.charAt(i);
+            isQuoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!isQuoted) {
+            this.row.append(value);
+            return;
+        }
+        this.row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                this.row.append('"');
+            }
+            this.row.append(c);
+        }
+        this.row.append('"');
+    }
+}
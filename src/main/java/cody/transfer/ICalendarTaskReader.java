@@ -0,0 +1,229 @@
+package cody.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+/**
+ * Reads tasks from the {@code VTODO} and {@code VEVENT} components of an iCalendar (RFC 5545) file.
+ * <p>
+ * A to-do with a {@code DUE} date becomes a {@link Deadline}, and one without becomes a {@link ToDo};
+ * either is done if its {@code STATUS} is {@code COMPLETED} or it has a {@code COMPLETED} time.
+ * An event becomes an {@link Event} from its {@code DTSTART} date to the day before its {@code DTEND}
+ * date if that is an all-day end date, which is exclusive, or to its {@code DTEND} date otherwise.
+ * Only the dates of date-times are kept. The {@code X-CODY-DONE} property written by
+ * {@link ICalendarTaskWriter} marks an event as done. Other components and properties,
+ * including alarms inside to-dos and events, are skipped.
+ * <p>
+ * The file is read one line at a time, unfolding continued lines, so only one component is held in memory.
+ */
+public class ICalendarTaskReader implements TaskReader {
+
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final BufferedReader reader;
+
+    /** The next physical line, read ahead to find out whether it continues the current line. */
+    private String nextLine;
+    private long nextLineNumber;
+    private long lineNumber;
+
+    /**
+     * Constructs an {@code ICalendarTaskReader}.
+     *
+     * @param reader the iCalendar text to read.
+     * @throws IOException if the first line cannot be read.
+     */
+    public ICalendarTaskReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        this.nextLine = reader.readLine();
+        this.nextLineNumber = 1;
+    }
+
+    @Override
+    public Task read() throws IOException, CodyException {
+        String line;
+        while ((line = readUnfoldedLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VTODO") || line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                // set before reading the component, so that an entry that cannot be read is reported at its start
+                this.lineNumber = this.nextLineNumber - 1;
+                return readComponent(line.substring("BEGIN:".length()).toUpperCase()).toTask();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Reads the properties of a to-do or event up to its {@code END} line,
+     * skipping any components nested in it.
+     */
+    private Component readComponent(String name) throws IOException, CodyException {
+        Component component = new Component(name);
+        int nestedDepth = 0;
+        String line;
+        while ((line = readUnfoldedLine()) != null) {
+            int separator = line.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String property = line.substring(0, separator).toUpperCase();
+            String value = line.substring(separator + 1);
+            int parameterStart = property.indexOf(';');
+            String propertyName = parameterStart < 0 ? property : property.substring(0, parameterStart);
+            if (propertyName.equals("BEGIN")) {
+                nestedDepth++;
+            } else if (propertyName.equals("END")) {
+                if (nestedDepth == 0) {
+                    return component;
+                }
+                nestedDepth--;
+            } else if (nestedDepth == 0) {
+                component.set(propertyName, property, value);
+            }
+        }
+        throw new CodyException("BEGIN:" + name + " has no matching END");
+    }
+
+    /**
+     * Returns the next logical line, joining the physical lines that continue it,
+     * which start with a space or a tab.
+     */
+    private String readUnfoldedLine() throws IOException {
+        if (this.nextLine == null) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder(this.nextLine);
+        while (true) {
+            this.nextLine = this.reader.readLine();
+            this.nextLineNumber++;
+            if (this.nextLine == null || this.nextLine.isEmpty()
+                    || this.nextLine.charAt(0) != ' ' && this.nextLine.charAt(0) != '\t') {
+                return line.toString();
+            }
+            line.append(this.nextLine, 1, this.nextLine.length());
+        }
+    }
+
+    /**
+     * The properties of a to-do or event that are turned into a task.
+     */
+    private static class Component {
+        private final String name;
+        private String summary;
+        private String status = "";
+        private boolean isCompleted;
+        private boolean isMarkedDone;
+        private String due;
+        private String start;
+        private String end;
+        private boolean isEndAllDay;
+
+        Component(String name) {
+            this.name = name;
+        }
+
+        void set(String propertyName, String property, String value) {
+            switch (propertyName) {
+            case "SUMMARY":
+                this.summary = unescape(value);
+                break;
+            case "STATUS":
+                this.status = value.trim().toUpperCase();
+                break;
+            case "COMPLETED":
+                this.isCompleted = true;
+                break;
+            case "X-CODY-DONE":
+                this.isMarkedDone = value.trim().equalsIgnoreCase("TRUE");
+                break;
+            case "DUE":
+                this.due = value;
+                break;
+            case "DTSTART":
+                this.start = value;
+                break;
+            case "DTEND":
+                this.end = value;
+                this.isEndAllDay = property.contains("VALUE=DATE") && !property.contains("VALUE=DATE-TIME")
+                        || value.trim().length() == 8;
+                break;
+            default:
+                break;
+            }
+        }
+
+        Task toTask() throws CodyException {
+            if (this.summary == null) {
+                throw new CodyException(this.name + " has no SUMMARY");
+            }
+            String description = TaskTransfer.checkDescription(this.summary);
+            if (this.name.equals("VTODO")) {
+                boolean isDone = this.isCompleted || this.status.equals("COMPLETED");
+                if (this.due == null) {
+                    return new ToDo(description, isDone);
+                }
+                return new Deadline(description, parseDate(this.due, "DUE"), isDone);
+            }
+            if (this.start == null) {
+                throw new CodyException("VEVENT has no DTSTART");
+            }
+            LocalDate startDate = parseDate(this.start, "DTSTART");
+            LocalDate endDate = startDate;
+            if (this.end != null) {
+                endDate = parseDate(this.end, "DTEND");
+                if (this.isEndAllDay && endDate.isAfter(startDate)) {
+                    endDate = endDate.minusDays(1);
+                }
+            }
+            if (endDate.isBefore(startDate)) {
+                throw new CodyException("End date cannot be before start date.");
+            }
+            return new Event(description, startDate, endDate, this.isMarkedDone);
+        }
+
+        /**
+         * Returns the date of a {@code DATE} or {@code DATE-TIME} value, such as {@code 20240305}
+         * or {@code 20240305T090000Z}.
+         */
+        private static LocalDate parseDate(String value, String propertyName) throws CodyException {
+            String date = value.trim();
+            try {
+                return LocalDate.parse(date.length() > 8 ? date.substring(0, 8) : date, BASIC_DATE);
+            } catch (DateTimeParseException e) {
+                throw new CodyException("Invalid " + propertyName + " date: " + value);
+            }
+        }
+
+        private static String unescape(String text) {
+            StringBuilder result = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c != '\\' || i + 1 == text.length()) {
+                    result.append(c);
+                    continue;
+                }
+                char escaped = text.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cody.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+
+/**
+ * Writes tasks to an iCalendar (RFC 5545) file that calendar and to-do applications can import.
+ * <p>
+ * Todos and deadlines are written as {@code VTODO} components, with the date of a deadline as
+ * its {@code DUE} date, and events as all-day {@code VEVENT} components. Since events have no
+ * completed status in iCalendar, a done event is given an {@code X-CODY-DONE} property, which
+ * {@link ICalendarTaskReader} reads back. Lines are folded at 75 bytes and end with CRLF.
+ */
+public class ICalendarTaskWriter implements TaskWriter {
+
+    private static final String LINE_END = "\r\n";
+    private static final int MAX_LINE_BYTES = 75;
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Writer writer;
+    private final String timestamp;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Constructs an {@code ICalendarTaskWriter} and starts the calendar.
+     *
+     * @param writer where the iCalendar text is written.
+     * @throws IOException if the start of the calendar cannot be written.
+     */
+    public ICalendarTaskWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        this.timestamp = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+                .format(Instant.now().truncatedTo(ChronoUnit.SECONDS).atOffset(ZoneOffset.UTC));
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//Cody//Cody task list//EN");
+    }
+
+    @Override
+    public void write(Task task) throws IOException {
+        String component = task instanceof Event ? "VEVENT" : "VTODO";
+        writeLine("BEGIN:" + component);
+        writeLine("UID:task-" + task.getId() + "@cody");
+        writeLine("DTSTAMP:" + this.timestamp);
+        writeLine("SUMMARY:" + escape(task.getDescription()));
+        if (task instanceof Event) {
+            Event event = (Event) task;
+            writeLine("DTSTART;VALUE=DATE:" + format(event.getStartDate()));
+            // the end date of an all-day event is the day after it ends
+            writeLine("DTEND;VALUE=DATE:" + format(event.getEndDate().plusDays(1)));
+            if (task.isDone()) {
+                writeLine("X-CODY-DONE:TRUE");
+            }
+        } else {
+            if (task instanceof Deadline) {
+                writeLine("DUE;VALUE=DATE:" + format(((Deadline) task).getEndDate()));
+            }
+            writeLine("STATUS:" + (task.isDone() ? "COMPLETED" : "NEEDS-ACTION"));
+        }
+        writeLine("END:" + component);
+    }
+
+    /**
+     * Ends the calendar and closes the file.
+     *
+     * @throws IOException if the end of the calendar cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeLine("END:VCALENDAR");
+        } finally {
+            this.writer.close();
+        }
+    }
+
+    /**
+     * Writes a content line, folding it so that no physical line is longer than 75 bytes of UTF-8.
+     */
+    private void writeLine(String content) throws IOException {
+        this.line.setLength(0);
+        int lineBytes = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int bytes = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (lineBytes + bytes > MAX_LINE_BYTES) {
+                this.line.append(LINE_END).append(' ');
+                lineBytes = 1;
+            }
+            this.line.appendCodePoint(codePoint);
+            lineBytes += bytes;
+            i += Character.charCount(codePoint);
+        }
+        this.line.append(LINE_END);
+        this.writer.append(this.line);
+    }
+
+    private static String format(LocalDate date) {
+        return BASIC_DATE.format(date);
+    }
+
+    private static String escape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == ';' || c == ',') {
+                result.append('\\').append(c);
+            } else if (c == '\n') {
+                result.append("\\n");
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package cody.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the outcome of importing a file of tasks.
+ * Only the first {@code MAX_REJECTIONS_KEPT} rejected entries are kept, so that a large file
+ * with many bad entries does not use up memory.
+ */
+public class ImportSummary {
+
+    /** Most rejected entries whose details are kept. */
+    public static final int MAX_REJECTIONS_KEPT = 5;
+
+    private int readCount;
+    private int addedCount;
+    private int rejectedCount;
+    private int flushedChangeCount;
+    private int flushCount;
+    private final List<String> rejections = new ArrayList<>();
+
+    /**
+     * Records a chunk of tasks read from the file and added to the list.
+     *
+     * @param readCount the number of tasks in the chunk
+     * @param addedCount the number of them that were not duplicates and were added
+     */
+    void recordChunk(int readCount, int addedCount) {
+        this.readCount += readCount;
+        this.addedCount += addedCount;
+    }
+
+    /**
+     * Records a chunk of tasks written to storage while a script is running, instead of at its end.
+     *
+     * @param changeCount the number of changes written, which may be 0 if there was nothing to write
+     */
+    void recordFlush(int changeCount) {
+        if (changeCount > 0) {
+            flushedChangeCount += changeCount;
+            flushCount++;
+        }
+    }
+
+    /**
+     * Records an entry of the file that could not be turned into a task.
+     *
+     * @param lineNumber the line of the file the entry starts on, starting from 1
+     * @param message the reason the entry was rejected
+     */
+    void recordRejected(long lineNumber, String message) {
+        rejectedCount++;
+        if (rejections.size() < MAX_REJECTIONS_KEPT) {
+            rejections.add(String.format("Line %d: %s", lineNumber, message));
+        }
+    }
+
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    /**
+     * Returns the number of tasks read that were already in the list, or earlier in the file.
+     *
+     * @return the number of duplicates skipped
+     */
+    public int getDuplicateCount() {
+        return readCount - addedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the number of changes that were written to storage while a script was running.
+     *
+     * @return the number of changes in the chunks written part way through the script
+     */
+    public int getFlushedChangeCount() {
+        return flushedChangeCount;
+    }
+
+    /**
+     * Returns the number of writes to storage made while a script was running.
+     *
+     * @return the number of chunks written part way through the script
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Returns a description of each of the first rejected entries, in file order.
+     *
+     * @return at most {@code MAX_REJECTIONS_KEPT} rejections
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+}
@@ -0,0 +1,33 @@
+package cody.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+
+/**
+ * Reads tasks one at a time from a file exported by another application, so that a file of any
+ * size can be imported while holding only one task in memory.
+ */
+public interface TaskReader extends Closeable {
+
+    /**
+     * Reads the next task in the file.
+     * <p>
+     * An entry that cannot be turned into a task is skipped over before the exception is thrown,
+     * so reading can carry on with the entry after it.
+     *
+     * @return the next task, or {@code null} at the end of the file.
+     * @throws IOException if the file cannot be read.
+     * @throws CodyException if the next entry does not correspond to a valid {@code Task}.
+     */
+    Task read() throws IOException, CodyException;
+
+    /**
+     * Returns the line of the file where the entry last read starts.
+     *
+     * @return the 1-based line number, or 0 if nothing has been read.
+     */
+    long getLineNumber();
+}
@@ -0,0 +1,140 @@
+package cody.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+import cody.tasklist.TaskList;
+
+/**
+ * Imports tasks into a {@link TaskList} from, and exports them to, CSV ({@code .csv}) and
+ * iCalendar ({@code .ics}) files, choosing the format from the file extension.
+ * <p>
+ * Both directions stream the file, so memory use does not grow with its size. Imported tasks are
+ * collected into chunks of {@value #IMPORT_CHUNK_SIZE} and added with {@link TaskList#addAll(List)},
+ * which skips duplicates the same way adding a single task does and writes each chunk to storage
+ * as one batch. Each chunk is undone as one change.
+ */
+public final class TaskTransfer {
+
+    /** The number of imported tasks added to the list, and written to storage, at a time. */
+    public static final int IMPORT_CHUNK_SIZE = 10_000;
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Adds the tasks in a file to a list, skipping those already in it and the entries that
+     * cannot be read.
+     *
+     * @param tasks the list to add the tasks to.
+     * @param path a {@code .csv} or {@code .ics} file.
+     * @return what was imported and what was skipped.
+     * @throws IOException if the file cannot be read or the tasks cannot be saved.
+     * @throws CodyException if the file is not a CSV or iCalendar file.
+     */
+    public static ImportSummary importTasks(TaskList tasks, Path path) throws IOException, CodyException {
+        ImportSummary summary = new ImportSummary();
+        try (TaskReader reader = openReader(path)) {
+            List<Task> chunk = new ArrayList<>();
+            while (true) {
+                Task task;
+                try {
+                    task = reader.read();
+                } catch (CodyException e) {
+                    summary.recordRejected(reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (task == null) {
+                    break;
+                }
+                chunk.add(task);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    addChunk(tasks, chunk, summary);
+                }
+            }
+            addChunk(tasks, chunk, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Writes every task in a list to a file, replacing the file if it exists.
+     *
+     * @param tasks the list to export.
+     * @param path a {@code .csv} or {@code .ics} file.
+     * @return the number of tasks written.
+     * @throws IOException if the file cannot be written.
+     * @throws CodyException if the file is not a CSV or iCalendar file.
+     */
+    public static int exportTasks(TaskList tasks, Path path) throws IOException, CodyException {
+        Format format = formatOf(path);
+        int count = 0;
+        try (TaskWriter writer = format == Format.CSV
+                ? new CsvTaskWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+                : new ICalendarTaskWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            for (int i = 0; i < tasks.size(); i++) {
+                writer.write(tasks.get(i));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks that text read from a file can be the description of a task.
+     *
+     * @param description the text.
+     * @return the description, without surrounding whitespace.
+     * @throws CodyException if the description is blank or spans more than one line.
+     */
+    static String checkDescription(String description) throws CodyException {
+        String trimmed = description.trim();
+        if (trimmed.isEmpty()) {
+            throw new CodyException("The description is empty");
+        }
+        if (trimmed.indexOf('\n') >= 0 || trimmed.indexOf('\r') >= 0) {
+            throw new CodyException("The description spans more than one line");
+        }
+        return trimmed;
+    }
+
+    private static void addChunk(TaskList tasks, List<Task> chunk, ImportSummary summary) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        summary.recordChunk(chunk.size(), tasks.addAll(chunk));
+        if (tasks.isInBatch()) {
+            // a script is running, so write the chunk out now rather than hold every import in memory
+            summary.recordFlush(tasks.flushBatch());
+        }
+        chunk.clear();
+    }
+
+    private static TaskReader openReader(Path path) throws IOException, CodyException {
+        Format format = formatOf(path);
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        return format == Format.CSV ? new CsvTaskReader(reader) : new ICalendarTaskReader(reader);
+    }
+
+    private enum Format {
+        CSV, ICALENDAR
+    }
+
+    private static Format formatOf(Path path) throws CodyException {
+        String fileName = path.getFileName() == null ? "" : path.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        if (fileName.endsWith(".ics")) {
+            return Format.ICALENDAR;
+        }
+        throw new CodyException("I can only import and export .csv and .ics files.");
+    }
+}
@@ -0,0 +1,21 @@
+package cody.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import cody.task.Task;
+
+/**
+ * Writes tasks one at a time to a file that another application can read.
+ * Closing the writer completes the file.
+ */
+public interface TaskWriter extends Closeable {
+
+    /**
+     * Writes a task to the file.
+     *
+     * @param task the task to write.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Task task) throws IOException;
+}
@@ -0,0 +1,257 @@
+package cody;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.ToDo;
+import cody.tasklist.Storage;
+import cody.tasklist.StorageOperation;
+import cody.tasklist.TaskList;
+import cody.tasklist.TaskListCache;
+import cody.transfer.TaskTransfer;
+
+public class CodyTest {
+    @TempDir
+    Path tempDir;
+
+    /** A text storage that counts how many times it is written to. */
+    private class CountingStorage extends Storage {
+        int writeCount;
+
+        CountingStorage() throws IOException {
+            super(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        }
+
+        @Override
+        public void apply(List<StorageOperation> operations) throws IOException {
+            writeCount++;
+            super.apply(operations);
+        }
+    }
+
+    @Test
+    public void runBatch_manyCommands_writesStorageOnce() throws IOException, CodyException {
+        StringBuilder script = new StringBuilder();
+        for (int i = 1; i <= 300; i++) {
+            script.append("todo task ").append(i).append('\n');
+        }
+        script.append("mark 2\n\ndelete 1\nmark 999\ntodo task 3\nbye\ntodo never run\n");
+        CountingStorage storage = new CountingStorage();
+        Cody cody = new Cody(new TaskList(storage));
+
+        BatchSummary summary = cody.runBatch(new BufferedReader(new StringReader(script.toString())));
+
+        assertEquals(304, summary.getCommandCount());
+        assertEquals(2, summary.getFailureCount());
+        assertEquals(List.of(
+                "Line 304: mark 999 (Index of task to be marked as done is out of the valid range.)",
+                "Line 305: todo task 3 (This task already exists!)"), summary.getFailures());
+        assertEquals(302, summary.getSavedChangeCount());
+        assertEquals(1, storage.writeCount);
+
+        TaskList reloaded = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        assertEquals(299, reloaded.size());
+        assertEquals("[T][X] task 2", reloaded.get(0).toString());
+    }
+
+    @Test
+    public void runBatch_largeImport_countsChunksWrittenDuringImport() throws IOException, CodyException {
+        StringBuilder csv = new StringBuilder("type,description,done,start,end\n");
+        for (int i = 0; i <= TaskTransfer.IMPORT_CHUNK_SIZE; i++) {
+            csv.append("todo,task ").append(i).append(",false,,\n");
+        }
+        Path csvPath = tempDir.resolve("tasks.csv");
+        Files.writeString(csvPath, csv);
+        Cody cody = new Cody(new TaskList(new CountingStorage()));
+
+        BatchSummary summary = cody.runBatch(new BufferedReader(new StringReader(
+                "import " + csvPath + "\ntodo extra\n")));
+
+        assertEquals(TaskTransfer.IMPORT_CHUNK_SIZE + 2, summary.getSavedChangeCount());
+        assertEquals(3, summary.getWriteCount());
+    }
+
+    @Test
+    public void handleCommand_dateQueries_listsMatchesOrReportsBadArguments() throws IOException, CodyException {
+        Cody cody = new Cody(new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString()));
+        cody.handleCommand("deadline file taxes /by 05 Mar 2024");
+        cody.handleCommand("event trip /from 03 Mar 2024 /to 07 Mar 2024");
+
+        assertEquals("Here are the matching tasks in your list:\n1. [D][ ] file taxes (by: 2024-03-05) #1\n",
+                cody.handleCommand("due 05 Mar 2024"));
+        assertEquals("Here are the matching tasks in your list:\n1. [E][ ] trip (from: 2024-03-03 to: 2024-03-07) #2\n",
+                cody.handleCommand("on 07 Mar 2024"));
+        assertEquals("Here are the matching tasks in your list:\n",
+                cody.handleCommand("between 08 Mar 2024 09 Mar 2024"));
+        assertEquals("Invalid due command arguments.", cody.handleCommand("due 05 Mar"));
+        assertEquals("Invalid on command arguments.", cody.handleCommand("on"));
+        assertEquals("Invalid between command arguments.", cody.handleCommand("between 01 Mar 2024"));
+        assertEquals("End date cannot be before start date.",
+                cody.handleCommand("between 09 Mar 2024 08 Mar 2024"));
+        assertTrue(cody.handleCommand("due 32 Mar 2024").contains("could not be parsed"));
+    }
+
+    @Test
+    public void runBatch_switchingLists_savesEachListsChanges() throws IOException, CodyException {
+        String script = "todo home task\nuse work\ntodo work task\nuse bad/name\nuse tasks\nmark 1\n";
+        Cody cody = new Cody(new TaskListCache(tempDir.toString()));
+
+        BatchSummary summary = cody.runBatch(new BufferedReader(new StringReader(script)));
+        cody.close();
+
+        assertEquals(List.of("Line 4: use bad/name (Task list names can only have up to 64 letters, digits, - and _.)"),
+                summary.getFailures());
+        assertEquals(3, summary.getSavedChangeCount());
+        TaskList home = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        assertEquals("[T][X] home task", home.get(0).toString());
+        TaskList work = new TaskList(tempDir.toString(), tempDir.resolve("work.txt").toString());
+        assertEquals("[T][ ] work task", work.get(0).toString());
+    }
+
+    @Test
+    public void runBatch_byeWithArguments_endsScriptWithoutClosingList() throws IOException, CodyException {
+        CountingStorage storage = new CountingStorage();
+        TaskList tasks = new TaskList(storage);
+        Cody cody = new Cody(tasks);
+
+        BatchSummary summary = cody.runBatch(new BufferedReader(new StringReader("todo a\nbye now\ntodo b\n")));
+
+        assertEquals(1, summary.getCommandCount());
+        assertEquals(1, summary.getSavedChangeCount());
+        assertEquals(1, storage.writeCount);
+        // with the batch over, there is nothing left to write
+        assertEquals(0, tasks.flushBatch());
+        assertEquals(0, tasks.endBatch());
+        assertEquals("Got it. I've added this task: \n[T][ ] c #2\nNow you have 2 task(s) in the list",
+                cody.handleCommand("todo c"));
+    }
+
+    @Test
+    public void handleCommand_sessionsOnDifferentLists_eachKeepsItsOwnList() throws IOException, CodyException {
+        Cody cody = new Cody(new TaskListCache(tempDir.toString()));
+        Session home = new Session();
+        Session work = new Session();
+
+        cody.handleCommand("use work", work);
+        cody.handleCommand("todo work task", work);
+        cody.handleCommand("todo home task", home);
+        cody.close();
+
+        TaskList homeList = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        assertEquals("[T][ ] home task", homeList.get(0).toString());
+        assertEquals(1, homeList.size());
+        TaskList workList = new TaskList(tempDir.toString(), tempDir.resolve("work.txt").toString());
+        assertEquals("[T][ ] work task", workList.get(0).toString());
+        assertEquals(1, workList.size());
+    }
+
+    @Test
+    public void handleCommand_listInUse_notDroppedFromCache() throws IOException, CodyException {
+        Cody cody = new Cody(new TaskListCache(tempDir.toString(), 3, 1000));
+        Session busy = new Session();
+        Session browsing = new Session();
+
+        cody.handleCommand("todo first", busy);
+        cody.handleCommand("use a", browsing);
+        cody.handleCommand("use b", browsing);
+        cody.handleCommand("todo second", busy);
+        // loading c drops the least recently used list, which is a rather than the busy list
+        cody.handleCommand("use c", browsing);
+
+        // the busy list was kept in memory, so its undo history is still there
+        assertEquals("Undone! I've reversed the last change to 1 task(s).\nNow you have 1 task(s) in the list",
+                cody.handleCommand("undo", busy));
+        cody.close();
+    }
+
+    private TaskList createNumberedTaskList(int size) throws IOException, CodyException {
+        TaskList tasks = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        List<ToDo> newTasks = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            newTasks.add(new ToDo("task " + i));
+        }
+        tasks.addAll(newTasks);
+        return tasks;
+    }
+
+    @Test
+    public void handleCommand_listPages_pageOfTasksWithShowingNote() throws IOException, CodyException {
+        Cody cody = new Cody(createNumberedTaskList(120));
+
+        String firstPage = cody.handleCommand("list");
+        assertTrue(firstPage.startsWith("1. [T][ ] task 1 #1\n"));
+        assertTrue(firstPage.endsWith("50. [T][ ] task 50 #50\n"
+                + "Showing tasks 1-50 of 120. Type `list 2` to see the next page."));
+        assertEquals(firstPage, cody.handleCommand("list 1"));
+
+        String secondPage = cody.handleCommand("list 2");
+        assertTrue(secondPage.startsWith("51. [T][ ] task 51 #51\n"));
+        assertTrue(secondPage.endsWith("100. [T][ ] task 100 #100\n"
+                + "Showing tasks 51-100 of 120. Type `list 3` to see the next page."));
+
+        // the last page has no next page to point to
+        String lastPage = cody.handleCommand("list 3");
+        assertTrue(lastPage.startsWith("101. [T][ ] task 101 #101\n"));
+        assertTrue(lastPage.endsWith("120. [T][ ] task 120 #120\nShowing tasks 101-120 of 120."));
+
+        assertEquals("Page 4 is out of the valid range. There are 3 page(s).", cody.handleCommand("list 4"));
+    }
+
+    @Test
+    public void handleCommand_listFitsOnOnePage_noShowingNote() throws IOException, CodyException {
+        Cody cody = new Cody(createNumberedTaskList(50));
+
+        String onlyPage = cody.handleCommand("list");
+        assertTrue(onlyPage.endsWith("50. [T][ ] task 50 #50\n"));
+        assertEquals(50, onlyPage.split("\n").length);
+        assertEquals("Page 2 is out of the valid range. There are 1 page(s).", cody.handleCommand("list 2"));
+
+        Cody emptyCody = new Cody(new TaskList(tempDir.toString(), tempDir.resolve("empty.txt").toString()));
+        assertEquals("", emptyCody.handleCommand("list 1"));
+    }
+
+    @Test
+    public void handleCommand_listLimitAndOffset_rangeOfTasksCappedAtMaxShown() throws IOException, CodyException {
+        Cody cody = new Cody(createNumberedTaskList(600));
+
+        assertEquals("111. [T][ ] task 111 #111\n112. [T][ ] task 112 #112\nShowing tasks 111-112 of 600.",
+                cody.handleCommand("list --offset 110 --limit 2"));
+        assertEquals(cody.handleCommand("list --offset 110 --limit 2"),
+                cody.handleCommand("list --limit 2 --offset 110"));
+        assertEquals("600. [T][ ] task 600 #600\nShowing tasks 600-600 of 600.",
+                cody.handleCommand("list --offset 599"));
+
+        String capped = cody.handleCommand("list --limit 1000");
+        assertEquals(Ui.MAX_TASKS_SHOWN + 1, capped.split("\n").length);
+        assertTrue(capped.endsWith("500. [T][ ] task 500 #500\nShowing tasks 1-500 of 600."));
+
+        assertEquals("Offset of tasks to be listed is out of the valid range.",
+                cody.handleCommand("list --offset 600"));
+        assertEquals("Limit of tasks to be listed should be at least 1.", cody.handleCommand("list --limit 0"));
+        assertEquals("Invalid list command arguments.", cody.handleCommand("list --limit 5 --limit 6"));
+        assertEquals("Invalid list command arguments.", cody.handleCommand("list --offset -1"));
+    }
+
+    @Test
+    public void handleCommand_findMoreThanMaxShown_restCounted() throws IOException, CodyException {
+        Cody cody = new Cody(createNumberedTaskList(600));
+
+        String matches = cody.handleCommand("find task");
+        assertTrue(matches.startsWith("Here are the matching tasks in your list:\n1. [T][ ] task 1 #1\n"));
+        assertTrue(matches.endsWith("500. [T][ ] task 500 #500\n...and 100 more.\n"));
+        assertFalse(matches.contains("501. "));
+    }
+}
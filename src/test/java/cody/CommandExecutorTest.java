@@ -0,0 +1,55 @@
+package cody;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.tasklist.TaskList;
+
+public class CommandExecutorTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList createTaskList() throws IOException, CodyException {
+        return new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+    }
+
+    @Test
+    public void submit_manyCommands_runInSubmissionOrder() throws Exception {
+        CommandExecutor executor = new CommandExecutor(new Cody(createTaskList()));
+        List<CompletableFuture<String>> replies = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            replies.add(executor.submit("todo task " + i));
+        }
+        replies.add(executor.submit("delete 1"));
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(replies.get(i - 1).get().endsWith("Now you have " + i + " task(s) in the list"));
+        }
+        assertTrue(replies.get(100).get().startsWith("Noted! I've removed this task:\n[T][ ] task 1"));
+        executor.close();
+
+        TaskList reloaded = createTaskList();
+        assertEquals(99, reloaded.size());
+        assertEquals("[T][ ] task 2", reloaded.get(0).toString());
+    }
+
+    @Test
+    public void submit_afterClose_failsWithoutRunning() throws IOException, CodyException {
+        CommandExecutor executor = new CommandExecutor(new Cody(createTaskList()));
+        executor.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> executor.submit("todo too late").get());
+        assertEquals("Cody is shutting down.", e.getCause().getMessage());
+        assertEquals(0, (int) createTaskList().size());
+    }
+}
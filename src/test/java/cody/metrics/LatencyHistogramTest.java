@@ -0,0 +1,39 @@
+package cody.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void bucketIndex_everyValue_withinItsBucket() {
+        long[] values = { 0, 1, 15, 16, 17, 31, 32, 40, 1_000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.lowestValueIn(index) <= value, "below bucket: " + value);
+            assertTrue(LatencyHistogram.highestValueIn(index) >= value, "above bucket: " + value);
+            // buckets are never wider than 1/16 of the values in them
+            long width = LatencyHistogram.highestValueIn(index) - LatencyHistogram.lowestValueIn(index) + 1;
+            assertTrue(width <= Math.max(1, value / 16 + 1), "bucket too wide: " + value);
+        }
+    }
+
+    @Test
+    public void getValueAtPercentile_uniformValues_withinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 5_000_000 && median <= 5_000_000 * 17 / 16, "median was " + median);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 9_900_000 && p99 <= 9_900_000 * 17 / 16, "p99 was " + p99);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
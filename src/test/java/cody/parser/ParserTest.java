@@ -1,6 +1,9 @@
 package cody.parser;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import org.junit.jupiter.api.Test;
@@ -36,4 +39,45 @@ public class ParserTest {
             assertEquals(e.getMessage(), "Invalid add todo task command");
         }
     }
+
+    @Test
+    public void parse_commandWithArguments_splitAtFirstSpace() {
+        Command command = new Parser("find read  book").parse();
+        assertEquals("find", command.getCommandWord());
+        assertEquals("read  book", command.getArguments());
+    }
+
+    @Test
+    public void getArgumentsSeparatedBy_repeatedSeparator_lastOccurrenceUsed() {
+        Command command = new Parser("event a /from b /to c /from 01 Jan 2025 /to 02 Jan 2025").parse();
+        assertArrayEquals(new String[] { "a /from b /to c", "01 Jan 2025", "02 Jan 2025" },
+                command.getArgumentsSeparatedBy(" /from ", " /to "));
+    }
+
+    @Test
+    public void hasArgumentsSeparatedBy_emptyPart_false() {
+        assertFalse(new Parser("deadline /by 01 Jan 2025").parse().hasArgumentsSeparatedBy(" /by "));
+        assertFalse(new Parser("deadline task /by ").parse().hasArgumentsSeparatedBy(" /by "));
+        assertFalse(new Parser("event task /from  /to 01 Jan 2025").parse()
+                .hasArgumentsSeparatedBy(" /from ", " /to "));
+    }
+
+    @Test
+    public void getTaskSelection_numbersAndRanges_success() {
+        TaskSelection selection = new Parser("mark 1,4,9-12").parse().getTaskSelection();
+        assertEquals(3, selection.getRangeCount());
+        assertEquals(4, selection.getRangeStart(1));
+        assertEquals(9, selection.getRangeStart(2));
+        assertEquals(12, selection.getRangeEnd(2));
+        assertFalse(selection.isSingleTaskNumber());
+        assertTrue(new Parser("delete done").parse().getTaskSelection().isDoneTasks());
+    }
+
+    @Test
+    public void hasTaskSelectionArgument_malformedSelection_false() {
+        for (String input : new String[] { "delete ", "delete 5-3", "delete 1,", "delete 1--2", "delete 1, 2",
+                "delete 1234567890", "delete -2" }) {
+            assertFalse(new Parser(input).parse().hasTaskSelectionArgument(), input);
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package cody.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.Cody;
+import cody.exception.CodyException;
+import cody.tasklist.DurabilityPolicy;
+import cody.tasklist.Storage;
+import cody.tasklist.TaskList;
+import cody.tasklist.WriteBehindStorage;
+
+public class CodyServerTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList createTaskList() throws IOException, CodyException {
+        return new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+    }
+
+    /** Reads one reply, undoing the dot-stuffing, or returns null if the connection was closed. */
+    private static String readReply(BufferedReader in) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line = in.readLine();
+        while (line != null && !line.equals(".")) {
+            if (reply.length() > 0) {
+                reply.append('\n');
+            }
+            reply.append(line.startsWith(".") ? line.substring(1) : line);
+            line = in.readLine();
+        }
+        return line == null ? null : reply.toString();
+    }
+
+    @Test
+    public void serve_pipelinedCommandsFromTwoClients_sharedListAndRepliesInOrder() throws Exception {
+        CodyServer server = new CodyServer(new Cody(createTaskList()), CodyServer.loopbackAddress(0));
+        Thread servingThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        servingThread.start();
+        int port = ((InetSocketAddress) server.getAddress()).getPort();
+
+        try (Socket first = new Socket("localhost", port); Socket second = new Socket("localhost", port)) {
+            BufferedReader firstIn = new BufferedReader(
+                    new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream firstOut = first.getOutputStream();
+            StringBuilder commands = new StringBuilder();
+            for (int i = 1; i <= 200; i++) {
+                commands.append("todo task ").append(i).append("\r\n");
+            }
+            commands.append("mark 1\nfoo\n");
+            firstOut.write(commands.toString().getBytes(StandardCharsets.UTF_8));
+            firstOut.flush();
+            for (int i = 1; i <= 200; i++) {
+                assertTrue(readReply(firstIn).endsWith("Now you have " + i + " task(s) in the list"));
+            }
+            assertEquals("Nice! I've marked this task as done:\n[T][X] task 1", readReply(firstIn));
+            assertEquals("I do not understand the input command.", readReply(firstIn));
+
+            BufferedReader secondIn = new BufferedReader(
+                    new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8));
+            second.getOutputStream().write("find task 200\nbye\ntodo never run\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("Here are the matching tasks in your list:\n1. [T][ ] task 200 #200", readReply(secondIn));
+            readReply(secondIn);
+            assertNull(readReply(secondIn));
+        }
+
+        server.close();
+        servingThread.join();
+        assertEquals(200, (int) createTaskList().size());
+    }
+
+    @Test
+    public void serve_clientSaysBye_otherClientKeepsUsingList() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        TaskList tasks = new TaskList(new WriteBehindStorage(new Storage(tempDir.toString(), filePath),
+                DurabilityPolicy.everyOperations(1)));
+        CodyServer server = new CodyServer(new Cody(tasks), CodyServer.loopbackAddress(0));
+        Thread servingThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        servingThread.start();
+        int port = ((InetSocketAddress) server.getAddress()).getPort();
+
+        try (Socket first = new Socket("localhost", port); Socket second = new Socket("localhost", port)) {
+            BufferedReader firstIn = new BufferedReader(
+                    new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+            // a client that is never replied to fails the test instead of hanging it
+            first.setSoTimeout(10_000);
+            second.setSoTimeout(10_000);
+            first.getOutputStream().write("todo first\nbye now\n".getBytes(StandardCharsets.UTF_8));
+            assertTrue(readReply(firstIn).endsWith("Now you have 1 task(s) in the list"));
+            assertEquals("Bye. Hope to see you again soon!", readReply(firstIn));
+            assertNull(readReply(firstIn));
+
+            BufferedReader secondIn = new BufferedReader(
+                    new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8));
+            second.getOutputStream().write("todo second\nmark 2\n".getBytes(StandardCharsets.UTF_8));
+            assertTrue(readReply(secondIn).endsWith("Now you have 2 task(s) in the list"));
+            assertEquals("Nice! I've marked this task as done:\n[T][X] second", readReply(secondIn));
+        }
+
+        server.close();
+        servingThread.join();
+        assertEquals(2, new TaskList(tempDir.toString(), filePath).size());
+    }
+
+    @Test
+    public void serve_fileCommands_refused() throws Exception {
+        CodyServer server = new CodyServer(new Cody(createTaskList()), CodyServer.loopbackAddress(0));
+        Thread servingThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        servingThread.start();
+        int port = ((InetSocketAddress) server.getAddress()).getPort();
+        Path exportPath = tempDir.resolve("stolen.csv");
+        Path scriptPath = tempDir.resolve("script.txt");
+        Files.writeString(scriptPath, "todo from script\n");
+
+        try (Socket client = new Socket("localhost", port)) {
+            client.setSoTimeout(10_000);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            String commands = "todo a\nexport " + exportPath + "\nimport " + exportPath
+                    + "\nrun " + scriptPath + "\nlist\n";
+            client.getOutputStream().write(commands.getBytes(StandardCharsets.UTF_8));
+            readReply(in);
+            for (int i = 0; i < 3; i++) {
+                assertTrue(readReply(in).contains("run, import and export are not available"));
+            }
+            assertEquals("1. [T][ ] a #1", readReply(in));
+        }
+
+        server.close();
+        servingThread.join();
+        assertFalse(Files.exists(exportPath));
+    }
+
+    @Test
+    public void serve_lastCommandWithoutLineBreak_replied() throws Exception {
+        CodyServer server = new CodyServer(new Cody(createTaskList()), CodyServer.loopbackAddress(0));
+        Thread servingThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        servingThread.start();
+        int port = ((InetSocketAddress) server.getAddress()).getPort();
+
+        try (Socket client = new Socket("localhost", port)) {
+            client.setSoTimeout(10_000);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            client.getOutputStream().write("todo a\nlist".getBytes(StandardCharsets.UTF_8));
+            client.shutdownOutput();
+            assertTrue(readReply(in).endsWith("Now you have 1 task(s) in the list"));
+            assertEquals("1. [T][ ] a #1", readReply(in));
+            assertNull(readReply(in));
+        }
+
+        server.close();
+        servingThread.join();
+    }
+
+    @Test
+    public void encodeReply_lineStartingWithDot_dotStuffed() {
+        ByteBuffer encoded = CodyServer.encodeReply("first\n.hidden\n.");
+        assertEquals("first\n..hidden\n..\n.\n", StandardCharsets.UTF_8.decode(encoded).toString());
+    }
+}
@@ -0,0 +1,83 @@
+package cody.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+import cody.exception.CodyException;
+
+public class TaskCodecTest {
+    private static final Task[] TASKS = {
+        new ToDo("read book"),
+        new ToDo("read book", true),
+        new ToDo("[T][X] looks like a task (by: 2020-01-01)"),
+        new Deadline("return book", LocalDate.parse("2025-09-10")),
+        new Deadline("return book (by: tomorrow)", LocalDate.parse("2025-09-10"), true),
+        new Event("project meeting", LocalDate.parse("2025-09-01"), LocalDate.parse("2025-09-03")),
+        new Event("trip to: the zoo (from: home)", LocalDate.parse("0999-01-01"), LocalDate.parse("+12025-12-31"), true)
+    };
+
+    @Test
+    public void encode_allTaskTypes_matchesToString() {
+        for (Task task : TASKS) {
+            assertEquals(task.toString(), TaskCodec.encode(task));
+        }
+    }
+
+    @Test
+    public void decode_encodedTask_roundTrips() throws CodyException {
+        for (Task task : TASKS) {
+            Task decoded = TaskCodec.decode(TaskCodec.encode(task));
+            assertEquals(task.getClass(), decoded.getClass());
+            assertEquals(task.toString(), decoded.toString());
+            assertEquals(task.getDescription(), decoded.getDescription());
+        }
+    }
+
+    @Test
+    public void decode_validDeadlineLine_success() throws CodyException {
+        Deadline deadline = (Deadline) TaskCodec.decode("[D][X] return book (by: 2025-09-10)");
+        assertEquals("return book", deadline.description);
+        assertEquals(LocalDate.parse("2025-09-10"), deadline.endDate);
+        assertTrue(deadline.isDone);
+    }
+
+    @Test
+    public void decode_lineWithId_idKept() throws CodyException {
+        Task task = TaskCodec.decode("#42 [E][ ] trip (from: 2025-09-01 to: 2025-09-03)");
+        assertEquals(42, task.getId());
+        assertEquals("trip", task.getDescription());
+        assertEquals("#42 [E][ ] trip (from: 2025-09-01 to: 2025-09-03)", TaskCodec.encode(task));
+        assertEquals(0, TaskCodec.decode("[T][ ] #42 is not an id").getId());
+    }
+
+    @Test
+    public void decode_malformedLines_exceptionThrown() {
+        String[] lines = {
+            "", "[T]", "[T][ ] ", "[Q][ ] what", "[D][ ] return book", "[D][ ] (by: 2025-09-10)",
+            "[E][ ] meeting (from: 2025-09-01)", "[E][ ] meeting (from:  to: 2025-09-01)",
+            "# [T][ ] read book", "#0 [T][ ] read book", "#4x [T][ ] read book", "#12"
+        };
+        for (String line : lines) {
+            assertThrows(CodyException.class, () -> TaskCodec.decode(line));
+        }
+    }
+
+    @Test
+    public void decode_unknownStatusSymbol_exceptionThrown() {
+        CodyException e = assertThrows(CodyException.class, () -> TaskCodec.decode("[T][?] read book"));
+        assertEquals("Unknown ToDo status symbol.", e.getMessage());
+    }
+
+    @Test
+    public void decode_invalidDate_sameErrorAsLocalDateParse() {
+        DateTimeParseException e = assertThrows(DateTimeParseException.class, () ->
+                TaskCodec.decode("[D][ ] return book (by: 2025-02-30)"));
+        assertEquals("Text '2025-02-30' could not be parsed: Invalid date 'FEBRUARY 30'", e.getMessage());
+    }
+}
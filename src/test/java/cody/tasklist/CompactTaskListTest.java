@@ -0,0 +1,151 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class CompactTaskListTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 5);
+
+    @TempDir
+    Path tempDir;
+
+    private Storage createStorage(String fileName) throws IOException {
+        return new Storage(tempDir.toString(), tempDir.resolve(fileName).toString());
+    }
+
+    private static List<String> describe(TaskList tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toString() + " #" + tasks.get(i).getId());
+        }
+        return lines;
+    }
+
+    private static Task randomTask(Random random) {
+        String description = "task " + random.nextInt(40) + (random.nextBoolean() ? " café" : " read");
+        LocalDate endDate = DATE.plusDays(random.nextInt(20) - 10);
+        switch (random.nextInt(3)) {
+        case 0:
+            return new ToDo(description);
+        case 1:
+            return new Deadline(description, endDate);
+        default:
+            return new Event(description, endDate.minusDays(random.nextInt(5)), endDate);
+        }
+    }
+
+    /** Makes an equal but separate task, so that the two lists never share a task object. */
+    private static Task copyOf(Task task) {
+        try {
+            return Task.convertStringToTask(task.toString());
+        } catch (CodyException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertSameQueries(TaskList expected, TaskList actual) {
+        assertEquals(describe(expected), describe(actual));
+        for (String query : new String[] { "task 1", "café", "ad", " ", "" }) {
+            assertEquals(expected.getTasksMatchingDescription(query), actual.getTasksMatchingDescription(query));
+        }
+        assertEquals(expected.getTasksDueBy(DATE), actual.getTasksDueBy(DATE));
+        assertEquals(expected.getTasksOn(DATE), actual.getTasksOn(DATE));
+        assertEquals(expected.getTasksBetween(DATE.minusDays(3), DATE.plusDays(2)),
+                actual.getTasksBetween(DATE.minusDays(3), DATE.plusDays(2)));
+        for (TaskOrder order : TaskOrder.values()) {
+            assertEquals(expected.getTasksSortedBy(order, 0, expected.size()),
+                    actual.getTasksSortedBy(order, 0, actual.size()));
+            assertEquals(expected.getTasksSortedBy(order, 3, 5), actual.getTasksSortedBy(order, 3, 5));
+        }
+    }
+
+    @Test
+    public void removeAll_noIndices_nothingRemoved() throws IOException, CodyException {
+        CompactTaskList tasks = new CompactTaskList(createStorage("tasks.txt"));
+        tasks.add(new ToDo("a"));
+
+        assertEquals(List.of(), tasks.removeAll(new int[0]));
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void randomChanges_sameResultsAsTaskList() throws IOException, CodyException {
+        Random random = new Random(42);
+        TaskList expected = new TaskList(createStorage("expected.txt"));
+        CompactTaskList actual = new CompactTaskList(createStorage("actual.txt"));
+
+        for (int step = 0; step < 2000; step++) {
+            int size = expected.size();
+            int choice = size == 0 ? random.nextInt(2) * 6 : random.nextInt(8);
+            if (choice == 0) {
+                Task task = randomTask(random);
+                assertEquals(expected.contains(task), actual.contains(task));
+                if (expected.contains(task)) {
+                    assertThrows(CodyException.class, () -> actual.add(task));
+                } else {
+                    expected.add(task);
+                    actual.add(copyOf(task));
+                }
+            } else if (choice == 1) {
+                List<Task> newTasks = List.of(randomTask(random), randomTask(random), randomTask(random));
+                List<Task> copies = new ArrayList<>();
+                for (Task task : newTasks) {
+                    copies.add(copyOf(task));
+                }
+                assertEquals(expected.addAll(newTasks), actual.addAll(copies));
+            } else if (choice == 2) {
+                int taskIndex = random.nextInt(size);
+                assertEquals(expected.remove(taskIndex), actual.remove(taskIndex));
+            } else if (choice == 3) {
+                int[] taskIndices = random.ints(0, size).distinct().limit(Math.min(3, size)).sorted().toArray();
+                assertEquals(expected.removeAll(taskIndices), actual.removeAll(taskIndices));
+            } else if (choice == 4) {
+                int[] taskIndices = random.ints(0, size).distinct().limit(Math.min(3, size)).toArray();
+                boolean isDone = random.nextBoolean();
+                assertEquals(expected.markAll(taskIndices, isDone), actual.markAll(taskIndices, isDone));
+            } else if (choice == 6) {
+                assertEquals(expected.undo(), actual.undo());
+            } else if (choice == 7) {
+                assertEquals(expected.redo(), actual.redo());
+            } else {
+                int taskIndex = random.nextInt(size);
+                if (random.nextBoolean()) {
+                    expected.markTaskAsDone(taskIndex);
+                    actual.markTaskAsDone(taskIndex);
+                } else {
+                    expected.markTaskAsNotDone(taskIndex);
+                    actual.markTaskAsNotDone(taskIndex);
+                }
+            }
+            if (step % 100 == 0) {
+                assertSameQueries(expected, actual);
+            }
+        }
+        assertSameQueries(expected, actual);
+        for (int i = 0; i < expected.size(); i++) {
+            long id = expected.get(i).getId();
+            assertEquals(i, actual.indexOfId(id));
+            assertEquals(expected.getById(id), actual.getById(id));
+        }
+
+        expected.close();
+        actual.close();
+        assertSameQueries(new TaskList(createStorage("expected.txt")), new CompactTaskList(createStorage("actual.txt")));
+    }
+}
@@ -0,0 +1,157 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class ConcurrentTaskListTest {
+    private static final int WRITER_COUNT = 4;
+    private static final int TASKS_PER_WRITER = 300;
+    private static final int READER_COUNT = 4;
+
+    @TempDir
+    Path tempDir;
+
+    private Storage createStorage() throws IOException {
+        return new Storage(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toString());
+        }
+        return lines;
+    }
+
+    /** Throws if any writer's tasks appear out of the order they were added in, or a slot is empty. */
+    private static void checkSnapshot(List<Task> snapshot) {
+        int[] lastSeen = new int[WRITER_COUNT];
+        for (Task task : snapshot) {
+            assertNotNull(task);
+            String[] words = task.getDescription().split(" ");
+            int writer = Integer.parseInt(words[1]);
+            int number = Integer.parseInt(words[3]);
+            assertTrue(number > lastSeen[writer], "tasks of a writer are out of order");
+            lastSeen[writer] = number;
+        }
+    }
+
+    @Test
+    public void concurrentWritersAndReaders_snapshotsStayConsistent() throws Exception {
+        ConcurrentTaskList tasks = new ConcurrentTaskList(createStorage());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITER_COUNT; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 1; i <= TASKS_PER_WRITER; i++) {
+                        tasks.add(new ToDo("writer " + writer + " task " + i));
+                        if (i % 10 == 0) {
+                            // the remover never takes the list below one task
+                            tasks.markTaskAsDone(0);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        Thread remover = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < TASKS_PER_WRITER / 2; i++) {
+                    while (tasks.size() < 2) {
+                        Thread.onSpinWait();
+                    }
+                    tasks.removeAll(new int[] { 0 });
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        for (int r = 0; r < READER_COUNT; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (isWriting.get()) {
+                        checkSnapshot(tasks.getSnapshot());
+                        checkSnapshot(tasks.getTasksMatchingDescription("task 1"));
+                        int size = tasks.size();
+                        if (size > 0) {
+                            // the list only shrinks by the remover, and never below one task
+                            assertNotNull(tasks.get(0));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+
+        writers.forEach(Thread::start);
+        remover.start();
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        remover.join();
+        isWriting.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        tasks.close();
+
+        assertNull(failure.get());
+        assertEquals(WRITER_COUNT * TASKS_PER_WRITER - TASKS_PER_WRITER / 2, tasks.size());
+        checkSnapshot(tasks.getSnapshot());
+        assertEquals(describe(tasks.getSnapshot()), describe(new TaskList(createStorage()).tasks));
+    }
+
+    @Test
+    public void queries_sameResultsAsTaskList() throws IOException, CodyException {
+        LocalDate date = LocalDate.of(2024, 3, 5);
+        List<Task> newTasks = List.of(new ToDo("read book"), new Deadline("return book", date),
+                new Event("book fair", date.minusDays(4), date.plusDays(5)),
+                new Deadline("pay rent", date.minusDays(4)), new Deadline("book flights", date.minusDays(30), true));
+        TaskList tasks = new TaskList(new Storage(tempDir.toString(), tempDir.resolve("a.txt").toString()));
+        ConcurrentTaskList concurrentTasks = new ConcurrentTaskList(
+                new Storage(tempDir.toString(), tempDir.resolve("b.txt").toString()));
+        tasks.addAll(newTasks);
+        concurrentTasks.addAll(newTasks);
+
+        assertEquals(tasks.getTasksMatchingDescription("book"), concurrentTasks.getTasksMatchingDescription("book"));
+        assertEquals(tasks.getTasksMatchingDescription("ook re"),
+                concurrentTasks.getTasksMatchingDescription("ook re"));
+        assertEquals(tasks.getTasksDueBy(date), concurrentTasks.getTasksDueBy(date));
+        assertEquals(tasks.getTasksOn(date), concurrentTasks.getTasksOn(date));
+        assertEquals(tasks.getTasksBetween(LocalDate.of(2024, 1, 1), date),
+                concurrentTasks.getTasksBetween(LocalDate.of(2024, 1, 1), date));
+    }
+}
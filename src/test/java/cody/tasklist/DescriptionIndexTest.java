@@ -0,0 +1,160 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class DescriptionIndexTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<Task> createTasks(String... descriptions) {
+        List<Task> tasks = new ArrayList<>();
+        for (String description : descriptions) {
+            Task task = new ToDo(description);
+            task.setId(tasks.size() + 1);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static DescriptionIndex createIndex(List<Task> tasks) {
+        DescriptionIndex index = new DescriptionIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    private static List<String> descriptionsOf(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void find_severalWords_onlyTasksContainingEveryWord() {
+        List<Task> tasks = createTasks("read book", "read paper", "buy book", "return book to library");
+        DescriptionIndex index = createIndex(tasks);
+
+        assertEquals(List.of("read book"), descriptionsOf(index.find("read book", tasks)));
+        assertEquals(List.of("read book"), descriptionsOf(index.find("  book   read ", tasks)));
+        assertEquals(List.of("return book to library"), descriptionsOf(index.find("book library", tasks)));
+        assertTrue(index.find("paper book", tasks).isEmpty());
+        assertTrue(index.find("read magazine", tasks).isEmpty());
+    }
+
+    @Test
+    public void find_partOfWord_tasksWithWordContainingIt() {
+        List<Task> tasks = createTasks("read book", "buy notebook", "cook dinner", "bookshelf");
+        DescriptionIndex index = createIndex(tasks);
+
+        assertEquals(List.of("read book", "buy notebook", "cook dinner", "bookshelf"),
+                descriptionsOf(index.find("ook", tasks)));
+        assertEquals(List.of("read book", "buy notebook", "bookshelf"), descriptionsOf(index.find("book", tasks)));
+        assertEquals(List.of("bookshelf"), descriptionsOf(index.find("kshe", tasks)));
+        // a query word cannot span two words of a description
+        assertTrue(index.find("dbook", tasks).isEmpty());
+    }
+
+    @Test
+    public void find_wordsShorterThanGram_matchedAgainstEveryIndexedWord() {
+        List<Task> tasks = createTasks("read book", "go to gym", "buy eggs", "a");
+        DescriptionIndex index = createIndex(tasks);
+
+        assertEquals(List.of("read book", "go to gym"), descriptionsOf(index.find("o", tasks)));
+        assertEquals(List.of("read book", "buy eggs"), descriptionsOf(index.find("e", tasks)));
+        assertEquals(List.of("go to gym"), descriptionsOf(index.find("gy to", tasks)));
+        assertEquals(List.of("read book"), descriptionsOf(index.find("ok re", tasks)));
+        assertTrue(index.find("zz", tasks).isEmpty());
+    }
+
+    @Test
+    public void find_noWords_emptyList() {
+        List<Task> tasks = createTasks("read book");
+        DescriptionIndex index = createIndex(tasks);
+
+        assertTrue(index.find("", tasks).isEmpty());
+        assertTrue(index.find(" \t ", tasks).isEmpty());
+    }
+
+    @Test
+    public void find_fewAndManyMatches_bothInListOrder() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            Task task = new ToDo(i % 2 == 0 ? "even " + i : "odd " + i);
+            task.setId(i);
+            tasks.add(task);
+        }
+        DescriptionIndex index = createIndex(tasks);
+
+        // few enough matches to be sorted by id
+        List<Task> fewMatches = index.find("odd 6", tasks);
+        assertEquals(List.of("odd 61", "odd 63"), descriptionsOf(fewMatches));
+
+        // so many matches that the list is walked instead
+        List<Task> manyMatches = index.find("even", tasks);
+        assertEquals(32, manyMatches.size());
+        for (int i = 0; i < manyMatches.size(); i++) {
+            assertSame(tasks.get(2 * i + 1), manyMatches.get(i));
+        }
+    }
+
+    @Test
+    public void find_taskReinsertedAfterUndo_keepsItsPlaceInList() throws Exception {
+        TaskList tasks = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        tasks.add(new ToDo("read book"));
+        tasks.add(new ToDo("buy book"));
+        tasks.add(new ToDo("return book"));
+        tasks.remove(0);
+        tasks.add(new ToDo("lend book"));
+        tasks.undo();
+        tasks.undo();
+
+        assertEquals(List.of("read book", "buy book", "return book"),
+                descriptionsOf(tasks.getTasksMatchingDescription("book")));
+    }
+
+    @Test
+    public void remove_lastTaskWithWord_postingsAndGramsDropped() {
+        List<Task> tasks = createTasks("read book", "read paper");
+        DescriptionIndex index = createIndex(tasks);
+
+        index.remove(tasks.get(0));
+        tasks.remove(0);
+        assertTrue(index.find("book", tasks).isEmpty());
+        assertTrue(index.find("oo", tasks).isEmpty());
+        assertEquals(List.of("read paper"), descriptionsOf(index.find("read", tasks)));
+        assertFalse(index.postings.containsKey("book"));
+        assertFalse(index.wordsByGram.containsKey("boo"));
+
+        index.remove(tasks.get(0));
+        tasks.remove(0);
+        assertTrue(index.postings.isEmpty());
+        assertTrue(index.wordsByGram.isEmpty());
+    }
+
+    @Test
+    public void remove_equalTask_otherTaskStillFound() {
+        List<Task> tasks = createTasks("read book", "read book");
+        DescriptionIndex index = createIndex(tasks);
+
+        index.remove(tasks.get(1));
+        List<Task> matches = index.find("book", tasks.subList(0, 1));
+        assertEquals(1, matches.size());
+        assertSame(tasks.get(0), matches.get(0));
+    }
+}
@@ -0,0 +1,150 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class JournaledStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList createTaskList(int compactionThreshold) throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        return new TaskList(new JournaledStorage(tempDir.toString(), filePath, compactionThreshold));
+    }
+
+    private ArrayList<Task> readWithTextStorage() throws IOException, CodyException {
+        return new Storage(tempDir.toString(), tempDir.resolve("tasks.txt").toString()).getExistingTasks();
+    }
+
+    @Test
+    public void getExistingTasks_afterMutations_replaysJournal() throws IOException, CodyException {
+        TaskList tasks = createTaskList(100);
+        tasks.add(new ToDo("read book"));
+        tasks.add(new Deadline("return book", LocalDate.parse("2025-09-10")));
+        tasks.add(new ToDo("borrow book"));
+        tasks.markTaskAsDone(1);
+        tasks.remove(0);
+
+        TaskList reloaded = createTaskList(100);
+        assertEquals(2, reloaded.size());
+        assertEquals("[D][X] return book (by: 2025-09-10)", reloaded.get(0).toString());
+        assertEquals("[T][ ] borrow book", reloaded.get(1).toString());
+    }
+
+    @Test
+    public void addToFile_thresholdReached_compactsIntoSnapshot() throws IOException, CodyException {
+        TaskList tasks = createTaskList(3);
+        tasks.add(new ToDo("a"));
+        tasks.add(new ToDo("b"));
+        tasks.add(new ToDo("c"));
+
+        // the snapshot alone is readable by the plain text storage
+        assertEquals(3, readWithTextStorage().size());
+        assertEquals(1, Files.readAllLines(tempDir.resolve("tasks.txt.journal")).size());
+    }
+
+    @Test
+    public void getExistingTasks_tornLastRecord_ignoresRecord() throws IOException, CodyException {
+        TaskList tasks = createTaskList(100);
+        tasks.add(new ToDo("a"));
+        tasks.add(new ToDo("b"));
+        Files.write(tempDir.resolve("tasks.txt.journal"), "REMOVE 1".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        TaskList reloaded = createTaskList(100);
+        assertEquals(2, reloaded.size());
+        reloaded.remove(0);
+        assertEquals("[T][ ] b", createTaskList(100).get(0).toString());
+    }
+
+    @Test
+    public void getExistingTasks_recordOutOfSequence_setsAsideRestAndCheckpoints()
+            throws IOException, CodyException {
+        TaskList tasks = createTaskList(100);
+        tasks.add(new ToDo("a"));
+        tasks.add(new ToDo("b"));
+        tasks.add(new ToDo("c"));
+        tasks.close();
+        Path journalPath = tempDir.resolve("tasks.txt.journal");
+        Files.write(journalPath, "9 REMOVE 0\n4 REMOVE 0\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        TaskList reloaded = createTaskList(100);
+        assertEquals(3, reloaded.size());
+        assertEquals(2, reloaded.getLoadErrors().size());
+        assertEquals(List.of("9 REMOVE 0", "4 REMOVE 0"),
+                Files.readAllLines(tempDir.resolve("tasks.txt.journal.rejected")));
+        assertEquals(3, readWithTextStorage().size());
+        List<String> journal = Files.readAllLines(journalPath);
+        assertEquals(1, journal.size());
+        assertTrue(journal.get(0).startsWith("# checkpoint 3 "));
+    }
+
+    @Test
+    public void getExistingTasks_unreadableSnapshotLine_replaysJournalAndCheckpoints()
+            throws IOException, CodyException {
+        Path snapshotPath = tempDir.resolve("tasks.txt");
+        Files.write(snapshotPath, List.of("#1 [T][ ] a", "garbled", "#2 [T][ ] b"));
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(snapshotPath));
+        String journal = "# checkpoint 0 " + Long.toHexString(crc.getValue()) + "\n"
+                + "1 ADD #3 [T][ ] c\n2 REMOVE 0\n";
+        Files.write(tempDir.resolve("tasks.txt.journal"), journal.getBytes(StandardCharsets.UTF_8));
+
+        TaskList tasks = createTaskList(100);
+        assertEquals(List.of("[T][ ] b", "[T][ ] c"), List.of(tasks.get(0).toString(), tasks.get(1).toString()));
+        assertEquals(1, tasks.getLoadErrors().size());
+        assertEquals(List.of("garbled"), Files.readAllLines(tempDir.resolve("tasks.txt.rejected")));
+        tasks.close();
+
+        TaskList reloaded = createTaskList(100);
+        assertEquals(2, reloaded.size());
+        assertEquals(0, reloaded.getLoadErrors().size());
+        assertTrue(Files.readAllLines(tempDir.resolve("tasks.txt.journal")).get(0).startsWith("# checkpoint 2 "));
+    }
+
+    @Test
+    public void addToFile_afterCheckpoint_numberingContinues() throws IOException, CodyException {
+        TaskList tasks = createTaskList(2);
+        tasks.add(new ToDo("a"));
+        tasks.add(new ToDo("b"));
+        tasks.add(new ToDo("c"));
+        tasks.close();
+
+        List<String> journal = Files.readAllLines(tempDir.resolve("tasks.txt.journal"));
+        assertTrue(journal.get(0).startsWith("# checkpoint 2 "));
+        assertEquals("3 ADD #3 [T][ ] c", journal.get(1));
+        assertEquals(3, createTaskList(2).size());
+    }
+
+    @Test
+    public void addToFile_checkpointIntervalOver_compactsIntoSnapshot()
+            throws IOException, CodyException, InterruptedException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        TaskList tasks = new TaskList(new JournaledStorage(tempDir.toString(), filePath, 100, 1));
+        tasks.add(new ToDo("a"));
+        Thread.sleep(5);
+        tasks.add(new ToDo("b"));
+
+        assertEquals(2, readWithTextStorage().size());
+        assertEquals(1, Files.readAllLines(tempDir.resolve("tasks.txt.journal")).size());
+    }
+}
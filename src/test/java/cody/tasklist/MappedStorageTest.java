@@ -0,0 +1,116 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class MappedStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private MappedStorage openStorage() throws IOException {
+        return new MappedStorage(tempDir.toString(), tempDir.resolve("tasks.bin").toString());
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toString() + " #" + task.getId());
+        }
+        return lines;
+    }
+
+    @Test
+    public void removeFromFile_recordTombstoned_tasksReadBackInOrder() throws IOException, CodyException {
+        TaskList tasks = new TaskList(openStorage());
+        tasks.add(new ToDo("a"));
+        tasks.add(new Deadline("b", LocalDate.of(2024, 3, 5)));
+        tasks.add(new ToDo("c"));
+        tasks.close();
+        long fileSize = Files.size(tempDir.resolve("tasks.bin"));
+
+        TaskList reloaded = new TaskList(openStorage());
+        reloaded.remove(1);
+        reloaded.markTaskAsDone(1);
+        reloaded.close();
+
+        // a tombstone keeps its slots until the file is rewritten
+        assertEquals(fileSize, Files.size(tempDir.resolve("tasks.bin")));
+        assertEquals(List.of("[T][ ] a #1", "[T][X] c #3"), describe(openStorage().getExistingTasks()));
+    }
+
+    @Test
+    public void insertToFile_removalUndone_recordPutBackInIdOrder() throws IOException, CodyException {
+        TaskList tasks = new TaskList(openStorage());
+        tasks.add(new ToDo("a"));
+        tasks.add(new ToDo("b"));
+        tasks.add(new ToDo("c"));
+        tasks.remove(0);
+        tasks.undo();
+        tasks.close();
+
+        assertEquals(List.of("[T][ ] a #1", "[T][ ] b #2", "[T][ ] c #3"),
+                describe(openStorage().getExistingTasks()));
+    }
+
+    @Test
+    public void reclaimTombstones_afterRemovals_fileShrinksAndStaysUsable() throws IOException, CodyException {
+        MappedStorage storage = openStorage();
+        TaskList tasks = new TaskList(storage);
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        int[] evenIndices = new int[50];
+        for (int i = 0; i < 50; i++) {
+            evenIndices[i] = 2 * i;
+        }
+        tasks.removeAll(evenIndices);
+        Path filePath = tempDir.resolve("tasks.bin");
+        long sizeWithTombstones = Files.size(filePath);
+
+        storage.reclaimTombstones();
+        assertTrue(Files.size(filePath) < sizeWithTombstones);
+        assertTrue(Files.notExists(tempDir.resolve("tasks.bin.tmp")));
+        tasks.add(new ToDo("added after reclaiming"));
+        tasks.markTaskAsDone(0);
+        tasks.remove(1);
+        tasks.close();
+
+        List<Task> reloaded = openStorage().getExistingTasks();
+        assertEquals(50, reloaded.size());
+        assertEquals("[T][X] task 1 #2", describe(reloaded).get(0));
+        assertEquals("[T][ ] task 5 #6", describe(reloaded).get(1));
+        assertEquals("[T][ ] added after reclaiming #101", describe(reloaded).get(49));
+    }
+
+    @Test
+    public void create_mappedWithOnlyTextFile_convertsTextFileOnce() throws IOException, CodyException {
+        Path textPath = tempDir.resolve("tasks.txt");
+        Files.write(textPath, List.of("#1 [T][ ] a", "#4 [D][X] b (by: 2024-03-05)"));
+
+        TaskStorage storage = StorageFactory.create("mapped", tempDir.toString(), textPath.toString());
+        assertTrue(storage instanceof MappedStorage);
+        assertEquals(List.of("[T][ ] a #1", "[D][X] b (by: 2024-03-05) #4"), describe(storage.getExistingTasks()));
+        storage.close();
+
+        // once the binary file exists, the text file is no longer read
+        Files.write(textPath, List.of("#1 [T][ ] changed"));
+        TaskStorage reopened = StorageFactory.create("mapped", tempDir.toString(), textPath.toString());
+        assertEquals(2, reopened.getExistingTasks().size());
+        reopened.close();
+    }
+}
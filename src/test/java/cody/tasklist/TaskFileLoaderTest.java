@@ -0,0 +1,86 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Task;
+
+public class TaskFileLoaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_manyChunks_tasksAndErrorsInFileOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            lines.add(i % 10 == 0 ? "garbled " + i : "#" + i + " [T][ ] task " + i);
+        }
+        Path filePath = tempDir.resolve("tasks.txt");
+        Files.write(filePath, lines);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        LoadResult result;
+        try {
+            result = new TaskFileLoader(pool, 7).load(filePath);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(90, result.getTasks().size());
+        long lastId = 0;
+        for (Task task : result.getTasks()) {
+            assertTrue(task.getId() > lastId);
+            lastId = task.getId();
+        }
+        assertEquals(10, result.getErrors().size());
+        for (int i = 0; i < 10; i++) {
+            LoadResult.LineError error = result.getErrors().get(i);
+            assertEquals(10 * (i + 1), error.getLineNumber());
+            assertEquals("garbled " + 10 * (i + 1), error.getLine());
+        }
+        assertFalse(result.isClean());
+    }
+
+    @Test
+    public void load_nextIdHeaderAndEmptyLines_skippedWithLineNumbersKept() throws IOException {
+        Path filePath = tempDir.resolve("tasks.txt");
+        Files.write(filePath, List.of("# next id 9", "#1 [T][ ] a", "", "not a task", "#4 [T][X] b"));
+
+        LoadResult result = new TaskFileLoader().load(filePath);
+
+        assertEquals(9, result.getNextId());
+        assertEquals(2, result.getTasks().size());
+        assertEquals("[T][X] b", result.getTasks().get(1).toString());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(4, result.getErrors().get(0).getLineNumber());
+    }
+
+    @Test
+    public void getExistingTasks_unreadableLines_setAsideAndFileRewritten() throws IOException, CodyException {
+        Path filePath = tempDir.resolve("tasks.txt");
+        Files.write(filePath, List.of("#1 [T][ ] a", "garbled", "#2 [T][ ] b", "[X] also garbled"));
+        Storage storage = new Storage(tempDir.toString(), filePath.toString());
+
+        assertEquals(2, storage.getExistingTasks().size());
+        assertEquals(List.of(2L, 4L), List.of(storage.getLoadErrors().get(0).getLineNumber(),
+                storage.getLoadErrors().get(1).getLineNumber()));
+        assertEquals(List.of("garbled", "[X] also garbled"),
+                Files.readAllLines(tempDir.resolve("tasks.txt.rejected")));
+
+        Storage reopened = new Storage(tempDir.toString(), filePath.toString());
+        assertEquals(2, reopened.getExistingTasks().size());
+        assertTrue(reopened.getLoadErrors().isEmpty());
+    }
+}
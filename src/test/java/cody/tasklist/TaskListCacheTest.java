@@ -0,0 +1,70 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.ToDo;
+
+public class TaskListCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void get_moreListsThanLimit_leastRecentlyUsedFlushedAndDropped() throws IOException, CodyException {
+        TaskListCache cache = new TaskListCache(tempDir.toString(), 2, 1000);
+        TaskList home = cache.get("home");
+        home.beginBatch();
+        home.add(new ToDo("unsaved task"));
+        TaskList work = cache.get("work");
+        assertSame(work, cache.get("work"));
+
+        // home is the least recently used list, so it is written out and dropped
+        cache.get("school");
+        assertEquals(2, cache.getLoadedListCount());
+        assertSame(work, cache.get("work"));
+        TaskList reloaded = new TaskList(tempDir.toString(), tempDir.resolve("home.txt").toString());
+        assertEquals("[T][ ] unsaved task", reloaded.get(0).toString());
+
+        TaskList reloadedHome = cache.get("home");
+        assertNotSame(home, reloadedHome);
+        assertEquals(1, reloadedHome.size());
+        cache.close();
+    }
+
+    @Test
+    public void get_moreTasksThanLimit_otherListsDropped() throws IOException, CodyException {
+        TaskListCache cache = new TaskListCache(tempDir.toString(), 10, 3);
+        TaskList home = cache.get("home");
+        home.addAll(List.of(new ToDo("a"), new ToDo("b")));
+        cache.get("work").addAll(List.of(new ToDo("c"), new ToDo("d")));
+        assertEquals(2, cache.getLoadedListCount());
+
+        cache.get("school");
+        assertEquals(2, cache.getLoadedListCount());
+        assertNotSame(home, cache.get("home"));
+        cache.close();
+    }
+
+    @Test
+    public void getListNames_storedAndLoadedLists_sortedWithoutOtherFiles() throws IOException, CodyException {
+        Files.writeString(tempDir.resolve("work.txt"), "");
+        Files.writeString(tempDir.resolve("work.txt.journal"), "");
+        Files.writeString(tempDir.resolve("not a list.txt"), "");
+        TaskListCache cache = new TaskListCache(tempDir.toString());
+        cache.get("home");
+        assertEquals(List.of("home", "work"), cache.getListNames());
+        assertFalse(TaskListCache.isValidName("../tasks"));
+        cache.close();
+    }
+}
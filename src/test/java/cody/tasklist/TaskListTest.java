@@ -0,0 +1,339 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class TaskListTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<String> describe(TaskList tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toString());
+        }
+        return lines;
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toString());
+        }
+        return lines;
+    }
+
+    /** Opens the same task file again, so that what was written can be read back. */
+    private interface StorageOpener {
+        TaskStorage open() throws IOException, CodyException;
+    }
+
+    private void assertRemoveAllThenMarkAllPersisted(StorageOpener opener) throws IOException, CodyException {
+        TaskList tasks = new TaskList(opener.open());
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            newTasks.add(new ToDo("task " + i));
+        }
+        tasks.addAll(newTasks);
+
+        List<Task> removedTasks = tasks.removeAll(new int[] { 0, 3, 4, 5, 9 });
+        assertEquals("[T][ ] task 0", removedTasks.get(0).toString());
+        assertEquals("[T][ ] task 9", removedTasks.get(4).toString());
+        tasks.markAll(new int[] { 1, 4 }, true);
+        tasks.close();
+
+        List<String> expected = List.of("[T][ ] task 1", "[T][X] task 2", "[T][ ] task 6", "[T][ ] task 7",
+                "[T][X] task 8");
+        assertEquals(expected, describe(tasks));
+        assertEquals(expected, describe(new TaskList(opener.open())));
+    }
+
+    @Test
+    public void removeAll_textStorage_persistsWithIndexShifting() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertRemoveAllThenMarkAllPersisted(() -> new Storage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void removeAll_mappedStorage_persistsWithIndexShifting() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.bin").toString();
+        assertRemoveAllThenMarkAllPersisted(() -> new MappedStorage(tempDir.toString(), filePath));
+    }
+
+    private void assertIdsKeptAfterRemoval(StorageOpener opener) throws IOException, CodyException {
+        TaskList tasks = new TaskList(opener.open());
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        tasks.removeAll(new int[] { 0, 2 });
+        tasks.remove(0);
+        assertEquals(0, tasks.indexOfId(4));
+        assertEquals(1, tasks.indexOfId(5));
+        assertEquals(-1, tasks.indexOfId(2));
+        assertNull(tasks.getById(1));
+        tasks.add(new ToDo("task 5"));
+        tasks.close();
+
+        TaskList reloaded = new TaskList(opener.open());
+        assertEquals("[T][ ] task 3", reloaded.getById(4).toString());
+        assertSame(reloaded.get(2), reloaded.getById(6));
+        reloaded.add(new ToDo("task 6"));
+        assertEquals(7, reloaded.get(3).getId());
+        reloaded.close();
+    }
+
+    @Test
+    public void ids_textStorage_keptAfterRemovalAndReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertIdsKeptAfterRemoval(() -> new Storage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void ids_mappedStorage_keptAfterRemovalAndReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.bin").toString();
+        assertIdsKeptAfterRemoval(() -> new MappedStorage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void ids_journaledStorage_keptAfterRemovalAndReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertIdsKeptAfterRemoval(() -> new JournaledStorage(tempDir.toString(), filePath));
+    }
+
+    private void assertIdOfRemovedNewestTaskNotReused(StorageOpener opener) throws IOException, CodyException {
+        TaskList tasks = new TaskList(opener.open());
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        tasks.remove(2);
+        tasks.close();
+
+        TaskList reloaded = new TaskList(opener.open());
+        reloaded.add(new ToDo("task 3"));
+        assertEquals(4, reloaded.get(2).getId());
+        reloaded.remove(2);
+        reloaded.remove(1);
+        reloaded.close();
+
+        TaskList reloadedAgain = new TaskList(opener.open());
+        reloadedAgain.add(new ToDo("task 4"));
+        assertEquals(5, reloadedAgain.get(1).getId());
+        reloadedAgain.close();
+    }
+
+    @Test
+    public void ids_textStorage_removedNewestIdNotReusedAfterReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertIdOfRemovedNewestTaskNotReused(() -> new Storage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void ids_mappedStorage_removedNewestIdNotReusedAfterReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.bin").toString();
+        assertIdOfRemovedNewestTaskNotReused(() -> {
+            // drop the tombstones, so that the next id can only come from the header
+            MappedStorage storage = new MappedStorage(tempDir.toString(), filePath);
+            storage.getExistingTasks();
+            storage.reclaimTombstones();
+            return storage;
+        });
+    }
+
+    @Test
+    public void ids_journaledStorage_removedNewestIdNotReusedAfterReload() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertIdOfRemovedNewestTaskNotReused(() -> new JournaledStorage(tempDir.toString(), filePath));
+        // a checkpoint after every record keeps the next id only in the snapshot
+        assertIdOfRemovedNewestTaskNotReused(() -> new JournaledStorage(tempDir.toString(),
+                tempDir.resolve("checkpointed.txt").toString(), 1));
+    }
+
+    private void assertUndoAndRedoPersisted(StorageOpener opener) throws IOException, CodyException {
+        TaskList tasks = new TaskList(opener.open());
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            newTasks.add(new ToDo("task " + i));
+        }
+        tasks.addAll(newTasks);
+        tasks.remove(1);
+        tasks.removeAll(new int[] { 0, 2 });
+        tasks.markTaskAsDone(1);
+        assertEquals(List.of("[T][ ] task 2", "[T][X] task 4"), describe(tasks));
+
+        assertEquals(1, tasks.undo());
+        assertEquals(2, tasks.undo());
+        assertEquals(List.of("[T][ ] task 0", "[T][ ] task 2", "[T][ ] task 3", "[T][ ] task 4"), describe(tasks));
+        assertEquals(2, tasks.indexOfId(4));
+        assertEquals("[T][ ] task 0", tasks.getTasksMatchingDescription("task").get(0).toString());
+        assertEquals(2, tasks.redo());
+        assertEquals(List.of("[T][ ] task 2", "[T][ ] task 4"), describe(tasks));
+
+        tasks.add(new ToDo("task 5"));
+        assertEquals(0, tasks.redo());
+        assertEquals(1, tasks.undo());
+        assertEquals(2, tasks.undo());
+        assertEquals(1, tasks.undo());
+        tasks.close();
+
+        List<String> expected = List.of("[T][ ] task 0", "[T][ ] task 1", "[T][ ] task 2", "[T][ ] task 3",
+                "[T][ ] task 4");
+        assertEquals(expected, describe(tasks));
+        TaskList reloaded = new TaskList(opener.open());
+        assertEquals(expected, describe(reloaded));
+        assertEquals(1, reloaded.indexOfId(2));
+        assertEquals(0, reloaded.undo());
+        reloaded.close();
+    }
+
+    @Test
+    public void undo_textStorage_persistsOnlyReversedChanges() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertUndoAndRedoPersisted(() -> new Storage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void undo_mappedStorage_persistsOnlyReversedChanges() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.bin").toString();
+        assertUndoAndRedoPersisted(() -> new MappedStorage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void undo_journaledStorage_persistsOnlyReversedChanges() throws IOException, CodyException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        assertUndoAndRedoPersisted(() -> new JournaledStorage(tempDir.toString(), filePath));
+    }
+
+    @Test
+    public void load_fileWithMissingIds_idsAssignedAndSaved() throws IOException, CodyException {
+        Path filePath = tempDir.resolve("tasks.txt");
+        Files.write(filePath, List.of("[T][ ] task 1", "#5 [T][X] task 2", "#3 [T][ ] task 3", "[T][ ] task 4"));
+        TaskList tasks = new TaskList(tempDir.toString(), filePath.toString());
+        tasks.close();
+
+        assertEquals(List.of("# next id 8", "#1 [T][ ] task 1", "#5 [T][X] task 2", "#6 [T][ ] task 3",
+                "#7 [T][ ] task 4"),
+                Files.readAllLines(filePath));
+        assertEquals(2, tasks.indexOfId(6));
+    }
+
+    private static List<String> descriptionsOf(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+
+    private TaskList createDatedTaskList() throws IOException, CodyException {
+        TaskList tasks = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        tasks.add(new Deadline("pay rent", LocalDate.of(2024, 3, 1)));
+        tasks.add(new Deadline("file taxes", LocalDate.of(2024, 3, 5)));
+        tasks.add(new Event("trip", LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 7)));
+        tasks.add(new ToDo("read"));
+        tasks.add(new Deadline("report", LocalDate.of(2024, 3, 10)));
+        tasks.add(new Event("conference", LocalDate.of(2024, 2, 20), LocalDate.of(2024, 2, 22)));
+        tasks.markTaskAsDone(0);
+        return tasks;
+    }
+
+    @Test
+    public void getTasksDueBy_doneAndUndoneTasks_onlyUndoneUpToDateByEndDate() throws IOException, CodyException {
+        TaskList tasks = createDatedTaskList();
+        assertEquals(List.of("conference", "file taxes"), descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 3, 5))));
+        assertEquals(List.of("conference"), descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 3, 4))));
+        assertEquals(List.of(), descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 2, 21))));
+
+        tasks.markTaskAsDone(1);
+        assertEquals(List.of("conference"), descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 3, 5))));
+        tasks.undo();
+        tasks.markAll(new int[] { 0 }, false);
+        assertEquals(List.of("conference", "pay rent", "file taxes"),
+                descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 3, 5))));
+        tasks.remove(5);
+        assertEquals(List.of("pay rent", "file taxes", "trip", "report"),
+                descriptionsOf(tasks.getTasksDueBy(LocalDate.of(2024, 12, 31))));
+    }
+
+    @Test
+    public void getTasksOn_datesAtEdgesOfEvent_includedWhetherDoneOrNot() throws IOException, CodyException {
+        TaskList tasks = createDatedTaskList();
+        assertEquals(List.of("file taxes", "trip"), descriptionsOf(tasks.getTasksOn(LocalDate.of(2024, 3, 5))));
+        assertEquals(List.of("trip"), descriptionsOf(tasks.getTasksOn(LocalDate.of(2024, 3, 3))));
+        assertEquals(List.of("trip"), descriptionsOf(tasks.getTasksOn(LocalDate.of(2024, 3, 7))));
+        assertEquals(List.of(), descriptionsOf(tasks.getTasksOn(LocalDate.of(2024, 3, 8))));
+        assertEquals(List.of("pay rent"), descriptionsOf(tasks.getTasksOn(LocalDate.of(2024, 3, 1))));
+    }
+
+    @Test
+    public void getTasksBetween_rangesTouchingTasks_overlappingTasksByEndDate() throws IOException, CodyException {
+        TaskList tasks = createDatedTaskList();
+        assertEquals(List.of("conference", "pay rent"),
+                descriptionsOf(tasks.getTasksBetween(LocalDate.of(2024, 2, 22), LocalDate.of(2024, 3, 1))));
+        assertEquals(List.of("conference"),
+                descriptionsOf(tasks.getTasksBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 20))));
+        assertEquals(List.of("file taxes", "trip", "report"),
+                descriptionsOf(tasks.getTasksBetween(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 10))));
+        assertEquals(List.of(),
+                descriptionsOf(tasks.getTasksBetween(LocalDate.of(2024, 3, 8), LocalDate.of(2024, 3, 9))));
+    }
+
+    @Test
+    public void getTasksSortedBy_afterChanges_keptInOrder() throws IOException, CodyException {
+        TaskList tasks = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        tasks.addAll(List.of(new Event("trip", LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 9)),
+                new ToDo("read"), new Deadline("essay", LocalDate.of(2025, 5, 3)),
+                new Deadline("report", LocalDate.of(2025, 5, 9)), new ToDo("call")));
+        tasks.markTaskAsDone(1);
+        tasks.markAll(new int[] { 0, 3 }, true);
+        tasks.remove(2);
+        tasks.undo();
+        tasks.markTaskAsNotDone(0);
+
+        assertEquals(List.of("[D][ ] essay (by: 2025-05-03)", "[E][ ] trip (from: 2025-05-01 to: 2025-05-09)",
+                "[D][X] report (by: 2025-05-09)", "[T][X] read", "[T][ ] call"),
+                describe(tasks.getTasksSortedBy(TaskOrder.DATE, 0, 10)));
+        assertEquals(List.of("[E][ ] trip (from: 2025-05-01 to: 2025-05-09)", "[D][ ] essay (by: 2025-05-03)",
+                "[T][ ] call", "[T][X] read", "[D][X] report (by: 2025-05-09)"),
+                describe(tasks.getTasksSortedBy(TaskOrder.STATUS, 0, 10)));
+        assertEquals(List.of("[D][ ] essay (by: 2025-05-03)", "[D][X] report (by: 2025-05-09)"),
+                describe(tasks.getTasksSortedBy(TaskOrder.TYPE, 2, 2)));
+    }
+
+    @Test
+    public void contains_equalTasksMarkedAndRemoved_noStaleDuplicate() throws IOException, CodyException {
+        TaskList tasks = new TaskList(tempDir.toString(), tempDir.resolve("tasks.txt").toString());
+        tasks.add(new ToDo("x"));
+        tasks.markTaskAsDone(0);
+        tasks.add(new ToDo("x"));
+        tasks.markTaskAsDone(1);
+        tasks.markTaskAsNotDone(0);
+        tasks.remove(1);
+        tasks.markTaskAsDone(0);
+        tasks.remove(0);
+
+        assertEquals(0, tasks.size());
+        assertFalse(tasks.contains(new ToDo("x", true)));
+        assertFalse(tasks.contains(new ToDo("x")));
+        assertEquals(1, tasks.addAll(List.of(new ToDo("x", true))));
+        assertTrue(tasks.contains(new ToDo("x", true)));
+    }
+}
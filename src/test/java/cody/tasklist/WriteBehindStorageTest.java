@@ -0,0 +1,173 @@
+package cody.tasklist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cody.task.Task;
+import cody.task.ToDo;
+
+public class WriteBehindStorageTest {
+
+    /** How long a test waits for the flusher thread before it fails. */
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    /** A storage that only records the size of each batch committed to it. */
+    private static class CountingStorage implements TaskStorage {
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private int syncCount;
+        private boolean isClosed;
+
+        @Override
+        public ArrayList<Task> getExistingTasks() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void addToFile(Task task) throws IOException {
+            apply(List.of(StorageOperation.add(task)));
+        }
+
+        @Override
+        public void removeFromFile(int taskIndex) throws IOException {
+            apply(List.of(StorageOperation.remove(taskIndex)));
+        }
+
+        @Override
+        public void insertToFile(int taskIndex, Task task) throws IOException {
+            apply(List.of(StorageOperation.insert(taskIndex, task)));
+        }
+
+        @Override
+        public void updateTask(int taskIndex, Task updatedTask) throws IOException {
+            apply(List.of(StorageOperation.update(taskIndex, updatedTask)));
+        }
+
+        @Override
+        public synchronized void apply(List<StorageOperation> operations) {
+            this.batchSizes.add(operations.size());
+            notifyAll();
+        }
+
+        @Override
+        public void writeAll(List<Task> tasks) {
+        }
+
+        @Override
+        public synchronized void sync() {
+            this.syncCount++;
+        }
+
+        @Override
+        public synchronized void close() {
+            this.isClosed = true;
+        }
+
+        synchronized List<Integer> getBatchSizes() {
+            return new ArrayList<>(this.batchSizes);
+        }
+
+        synchronized int getCommittedCount() {
+            return this.batchSizes.stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /** Waits until the given number of operations have been committed, without asking for a flush. */
+        synchronized void awaitCommitted(int operationCount) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (getCommittedCount() < operationCount && System.currentTimeMillis() < deadline) {
+                wait(deadline - System.currentTimeMillis());
+            }
+            assertEquals(operationCount, getCommittedCount());
+        }
+    }
+
+    /** A storage whose commits always fail. */
+    private static class FailingStorage extends CountingStorage {
+        @Override
+        public synchronized void apply(List<StorageOperation> operations) {
+            throw new IllegalStateException("disk full");
+        }
+    }
+
+    @Test
+    public void addToFile_syncPolicy_committedBeforeReturning() throws IOException {
+        CountingStorage delegate = new CountingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(delegate, DurabilityPolicy.sync());
+        storage.addToFile(new ToDo("a"));
+        assertEquals(1, delegate.getCommittedCount());
+        storage.addToFile(new ToDo("b"));
+        assertEquals(List.of(1, 1), delegate.getBatchSizes());
+        assertEquals(2, delegate.syncCount);
+        storage.close();
+    }
+
+    @Test
+    public void addToFile_operationsPolicy_committedOnceEnoughQueued() throws IOException, InterruptedException {
+        CountingStorage delegate = new CountingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(delegate, DurabilityPolicy.everyOperations(3));
+        storage.addToFile(new ToDo("a"));
+        storage.addToFile(new ToDo("b"));
+        Thread.sleep(50);
+        assertEquals(0, delegate.getCommittedCount());
+
+        storage.addToFile(new ToDo("c"));
+        delegate.awaitCommitted(3);
+        assertEquals(List.of(3), delegate.getBatchSizes());
+        storage.close();
+    }
+
+    @Test
+    public void addToFile_intervalPolicy_committedWithoutFlush() throws IOException, InterruptedException {
+        CountingStorage delegate = new CountingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(delegate, DurabilityPolicy.everyMillis(20));
+        storage.addToFile(new ToDo("a"));
+        storage.removeFromFile(0);
+        delegate.awaitCommitted(2);
+        storage.close();
+    }
+
+    @Test
+    public void flush_shutdownPolicy_commitsQueuedOperationsAsOneBatch() throws IOException, InterruptedException {
+        CountingStorage delegate = new CountingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(delegate, DurabilityPolicy.onShutdown());
+        for (int i = 0; i < 5; i++) {
+            storage.addToFile(new ToDo("task " + i));
+        }
+        Thread.sleep(50);
+        assertEquals(0, delegate.getCommittedCount());
+
+        storage.flush();
+        assertEquals(List.of(5), delegate.getBatchSizes());
+        storage.updateTask(0, new ToDo("task 0"));
+        storage.close();
+        assertEquals(List.of(5, 1), delegate.getBatchSizes());
+        assertTrue(delegate.isClosed);
+    }
+
+    @Test
+    public void addToFile_afterClose_exceptionThrown() throws IOException {
+        CountingStorage delegate = new CountingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(delegate, DurabilityPolicy.onShutdown());
+        storage.close();
+        IOException e = assertThrows(IOException.class, () -> storage.addToFile(new ToDo("a")));
+        assertEquals("Storage has already been closed.", e.getMessage());
+    }
+
+    @Test
+    public void commitFailure_reportedByEveryLaterCall() throws IOException {
+        WriteBehindStorage storage = new WriteBehindStorage(new FailingStorage(), DurabilityPolicy.onShutdown());
+        storage.addToFile(new ToDo("a"));
+
+        IOException e = assertThrows(IOException.class, storage::flush);
+        assertEquals("Unable to save tasks: disk full", e.getMessage());
+        assertThrows(IOException.class, () -> storage.addToFile(new ToDo("b")));
+        assertThrows(IOException.class, storage::sync);
+        assertThrows(IOException.class, storage::close);
+    }
+}
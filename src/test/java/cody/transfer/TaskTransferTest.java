@@ -0,0 +1,134 @@
+package cody.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cody.exception.CodyException;
+import cody.task.Deadline;
+import cody.task.Event;
+import cody.task.Task;
+import cody.task.ToDo;
+import cody.tasklist.TaskList;
+
+public class TaskTransferTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<String> describe(TaskList tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toString());
+        }
+        return lines;
+    }
+
+    private TaskList newTaskList(String name) throws IOException, CodyException {
+        return new TaskList(tempDir.toString(), tempDir.resolve(name).toString());
+    }
+
+    private void assertRoundTrip(String fileName) throws IOException, CodyException {
+        TaskList tasks = newTaskList("source.txt");
+        List<Task> newTasks = List.of(
+                new ToDo("read \"Dune\", slowly", true),
+                new Deadline("return book; pay fine", LocalDate.of(2025, 3, 21), false),
+                new Event("conference", LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 3), true),
+                new ToDo("a very long description that has to be folded over more than one line when it is "
+                        + "written to an iCalendar file — über lang"));
+        tasks.addAll(newTasks);
+        Path file = tempDir.resolve(fileName);
+        assertEquals(4, TaskTransfer.exportTasks(tasks, file));
+
+        TaskList imported = newTaskList("imported.txt");
+        ImportSummary summary = TaskTransfer.importTasks(imported, file);
+        assertEquals(4, summary.getAddedCount());
+        assertEquals(0, summary.getRejectedCount());
+        assertEquals(describe(tasks), describe(imported));
+
+        // importing the same file again only finds duplicates
+        summary = TaskTransfer.importTasks(imported, file);
+        assertEquals(0, summary.getAddedCount());
+        assertEquals(4, summary.getDuplicateCount());
+        assertEquals(4, imported.size());
+    }
+
+    @Test
+    public void exportThenImport_csv_keepsTasks() throws IOException, CodyException {
+        assertRoundTrip("tasks.csv");
+    }
+
+    @Test
+    public void exportThenImport_iCalendar_keepsTasks() throws IOException, CodyException {
+        assertRoundTrip("tasks.ics");
+    }
+
+    @Test
+    public void importTasks_csvWithBadRows_skipsThemWithLineNumbers() throws IOException, CodyException {
+        Path file = tempDir.resolve("tasks.csv");
+        Files.writeString(file, "type,description,done,start,end\n"
+                + "todo,first,false,,\n"
+                + "deadline,no date,false,,\n"
+                + "todo,\"spans\ntwo lines\",false,,\n"
+                + "event,backwards,false,2025-05-02,2025-05-01\n"
+                + "\n"
+                + "todo,first,false,,\n"
+                + "event,trip,false,2025-05-01,2025-05-02\n");
+
+        TaskList tasks = newTaskList("tasks.txt");
+        ImportSummary summary = TaskTransfer.importTasks(tasks, file);
+        assertEquals(2, summary.getAddedCount());
+        assertEquals(1, summary.getDuplicateCount());
+        assertEquals(3, summary.getRejectedCount());
+        assertEquals(List.of(3L, 4L, 6L), summary.getRejections().stream()
+                .map(rejection -> Long.parseLong(rejection.substring("Line ".length(), rejection.indexOf(':'))))
+                .toList());
+        assertEquals(List.of("[T][ ] first", "[E][ ] trip (from: 2025-05-01 to: 2025-05-02)"), describe(tasks));
+    }
+
+    @Test
+    public void importTasks_iCalendarFromOtherApplication_readsTodosAndEvents() throws IOException, CodyException {
+        Path file = tempDir.resolve("calendar.ics");
+        Files.writeString(file, "BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"
+                + "BEGIN:VTODO\r\nSUMMARY:file\r\n  taxes\r\nDUE:20250415T170000Z\r\n"
+                + "BEGIN:VALARM\r\nSUMMARY:ignored\r\nEND:VALARM\r\nEND:VTODO\r\n"
+                + "BEGIN:VEVENT\r\nSUMMARY:holiday\r\nDTSTART;VALUE=DATE:20250601\r\n"
+                + "DTEND;VALUE=DATE:20250608\r\nEND:VEVENT\r\n"
+                + "BEGIN:VTODO\r\nSTATUS:COMPLETED\r\nEND:VTODO\r\n"
+                + "END:VCALENDAR\r\n");
+
+        TaskList tasks = newTaskList("tasks.txt");
+        ImportSummary summary = TaskTransfer.importTasks(tasks, file);
+        assertEquals(1, summary.getRejectedCount());
+        assertEquals(List.of("[D][ ] file taxes (by: 2025-04-15)",
+                "[E][ ] holiday (from: 2025-06-01 to: 2025-06-07)"), describe(tasks));
+    }
+
+    @Test
+    public void importTasks_iCalendarComponentWithoutEnd_rejectedAtItsLine() throws IOException, CodyException {
+        Path file = tempDir.resolve("calendar.ics");
+        Files.writeString(file, "BEGIN:VCALENDAR\r\n"
+                + "BEGIN:VTODO\r\nSUMMARY:first\r\nEND:VTODO\r\n"
+                + "BEGIN:VTODO\r\nSUMMARY:cut off\r\n");
+
+        TaskList tasks = newTaskList("tasks.txt");
+        ImportSummary summary = TaskTransfer.importTasks(tasks, file);
+        assertEquals(List.of("Line 5: BEGIN:VTODO has no matching END"), summary.getRejections());
+        assertEquals(List.of("[T][ ] first"), describe(tasks));
+    }
+
+    @Test
+    public void importTasks_unknownExtension_exceptionThrown() throws IOException, CodyException {
+        Path file = tempDir.resolve("tasks.json");
+        Files.writeString(file, "[]");
+        assertThrows(CodyException.class, () -> TaskTransfer.importTasks(newTaskList("tasks.txt"), file));
+    }
+}